@@ -0,0 +1,120 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop load generator for the wallet API, runnable without a build: {@code java scripts/LoadTest.java}.
+ * Each client loops on POST /transactions (credits with fresh idempotency keys) against a shared set of
+ * wallets and the run reports throughput, latency percentiles and the share of 503s shed by admission control.
+ *
+ * Arguments: baseUrl concurrency durationSeconds [wallets]
+ */
+public class LoadTest {
+
+    private static final int MAX_SAMPLES = 5_000_000;
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int walletCount = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long[] wallets = createWallets(client, baseUrl, walletCount);
+
+        AtomicLongArray latencies = new AtomicLongArray(MAX_SAMPLES);
+        AtomicLong samples = new AtomicLong();
+        AtomicLong ok = new AtomicLong();
+        AtomicLong shed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            int client0 = c;
+            pool.submit(() -> {
+                long n = 0;
+                while (System.nanoTime() < deadline) {
+                    long walletId = wallets[(int) ((client0 + n++) % wallets.length)];
+                    String body = "{\"walletId\":" + walletId + ",\"amount\":1,\"type\":\"CREDIT\",\"idempotencyKey\":\""
+                            + UUID.randomUUID() + "\"}";
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(post(baseUrl + "/transactions", body),
+                                HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - start;
+                        if (response.statusCode() == 200) {
+                            ok.incrementAndGet();
+                            long i = samples.getAndIncrement();
+                            if (i < MAX_SAMPLES) {
+                                latencies.set((int) i, elapsed);
+                            }
+                        } else if (response.statusCode() == 503) {
+                            shed.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+
+        int n = (int) Math.min(samples.get(), MAX_SAMPLES);
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        long total = ok.get() + shed.get() + failed.get();
+        System.out.printf("concurrency=%d duration=%ds ok=%d shed=%d (%.1f%%) failed=%d%n",
+                concurrency, durationSeconds, ok.get(), shed.get(), total == 0 ? 0 : 100.0 * shed.get() / total, failed.get());
+        System.out.printf("throughput=%.1f req/s p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                ok.get() / (double) durationSeconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), n == 0 ? 0 : sorted[n - 1] / 1e6);
+    }
+
+    private static long[] createWallets(HttpClient client, String baseUrl, int count) throws Exception {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            String response = client.send(post(baseUrl + "/wallets", "{\"initialBalance\":0,\"description\":\"load-test\"}"),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            int start = response.indexOf("\"id\":") + 5;
+            int end = start;
+            while (Character.isDigit(response.charAt(end))) {
+                end++;
+            }
+            ids[i] = Long.parseLong(response.substring(start, end));
+        }
+        return ids;
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
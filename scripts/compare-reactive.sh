@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Runs the same closed-loop load against the MVC runtime (JDBC, thread per request) and the reactive runtime
+# (WebFlux + R2DBC, built with -Preactive) and prints throughput and latency percentiles for each. Needs the
+# usual DATASOURCE_URL/DB_USERNAME/DB_PASSWORD; R2DBC_URL defaults to DATASOURCE_URL with the r2dbc scheme.
+#
+# Usage: scripts/compare-reactive.sh [concurrency] [durationSeconds]
+set -euo pipefail
+
+CONCURRENCY="${1:-1000}"
+DURATION="${2:-60}"
+PORT="${PORT:-8080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+export R2DBC_URL="${R2DBC_URL:-${DATASOURCE_URL/jdbc:/r2dbc:}}"
+
+build() {
+  ./mvnw -q -f "$ROOT/pom.xml" "$@" -DskipTests package
+  ls "$ROOT"/target/wallet_service-*.jar | grep -v plain | head -n 1
+}
+
+# Both builds write the same jar name, so keep a copy of the first
+cp "$(build)" "$ROOT/target/load-mvc.jar"
+cp "$(build -Preactive)" "$ROOT/target/load-reactive.jar"
+
+run_mode() {
+  local name="$1"
+  java -jar "$ROOT/target/load-$name.jar" --server.port="$PORT" > "$ROOT/target/load-$name.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+  # Short warm-up so JIT compilation is not part of the measurement
+  java "$ROOT/scripts/LoadTest.java" "http://localhost:$PORT" 50 10 > /dev/null
+  echo "== $name =="
+  java "$ROOT/scripts/LoadTest.java" "http://localhost:$PORT" "$CONCURRENCY" "$DURATION"
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+run_mode mvc
+run_mode reactive
@@ -0,0 +1,32 @@
+#!/usr/bin/env bash
+# Runs the same closed-loop load against the service in platform-thread mode and in virtual-thread mode
+# (virtual profile: virtual threads, fixed Hikari pool, admission control) and prints throughput and
+# latency percentiles for each. Needs a Java 21 JDK and the usual DATASOURCE_URL/DB_USERNAME/DB_PASSWORD.
+#
+# Usage: scripts/compare-thread-modes.sh [concurrency] [durationSeconds]
+set -euo pipefail
+
+CONCURRENCY="${1:-1000}"
+DURATION="${2:-60}"
+PORT="${PORT:-8080}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+
+./mvnw -q -f "$ROOT/pom.xml" -Pjava21 -DskipTests package
+JAR="$(ls "$ROOT"/target/wallet_service-*.jar | grep -v plain | head -n 1)"
+
+run_mode() {
+  local name="$1" profiles="$2"
+  java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profiles" > "$ROOT/target/load-$name.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+  # Short warm-up so JIT compilation is not part of the measurement
+  java "$ROOT/scripts/LoadTest.java" "http://localhost:$PORT" 50 10 > /dev/null
+  echo "== $name =="
+  java "$ROOT/scripts/LoadTest.java" "http://localhost:$PORT" "$CONCURRENCY" "$DURATION"
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+run_mode platform default
+run_mode virtual virtual
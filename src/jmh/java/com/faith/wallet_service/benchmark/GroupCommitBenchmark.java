@@ -0,0 +1,73 @@
+package com.faith.wallet_service.benchmark;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Many concurrent single credits with one commit per request versus group commit. The gap grows with
+ * commit latency, so the PostgreSQL run (real fsync) is the one that matters.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(64)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    private static final int WALLETS = 256;
+
+    @State(Scope.Benchmark)
+    public static class Wallets extends WalletContext {
+
+        @Param({"true", "false"})
+        public boolean groupCommit;
+
+        TransactionService transactionService;
+        long[] ids;
+        final AtomicLong keys = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            overrides = "wallet.group-commit.enabled=" + groupCommit + ",spring.datasource.hikari.maximum-pool-size=64";
+            start();
+            transactionService = bean(TransactionService.class);
+            WalletService walletService = bean(WalletService.class);
+            ids = new long[WALLETS];
+            for (int i = 0; i < WALLETS; i++) {
+                ids[i] = walletService.createWallet(new CreateWalletRequest(0L, "bench")).getId();
+            }
+        }
+    }
+
+    @Benchmark
+    public TransactionResponse credit(Wallets state) {
+        TransactionRequest request = new TransactionRequest();
+        request.setWalletId(state.ids[ThreadLocalRandom.current().nextInt(WALLETS)]);
+        request.setAmount(1L);
+        request.setType(TransactionType.CREDIT);
+        request.setIdempotencyKey("group-" + state.keys.incrementAndGet());
+        return state.transactionService.applyTransaction(request);
+    }
+}
@@ -0,0 +1,72 @@
+package com.faith.wallet_service.benchmark;
+
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 32 threads crediting one merchant wallet, as a plain wallet (slots = 0) and as a hot wallet with 1, 8
+ * and 32 balance slots. Throughput should grow with the slot count until commit cost, not the row lock,
+ * is the limit; the PostgreSQL run is the one that matters.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(32)
+@Fork(1)
+public class HotWalletBenchmark {
+
+    // Fixed, so it can be listed as hot before the context starts
+    private static final long MERCHANT = 900_000_001L;
+
+    @State(Scope.Benchmark)
+    public static class Merchant extends WalletContext {
+
+        @Param({"0", "1", "8", "32"})
+        public int slots;
+
+        TransactionService transactionService;
+        final AtomicLong keys = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            overrides = "spring.datasource.hikari.maximum-pool-size=32"
+                    + (slots > 0 ? ",wallet.hot-wallets.ids=" + MERCHANT + ",wallet.hot-wallets.slots=" + slots : "");
+            start();
+            transactionService = bean(TransactionService.class);
+            bean(JdbcTemplate.class).update("INSERT INTO wallets (id, balance, opening_balance, description, created_at) "
+                    + "VALUES (?, 0, 0, 'merchant', ?)", MERCHANT, Timestamp.valueOf(LocalDateTime.now()));
+        }
+    }
+
+    @Benchmark
+    public TransactionResponse credit(Merchant state) {
+        TransactionRequest request = new TransactionRequest();
+        request.setWalletId(MERCHANT);
+        request.setAmount(1L);
+        request.setType(TransactionType.CREDIT);
+        request.setIdempotencyKey("hot-" + state.keys.incrementAndGet());
+        return state.transactionService.applyTransaction(request);
+    }
+}
@@ -0,0 +1,73 @@
+package com.faith.wallet_service.benchmark;
+
+import com.faith.wallet_service.entity.WalletTransaction;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ledger insert rate per transaction as a function of the sequence allocation size. An allocation
+ * size of 1 costs one sequence round trip per row, like the former IDENTITY mapping.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class IdAllocationBenchmark {
+
+    private static final int ROWS_PER_TRANSACTION = 100;
+
+    @State(Scope.Benchmark)
+    public static class Ledger extends WalletContext {
+
+        @Param({"1", "50"})
+        public int allocationSize;
+
+        TransactionRepository transactionRepository;
+        TransactionTemplate transactionTemplate;
+        final AtomicLong keys = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            overrides = "spring.jpa.properties.wallet.id.allocation-size=" + allocationSize;
+            start();
+            transactionRepository = bean(TransactionRepository.class);
+            transactionTemplate = new TransactionTemplate(bean(PlatformTransactionManager.class));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public void insertLedgerRows(Ledger state) {
+        List<WalletTransaction> rows = new ArrayList<>(ROWS_PER_TRANSACTION);
+        for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+            WalletTransaction tx = new WalletTransaction();
+            tx.setWalletId(1L);
+            tx.setAmount(1L);
+            tx.setType(TransactionType.CREDIT);
+            tx.setIdempotencyKey("insert-" + state.keys.incrementAndGet());
+            rows.add(tx);
+        }
+        state.transactionTemplate.executeWithoutResult(status -> state.transactionRepository.saveAll(rows));
+    }
+}
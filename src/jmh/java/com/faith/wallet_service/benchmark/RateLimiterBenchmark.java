@@ -0,0 +1,56 @@
+package com.faith.wallet_service.benchmark;
+
+import com.faith.wallet_service.cache.TokenBucketTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one rate-limit check on the request path: a single hot wallet (every check contends on one
+ * slot), a spread of wallets across the table, and a client key that has to be hashed first. The rates are
+ * high enough that checks are admitted, which is the path every accepted request pays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 50_000;
+
+    private TokenBucketTable table;
+
+    @Setup
+    public void setup() {
+        table = new TokenBucketTable(65_536, 1e9, 1_000_000);
+    }
+
+    @Benchmark
+    public long hotWallet() {
+        return table.tryAcquire(42L, 1);
+    }
+
+    @Benchmark
+    public long manyWallets() {
+        return table.tryAcquire(ThreadLocalRandom.current().nextLong(1, KEYS + 1), 1);
+    }
+
+    @Benchmark
+    public long client() {
+        return table.tryAcquire("user:partner-0001", 1);
+    }
+}
@@ -0,0 +1,47 @@
+package com.faith.wallet_service.benchmark;
+
+import com.faith.wallet_service.commons.ResultWrapper;
+import com.faith.wallet_service.dto.TransactionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the transaction response envelope, as written by the controllers.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private JsonMapper mapper;
+    private ResultWrapper<TransactionResponse> result;
+
+    @Setup
+    public void setup() {
+        mapper = JsonMapper.builder().build();
+        result = new ResultWrapper<>();
+        result.setStatus(ResultWrapper.ResultStatus.SUCCESS);
+        result.setMessage("Transaction completed successfully");
+        result.setData(new TransactionResponse(123_456L, 42L, 1_000_000L, LocalDateTime.of(2024, 1, 28, 15, 30, 0, 123_456_000)));
+    }
+
+    @Benchmark
+    public byte[] transactionResponseToJson() {
+        return mapper.writeValueAsBytes(result);
+    }
+}
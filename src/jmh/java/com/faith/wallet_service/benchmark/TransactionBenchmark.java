@@ -0,0 +1,97 @@
+package com.faith.wallet_service.benchmark;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.dto.TransferRequest;
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service-level hot paths: a fresh credit, a transfer, and an idempotent replay of a committed key.
+ * SampleTime mode reports latency percentiles; run with {@code -prof gc} for allocations per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class TransactionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Wallets extends WalletContext {
+
+        @Param({"true", "false"})
+        public boolean idempotencyCache;
+
+        TransactionService transactionService;
+        Long walletA;
+        Long walletB;
+        TransactionRequest replayed;
+        final AtomicLong keys = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            overrides = "wallet.idempotency.cache.enabled=" + idempotencyCache;
+            start();
+            transactionService = bean(TransactionService.class);
+            WalletService walletService = bean(WalletService.class);
+            walletA = walletService.createWallet(new CreateWalletRequest(1_000_000_000L, "bench A")).getId();
+            walletB = walletService.createWallet(new CreateWalletRequest(1_000_000_000L, "bench B")).getId();
+            replayed = creditRequest(walletA, "bench-replay");
+            transactionService.applyTransaction(replayed);
+        }
+
+        String nextKey(String prefix) {
+            return prefix + "-" + keys.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public TransactionResponse credit(Wallets state) {
+        return state.transactionService.applyTransaction(creditRequest(state.walletA, state.nextKey("credit")));
+    }
+
+    @Benchmark
+    public TransferResponse transfer(Wallets state) {
+        // Alternate direction so both wallets keep their balance and lock order is exercised both ways
+        boolean forward = (state.keys.get() & 1) == 0;
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(forward ? state.walletA : state.walletB);
+        request.setToWalletId(forward ? state.walletB : state.walletA);
+        request.setAmount(1L);
+        request.setIdempotencyKey(state.nextKey("transfer"));
+        return state.transactionService.transfer(request);
+    }
+
+    @Benchmark
+    public TransactionResponse idempotentReplay(Wallets state) {
+        return state.transactionService.applyTransaction(state.replayed);
+    }
+
+    private static TransactionRequest creditRequest(Long walletId, String key) {
+        TransactionRequest request = new TransactionRequest();
+        request.setWalletId(walletId);
+        request.setAmount(1L);
+        request.setType(TransactionType.CREDIT);
+        request.setIdempotencyKey(key);
+        return request;
+    }
+}
@@ -0,0 +1,80 @@
+package com.faith.wallet_service.benchmark;
+
+import com.faith.wallet_service.WalletServiceApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base for benchmark states that need the application context. Subclasses call {@link #start()} from
+ * their own trial setup after filling in {@link #overrides}; the context is booted without the web layer.
+ * {@code h2} is plain embedded H2; {@code postgres} uses the server given by {@code -Dbench.postgres.url}
+ * (with {@code bench.postgres.user}/{@code bench.postgres.password}) and falls back to H2 in PostgreSQL
+ * compatibility mode when none is configured.
+ */
+@State(Scope.Benchmark)
+public abstract class WalletContext {
+
+    @Param({"h2", "postgres"})
+    public String database;
+
+    /** Extra Spring properties as comma-separated key=value pairs, e.g. from a benchmark's own @Param. */
+    protected String overrides = "";
+
+    protected ConfigurableApplicationContext context;
+
+    protected void start() {
+        Map<String, Object> properties = new HashMap<>();
+        String postgresUrl = System.getProperty("bench.postgres.url");
+        if ("postgres".equals(database) && postgresUrl != null) {
+            properties.put("spring.datasource.url", postgresUrl);
+            properties.put("spring.datasource.driver-class-name", "org.postgresql.Driver");
+            properties.put("spring.datasource.username", System.getProperty("bench.postgres.user", "postgres"));
+            properties.put("spring.datasource.password", System.getProperty("bench.postgres.password", "password"));
+            properties.put("spring.jpa.database-platform", "org.hibernate.dialect.PostgreSQLDialect");
+        } else {
+            String url = "postgres".equals(database)
+                    ? "jdbc:h2:mem:bench_pg;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+                    : "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1";
+            properties.put("spring.datasource.url", url);
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        }
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.sql.init.mode", "always");
+        properties.put("logging.level.root", "WARN");
+        for (String pair : overrides.split(",")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                properties.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+            }
+        }
+
+        context = new SpringApplicationBuilder(WalletServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,88 @@
+package com.faith.wallet_service.benchmark;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balance polling through {@code WalletService.getWallet} with and without the wallet snapshot cache:
+ * pure reads, and a read-heavy mix where one call in a hundred credits the wallet and invalidates it.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class WalletReadBenchmark {
+
+    private static final int WALLETS = 1_000;
+    private static final int WRITE_EVERY = 100;
+
+    @State(Scope.Benchmark)
+    public static class Wallets extends WalletContext {
+
+        @Param({"true", "false"})
+        public boolean walletCache;
+
+        WalletService walletService;
+        TransactionService transactionService;
+        long[] ids;
+        final AtomicLong keys = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void prepare() {
+            overrides = "wallet.cache.wallets.enabled=" + walletCache + ",wallet.cache.wallets.ttl=1h";
+            start();
+            walletService = bean(WalletService.class);
+            transactionService = bean(TransactionService.class);
+            ids = new long[WALLETS];
+            for (int i = 0; i < WALLETS; i++) {
+                ids[i] = walletService.createWallet(new CreateWalletRequest(1_000L, "bench")).getId();
+            }
+        }
+
+        long randomWallet() {
+            return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        }
+    }
+
+    @Benchmark
+    public Wallet getWallet(Wallets state) {
+        return state.walletService.getWallet(state.randomWallet());
+    }
+
+    @Benchmark
+    public Object getWalletWithWrites(Wallets state) {
+        long id = state.randomWallet();
+        if (ThreadLocalRandom.current().nextInt(WRITE_EVERY) == 0) {
+            TransactionRequest request = new TransactionRequest();
+            request.setWalletId(id);
+            request.setAmount(1L);
+            request.setType(TransactionType.CREDIT);
+            request.setIdempotencyKey("read-bench-" + state.keys.incrementAndGet());
+            return state.transactionService.applyTransaction(request);
+        }
+        return state.walletService.getWallet(id);
+    }
+}
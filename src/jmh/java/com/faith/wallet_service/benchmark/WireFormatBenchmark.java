@@ -0,0 +1,107 @@
+package com.faith.wallet_service.benchmark;
+
+import com.faith.wallet_service.commons.ResultWrapper;
+import com.faith.wallet_service.dto.TransactionBatchItemResult;
+import com.faith.wallet_service.dto.TransactionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding cost of the response envelopes in each wire format: a single transaction and a
+ * 100-item batch result, where Smile's back-references to repeated field names pay off. The encoded size
+ * is printed at setup; {@code -prof gc} adds the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"transaction", "batch"})
+    public String payload;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Object response;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = switch (format) {
+            case "json" -> JsonMapper.builder().build();
+            case "cbor" -> CBORMapper.builder().build();
+            case "smile" -> SmileMapper.builder().build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        JavaType type = switch (payload) {
+            case "transaction" -> mapper.getTypeFactory().constructParametricType(ResultWrapper.class, TransactionResponse.class);
+            case "batch" -> mapper.getTypeFactory().constructParametricType(ResultWrapper.class,
+                    mapper.getTypeFactory().constructCollectionType(List.class, TransactionBatchItemResult.class));
+            default -> throw new IllegalArgumentException("Unknown payload: " + payload);
+        };
+        response = payload.equals("transaction") ? transaction() : batch(100);
+        writer = mapper.writerFor(type);
+        reader = mapper.readerFor(type);
+        encoded = writer.writeValueAsBytes(response);
+        System.out.printf("%n%s %s: %d bytes per response%n", format, payload, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return reader.readValue(encoded);
+    }
+
+    private static ResultWrapper<TransactionResponse> transaction() {
+        ResultWrapper<TransactionResponse> result = new ResultWrapper<>();
+        result.setStatus(ResultWrapper.ResultStatus.SUCCESS);
+        result.setMessage("Transaction completed successfully");
+        result.setData(new TransactionResponse(123_456L, 42L, 1_000_000L, LocalDateTime.of(2024, 1, 28, 15, 30, 0, 123_456_000)));
+        return result;
+    }
+
+    private static ResultWrapper<List<TransactionBatchItemResult>> batch(int items) {
+        List<TransactionBatchItemResult> results = new ArrayList<>(items);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 28, 15, 30, 0, 123_456_000);
+        for (int i = 0; i < items; i++) {
+            results.add(TransactionBatchItemResult.success(UUID.randomUUID().toString(),
+                    new TransactionResponse(123_456L + i, 42L + i, 1_000_000L + i, timestamp.plusNanos(i * 1000L))));
+        }
+        ResultWrapper<List<TransactionBatchItemResult>> result = new ResultWrapper<>();
+        result.setStatus(ResultWrapper.ResultStatus.SUCCESS);
+        result.setMessage("Batch processed: " + items + " succeeded, 0 failed");
+        result.setData(results);
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.faith.wallet_service.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Concurrent cache bounded by total weight (approximate bytes) with a fixed time-to-live.
+ * Entries are evicted in insertion order once they expire or the weight limit is exceeded,
+ * so reads never take a lock.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final ConcurrentHashMap<K, Node<K, V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Node<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong weight = new AtomicLong();
+
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToLongBiFunction<K, V> weigher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(long maxWeight, Duration ttl, ToLongBiFunction<K, V> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = entries.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (node.expiresAt - System.nanoTime() <= 0) {
+            remove(node);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return node.value;
+    }
+
+    public void put(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, weigher.applyAsLong(key, value), System.nanoTime() + ttlNanos);
+        Node<K, V> previous = entries.put(key, node);
+        if (previous != null) {
+            weight.addAndGet(-previous.weight);
+        }
+        weight.addAndGet(node.weight);
+        insertionOrder.add(node);
+        evict();
+    }
+
+    public void invalidate(K key) {
+        Node<K, V> node = entries.remove(key);
+        if (node != null) {
+            weight.addAndGet(-node.weight);
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), weight.get());
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        Node<K, V> head;
+        while ((head = insertionOrder.peek()) != null) {
+            boolean live = entries.get(head.key) == head;
+            if (live && head.expiresAt - now > 0 && weight.get() <= maxWeight) {
+                return;
+            }
+            Node<K, V> polled = insertionOrder.poll();
+            if (polled != null) {
+                // Replaced or already removed nodes are simply dropped from the queue
+                remove(polled);
+            }
+        }
+    }
+
+    private void remove(Node<K, V> node) {
+        if (entries.remove(node.key, node)) {
+            weight.addAndGet(-node.weight);
+            evictions.increment();
+        }
+    }
+
+    private record Node<K, V>(K key, V value, long weight, long expiresAt) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.faith.wallet_service.cache;
+
+/**
+ * Point-in-time counters for a {@link BoundedTtlCache}.
+ */
+public record CacheStats(long hits, long misses, long evictions, long size, long weightBytes) {
+}
@@ -0,0 +1,87 @@
+package com.faith.wallet_service.cache;
+
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.dto.TransferResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Local cache of committed idempotent responses, so retried keys are answered without a database
+ * round trip. A Bloom filter of recently committed keys lets callers skip the store lookup for keys
+ * this node has never seen; the idempotency_records primary key stays the source of truth.
+ */
+@Component
+public class IdempotencyCache {
+
+    // Rough per-entry footprint: map node, cache node, boxed Longs and LocalDateTime
+    private static final long TRANSACTION_RESPONSE_BYTES = 200;
+    private static final long TRANSFER_RESPONSE_BYTES = 260;
+
+    private final boolean enabled;
+    private final BoundedTtlCache<String, TransactionResponse> transactions;
+    private final BoundedTtlCache<String, TransferResponse> transfers;
+    private final RecentKeyFilter transactionKeys;
+    private final RecentKeyFilter transferKeys;
+
+    public IdempotencyCache(@Value("${wallet.idempotency.cache.enabled:true}") boolean enabled,
+                            @Value("${wallet.idempotency.cache.ttl:10m}") Duration ttl,
+                            @Value("${wallet.idempotency.cache.max-weight-bytes:33554432}") long maxWeightBytes,
+                            @Value("${wallet.idempotency.cache.bloom.expected-keys:1000000}") int expectedKeys,
+                            @Value("${wallet.idempotency.cache.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.enabled = enabled;
+        this.transactions = new BoundedTtlCache<>(maxWeightBytes, ttl,
+                (key, response) -> keyBytes(key) + TRANSACTION_RESPONSE_BYTES);
+        this.transfers = new BoundedTtlCache<>(maxWeightBytes, ttl,
+                (key, response) -> keyBytes(key) + TRANSFER_RESPONSE_BYTES);
+        this.transactionKeys = new RecentKeyFilter(expectedKeys, falsePositiveRate);
+        this.transferKeys = new RecentKeyFilter(expectedKeys, falsePositiveRate);
+    }
+
+    public TransactionResponse getTransaction(String key) {
+        return enabled ? transactions.get(key) : null;
+    }
+
+    /** Must only be called with responses whose transaction has committed. */
+    public void putTransaction(String key, TransactionResponse response) {
+        if (enabled) {
+            transactions.put(key, response);
+            transactionKeys.add(key);
+        }
+    }
+
+    /** False means the store lookup can be skipped; always true when the cache is disabled. */
+    public boolean mightHaveTransaction(String key) {
+        return !enabled || transactionKeys.mightContain(key);
+    }
+
+    public TransferResponse getTransfer(String key) {
+        return enabled ? transfers.get(key) : null;
+    }
+
+    /** Must only be called with responses whose transaction has committed. */
+    public void putTransfer(String key, TransferResponse response) {
+        if (enabled) {
+            transfers.put(key, response);
+            transferKeys.add(key);
+        }
+    }
+
+    /** False means the store lookup can be skipped; always true when the cache is disabled. */
+    public boolean mightHaveTransfer(String key) {
+        return !enabled || transferKeys.mightContain(key);
+    }
+
+    public CacheStats transactionStats() {
+        return transactions.stats();
+    }
+
+    public CacheStats transferStats() {
+        return transfers.stats();
+    }
+
+    private static long keyBytes(String key) {
+        return 40 + 2L * key.length();
+    }
+}
@@ -0,0 +1,100 @@
+package com.faith.wallet_service.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over recently seen keys. Two generations are kept: once the current one holds
+ * the expected number of keys it becomes the previous one and a fresh filter takes over,
+ * so memory stays fixed and the false-positive rate never degrades.
+ * A negative answer means the key was definitely not added during the last two generations.
+ */
+public class RecentKeyFilter {
+
+    private final int expectedKeys;
+    private final int bitCount;
+    private final int hashCount;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    public RecentKeyFilter(int expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.expectedKeys = expectedKeys;
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * ln2));
+        this.current = new Generation(bitCount);
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        Generation older = previous;
+        return current.mightContain(hash) || (older != null && older.mightContain(hash));
+    }
+
+    public void add(String key) {
+        Generation generation = current;
+        generation.add(hash(key));
+        if (generation.count.incrementAndGet() >= expectedKeys) {
+            rotate(generation);
+        }
+    }
+
+    private synchronized void rotate(Generation full) {
+        if (current == full) {
+            previous = full;
+            current = new Generation(bitCount);
+        }
+    }
+
+    // 64-bit FNV-1a followed by a murmur3 finalizer; String.hashCode has too few bits for large filters
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private final class Generation {
+        private final AtomicLongArray words;
+        private final AtomicLong count = new AtomicLong();
+
+        private Generation(int bits) {
+            this.words = new AtomicLongArray((bits + 63) >>> 6);
+        }
+
+        // Kirsch–Mitzenmacher: derive all probe positions from the two halves of one hash
+        private boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                words.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.faith.wallet_service.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets for up to {@code maxKeys} long keys in two flat arrays, without locks or per-key objects.
+ * Each bucket is a single long, the time its tokens will all be back (the GCRA "theoretical arrival
+ * time"), so admitting a request is one compare-and-set and a key costs 16 bytes.
+ *
+ * <p>A bucket whose time has passed is full, i.e. idle, and indistinguishable from a new one, so its slot
+ * is reused for the next unknown key: idle keys are evicted without a sweeper. Reuse can race with the
+ * previous key's last request, which then counts against the new key; that is at most one request per
+ * reuse. Keys that find no slot within the probe window are refused and counted as overflowed, so a flood
+ * of new keys is throttled rather than let through unlimited.
+ */
+public class TokenBucketTable {
+
+    private static final long EMPTY = 0;
+    private static final int MAX_PROBES = 16;
+
+    private final AtomicLongArray keys;
+    private final AtomicLongArray fullAt;
+    private final int mask;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final long origin = System.nanoTime();
+    private final LongAdder overflowed = new LongAdder();
+
+    public TokenBucketTable(int maxKeys, double tokensPerSecond, int burst) {
+        if (maxKeys <= 0 || tokensPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Invalid token bucket sizing");
+        }
+        // At most half full, so probe sequences stay short
+        int slots = Integer.highestOneBit(Math.max(2, maxKeys) * 2 - 1) << 1;
+        this.keys = new AtomicLongArray(slots);
+        this.fullAt = new AtomicLongArray(slots);
+        this.mask = slots - 1;
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = nanosPerToken * burst;
+    }
+
+    /**
+     * Takes {@code tokens} from the key's bucket; returns 0 when taken, else the nanos until they would be.
+     * A key with no slot to claim is told to wait one token's interval, by when an idle slot may free up.
+     */
+    public long tryAcquire(long key, int tokens) {
+        return tryAcquire(key, tokens, System.nanoTime());
+    }
+
+    public long tryAcquire(String key, int tokens) {
+        return tryAcquire(RecentKeyFilter.hash(key), tokens, System.nanoTime());
+    }
+
+    long tryAcquire(long key, int tokens, long nanoTime) {
+        long now = nanoTime - origin;
+        long mixed = mix(key);
+        int slot = slot(mixed, now);
+        if (slot < 0) {
+            overflowed.increment();
+            return nanosPerToken;
+        }
+        long cost = tokens * nanosPerToken;
+        while (true) {
+            long current = fullAt.get(slot);
+            long next = Math.max(current, now) + cost;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(slot, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Keys whose bucket is not full, i.e. that used tokens recently. Scans the table. */
+    public int activeKeys() {
+        long now = System.nanoTime() - origin;
+        int active = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            if (keys.get(slot) != EMPTY && fullAt.get(slot) > now) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /** Requests refused because the table had no slot for their key. */
+    public long overflowCount() {
+        return overflowed.sum();
+    }
+
+    /** The key's slot, claiming an empty or idle one if the key has none; -1 when there is none to claim. */
+    private int slot(long key, long now) {
+        int start = (int) key & mask;
+        int idle = -1;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int slot = (start + i) & mask;
+            long owner = keys.get(slot);
+            if (owner == key) {
+                return slot;
+            }
+            if (owner == EMPTY) {
+                // End of the probe sequence: the key is not in the table
+                if (idle < 0) {
+                    if (keys.compareAndSet(slot, EMPTY, key) || keys.get(slot) == key) {
+                        return slot;
+                    }
+                    continue;
+                }
+                break;
+            }
+            if (idle < 0 && fullAt.get(slot) <= now) {
+                idle = slot;
+            }
+        }
+        if (idle >= 0) {
+            long owner = keys.get(idle);
+            if (fullAt.get(idle) <= now && keys.compareAndSet(idle, owner, key)) {
+                return idle;
+            }
+        }
+        return -1;
+    }
+
+    // murmur3 finalizer: spreads sequential wallet ids over the table; 0 is reserved for empty slots
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == EMPTY ? 1 : h;
+    }
+}
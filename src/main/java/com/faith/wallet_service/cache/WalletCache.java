@@ -0,0 +1,109 @@
+package com.faith.wallet_service.cache;
+
+import com.faith.wallet_service.commons.TransactionHooks;
+import com.faith.wallet_service.entity.Wallet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Read-through cache of wallet snapshots for balance polling. Writers invalidate after commit rather than
+ * storing their own balance, since concurrent commits can run their hooks out of order. A load that raced
+ * with a commit is detected through a per-stripe write generation and dropped, so once a write has
+ * returned, reads on this node never see an older balance. Other nodes' writes are bounded by the TTL.
+ * The stripes also remember when they were last written, which read-replica routing uses to keep a
+ * node's own writes visible to it.
+ */
+@Component
+public class WalletCache {
+
+    // Rough per-entry footprint: map node, cache node, Wallet, boxed Longs, LocalDateTime, short description
+    private static final long ENTRY_BYTES = 240;
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final boolean enabled;
+    private final BoundedTtlCache<Long, Wallet> wallets;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLongArray writtenAt = new AtomicLongArray(GENERATION_STRIPES);
+
+    public WalletCache(@Value("${wallet.cache.wallets.enabled:true}") boolean enabled,
+                       @Value("${wallet.cache.wallets.ttl:2s}") Duration ttl,
+                       @Value("${wallet.cache.wallets.max-weight-bytes:16777216}") long maxWeightBytes) {
+        this.enabled = enabled;
+        this.wallets = new BoundedTtlCache<>(maxWeightBytes, ttl,
+                (id, wallet) -> ENTRY_BYTES + (wallet.getDescription() == null ? 0 : 2L * wallet.getDescription().length()));
+    }
+
+    /**
+     * Returns a detached copy of the wallet, loading it on a miss. The loader returns null when the wallet
+     * does not exist; misses are not cached.
+     */
+    public Wallet getOrLoad(Long id, Supplier<Wallet> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Wallet cached = wallets.get(id);
+        if (cached != null) {
+            return copy(cached);
+        }
+        int stripe = stripe(id);
+        long generation = generations.get(stripe);
+        Wallet loaded = loader.get();
+        if (loaded == null) {
+            return null;
+        }
+        Wallet snapshot = copy(loaded);
+        wallets.put(id, snapshot);
+        // A commit that bumped the stripe while we loaded may have invalidated before our put landed
+        if (generations.get(stripe) != generation) {
+            wallets.invalidate(id);
+        }
+        return copy(snapshot);
+    }
+
+    /** Drops the cached snapshots once the current transaction commits; rollbacks leave the cache alone. */
+    public void invalidateAfterCommit(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            List<Long> copy = List.copyOf(ids);
+            TransactionHooks.afterCommit(() -> copy.forEach(this::invalidate));
+        }
+    }
+
+    public void invalidateAfterCommit(Long id) {
+        invalidateAfterCommit(List.of(id));
+    }
+
+    /** Epoch millis of the last commit on this node that touched a wallet sharing the id's stripe, or 0. */
+    public long lastWriteMillis(Long id) {
+        return writtenAt.get(stripe(id));
+    }
+
+    public CacheStats stats() {
+        return wallets.stats();
+    }
+
+    private void invalidate(Long id) {
+        int stripe = stripe(id);
+        writtenAt.accumulateAndGet(stripe, System.currentTimeMillis(), Math::max);
+        if (!enabled) {
+            return;
+        }
+        // Bump before removing so a concurrent load either sees the bump or has its put removed here
+        generations.incrementAndGet(stripe);
+        wallets.invalidate(id);
+    }
+
+    private static int stripe(Long id) {
+        return Math.floorMod(Long.hashCode(id) * 0x9E3779B9, GENERATION_STRIPES);
+    }
+
+    private static Wallet copy(Wallet wallet) {
+        return new Wallet(wallet.getId(), wallet.getBalance(), wallet.getDescription(), wallet.getCreatedAt(),
+                wallet.getOpeningBalance());
+    }
+}
@@ -0,0 +1,92 @@
+package com.faith.wallet_service.commons;
+
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.enums.IdempotencyOperation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Fixed-width keys and compact responses for idempotency_records.
+ *
+ * <p>Key: the first 16 bytes of SHA-256(operation code, UTF-8 key). Response: a format version byte
+ * followed by big-endian longs, the timestamp as microseconds since the epoch (UTC); 33 bytes for a
+ * transaction, 49 for a transfer. db/migrate-idempotency-records.sql produces the same bytes in SQL.
+ */
+public final class IdempotencyRecordCodec {
+
+    public static final int KEY_HASH_BYTES = 16;
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int TRANSACTION_BYTES = 1 + 4 * Long.BYTES;
+    private static final int TRANSFER_BYTES = 1 + 6 * Long.BYTES;
+
+    private IdempotencyRecordCodec() {
+    }
+
+    public static byte[] keyHash(IdempotencyOperation operation, String key) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        sha256.update((byte) operation.getCode());
+        return Arrays.copyOf(sha256.digest(key.getBytes(StandardCharsets.UTF_8)), KEY_HASH_BYTES);
+    }
+
+    public static byte[] encode(TransactionResponse response) {
+        return ByteBuffer.allocate(TRANSACTION_BYTES)
+                .put(FORMAT_VERSION)
+                .putLong(response.getTransactionId())
+                .putLong(response.getWalletId())
+                .putLong(response.getBalance())
+                .putLong(toMicros(response.getTimestamp()))
+                .array();
+    }
+
+    public static byte[] encode(TransferResponse response) {
+        return ByteBuffer.allocate(TRANSFER_BYTES)
+                .put(FORMAT_VERSION)
+                .putLong(response.getTransferId())
+                .putLong(response.getFromWalletId())
+                .putLong(response.getFromBalance())
+                .putLong(response.getToWalletId())
+                .putLong(response.getToBalance())
+                .putLong(toMicros(response.getTimestamp()))
+                .array();
+    }
+
+    public static TransactionResponse decodeTransaction(byte[] bytes) {
+        ByteBuffer buffer = open(bytes, TRANSACTION_BYTES);
+        return new TransactionResponse(buffer.getLong(), buffer.getLong(), buffer.getLong(), fromMicros(buffer.getLong()));
+    }
+
+    public static TransferResponse decodeTransfer(byte[] bytes) {
+        ByteBuffer buffer = open(bytes, TRANSFER_BYTES);
+        return new TransferResponse(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                                    buffer.getLong(), fromMicros(buffer.getLong()));
+    }
+
+    private static ByteBuffer open(byte[] bytes, int expectedLength) {
+        if (bytes.length != expectedLength || bytes[0] != FORMAT_VERSION) {
+            throw new IllegalStateException("Unreadable idempotency record (" + bytes.length + " bytes)");
+        }
+        return ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), time);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(micros, ChronoUnit.MICROS);
+    }
+}
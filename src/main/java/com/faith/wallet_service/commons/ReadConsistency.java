@@ -0,0 +1,69 @@
+package com.faith.wallet_service.commons;
+
+import java.util.function.Supplier;
+
+/**
+ * How fresh read-only work on this thread must be, as the earliest write time (epoch millis) a replica
+ * must have caught up to before it may serve the read; 0 accepts any replica within the lag threshold.
+ * Writes hand clients a consistency token carrying their time; sending it back on a read raises the bar
+ * to that write, so a client always reads its own writes even across nodes.
+ */
+public final class ReadConsistency {
+
+    public static final String TOKEN_HEADER = "X-Consistency-Token";
+
+    private static final ThreadLocal<Long> REQUIRED = new ThreadLocal<>();
+
+    private ReadConsistency() {
+    }
+
+    public static long required() {
+        Long required = REQUIRED.get();
+        return required == null ? 0 : required;
+    }
+
+    public static void require(long millis) {
+        REQUIRED.set(millis);
+    }
+
+    public static void clear() {
+        REQUIRED.remove();
+    }
+
+    /** Runs the work requiring replicas to have caught up to at least {@code millis}, on top of any existing bar. */
+    public static <T> T atLeast(long millis, Supplier<T> work) {
+        Long previous = REQUIRED.get();
+        if (previous != null && previous >= millis) {
+            return work.get();
+        }
+        REQUIRED.set(millis);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                REQUIRED.remove();
+            } else {
+                REQUIRED.set(previous);
+            }
+        }
+    }
+
+    /** Runs the work on the primary, for reads that must see writes made moments ago. */
+    public static <T> T onPrimary(Supplier<T> work) {
+        return atLeast(Long.MAX_VALUE, work);
+    }
+
+    /** Token for a write that has just committed. */
+    public static String issueToken() {
+        return Long.toString(System.currentTimeMillis());
+    }
+
+    /** Reads a client's token; one that cannot be parsed sends the read to the primary. */
+    public static long parseToken(String token) {
+        try {
+            return Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.faith.wallet_service.commons;
+
+import com.faith.wallet_service.exception.WalletNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Maps wallet ids to database shards and runs work against one of them. A wallet's shard is kept in the
+ * top bits of its id ({@code id >>> SHARD_SHIFT}), so routing needs no directory, and ids issued before
+ * sharding, which are all far below 2^48, stay on shard 0. The shard chosen here is what the routing
+ * DataSource connects to, so it must be set before a transaction starts and not changed inside one.
+ * With sharding disabled there is a single shard and work runs as is.
+ */
+@Component
+public class ShardRouter {
+
+    /** Ids of shard {@code k} start at {@code k << SHARD_SHIFT}; 2^48 ids per shard, and 32 shards stay below 2^53. */
+    public static final int SHARD_SHIFT = 48;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final AtomicInteger nextNewWalletShard = new AtomicInteger();
+
+    public ShardRouter(@Value("${wallet.sharding.enabled:false}") boolean enabled,
+                       @Value("${wallet.sharding.urls:}") String[] urls) {
+        this.shardCount = enabled ? 1 + urls.length : 1;
+    }
+
+    /** Shard selected on this thread, or null when nothing selected one (shard 0). */
+    public static Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public static long firstId(int shard) {
+        return (long) shard << SHARD_SHIFT;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(long walletId) {
+        return (int) (walletId >>> SHARD_SHIFT);
+    }
+
+    public boolean isKnownShard(int shard) {
+        return shard >= 0 && shard < shardCount;
+    }
+
+    /** Runs the work against the wallet's shard; a wallet id pointing past the last shard cannot exist. */
+    public <T> T onWallet(Long walletId, Supplier<T> work) {
+        if (!isSharded()) {
+            return work.get();
+        }
+        int shard = shardOf(walletId);
+        if (!isKnownShard(shard)) {
+            throw new WalletNotFoundException("Wallet not found with id " + walletId);
+        }
+        return onShard(shard, work);
+    }
+
+    /** Runs the creation of a wallet on the next shard in turn. */
+    public <T> T onNewWallet(Supplier<T> work) {
+        if (!isSharded()) {
+            return work.get();
+        }
+        return onShard(Math.floorMod(nextNewWalletShard.getAndIncrement(), shardCount), work);
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /** Runs the work once per shard, for maintenance that each database needs on its own. */
+    public void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            onShard(current, () -> {
+                work.accept(current);
+                return null;
+            });
+        }
+    }
+}
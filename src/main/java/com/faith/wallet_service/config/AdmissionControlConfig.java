@@ -0,0 +1,68 @@
+package com.faith.wallet_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Enables request admission control via {@code wallet.admission.enabled}. The limit is
+ * {@code wallet.admission.max-concurrent} when set, otherwise the Hikari pool size times
+ * {@code wallet.admission.requests-per-connection}: enough to keep every connection busy, small enough
+ * that a burst is shed at the edge instead of piling up behind the pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "wallet.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor interceptor;
+
+    public AdmissionControlConfig(DataSource dataSource,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${wallet.admission.max-concurrent:0}") int maxConcurrent,
+                                  @Value("${wallet.admission.requests-per-connection:4}") int requestsPerConnection,
+                                  @Value("${wallet.admission.acquire-timeout:250ms}") Duration acquireTimeout) {
+        int limit = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource) * requestsPerConnection;
+        this.interceptor = new AdmissionControlInterceptor(limit, acquireTimeout);
+
+        Gauge.builder("wallet.admission.in_flight", interceptor, AdmissionControlInterceptor::getInFlight)
+                .description("API requests holding an admission permit")
+                .register(meterRegistry);
+        Gauge.builder("wallet.admission.limit", interceptor, AdmissionControlInterceptor::getMaxConcurrent)
+                .register(meterRegistry);
+        FunctionCounter.builder("wallet.admission.rejected", interceptor, AdmissionControlInterceptor::getRejectedCount)
+                .description("API requests shed with 503 after waiting for a permit")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public AdmissionControlInterceptor admissionControlInterceptor() {
+        return interceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns("/wallets/**", "/transactions/**");
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // Fall through to Hikari's default
+        }
+        return 10;
+    }
+}
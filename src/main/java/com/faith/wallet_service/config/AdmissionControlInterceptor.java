@@ -0,0 +1,127 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.exception.ServiceOverloadedException;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of API requests in flight. With virtual threads the servlet container no longer limits
+ * concurrency, so without this every request would queue inside Hikari and time out together; here the
+ * excess waits briefly for a permit and is then shed with a 503 while the admitted requests keep their
+ * latency.
+ *
+ * <p>An async request, such as a streamed statement, keeps its permit until the async work has completed,
+ * timed out or failed; its re-dispatch to finish the response is not admitted again.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long acquireTimeoutNanos;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionControlInterceptor(int maxConcurrent, Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // The initial dispatch still holds this request's permit, and the response may already be committed
+            return true;
+        }
+        if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            rejected.incrementAndGet();
+            throw new ServiceOverloadedException("Service is at capacity, retry shortly", 1);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Held until the async work ends, whichever way it ends
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit && request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new ReleaseOnEnd(permit));
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.release();
+        }
+    }
+
+    /** One request's permit; released once however many of its end callbacks fire. */
+    private final class Permit {
+        private final AtomicBoolean held = new AtomicBoolean(true);
+
+        void release() {
+            if (held.compareAndSet(true, false)) {
+                permits.release();
+            }
+        }
+    }
+
+    private static final class ReleaseOnEnd implements AsyncListener {
+        private final Permit permit;
+
+        ReleaseOnEnd(Permit permit) {
+            this.permit = permit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Listeners are dropped when async processing restarts
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.repository.WalletRepository;
+import com.faith.wallet_service.service.BalanceUpdateEngine;
+import com.faith.wallet_service.serviceImpl.AtomicBalanceUpdateEngine;
+import com.faith.wallet_service.serviceImpl.HotWalletBalanceUpdateEngine;
+import com.faith.wallet_service.serviceImpl.HotWalletSlots;
+import com.faith.wallet_service.serviceImpl.StripedBalanceUpdateEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the balance update engine per deployment via {@code wallet.balance.engine}:
+ * {@code atomic} (default) or {@code striped}. Wallets in {@code wallet.hot-wallets.ids} bypass it for
+ * their balance slots.
+ */
+@Configuration
+public class BalanceEngineConfig {
+
+    @Bean
+    public BalanceUpdateEngine balanceUpdateEngine(WalletRepository walletRepository,
+                                                   HotWalletSlots hotWalletSlots,
+                                                   @Value("${wallet.balance.engine:atomic}") String engine,
+                                                   @Value("${wallet.balance.stripes:64}") int stripes) {
+        BalanceUpdateEngine atomic = new AtomicBalanceUpdateEngine(walletRepository);
+        BalanceUpdateEngine selected = switch (engine) {
+            case "atomic" -> atomic;
+            case "striped" -> new StripedBalanceUpdateEngine(atomic, stripes);
+            default -> throw new IllegalStateException("Unknown wallet.balance.engine: " + engine);
+        };
+        return hotWalletSlots.isEnabled() ? new HotWalletBalanceUpdateEngine(selected, hotWalletSlots) : selected;
+    }
+}
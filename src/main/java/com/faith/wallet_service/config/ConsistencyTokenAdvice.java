@@ -0,0 +1,36 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.commons.ReadConsistency;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds an {@code X-Consistency-Token} to every write response. The body is written after the service
+ * call returned, i.e. after the write committed, so the token's time is never earlier than the commit.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "wallet.replica.enabled", havingValue = "true")
+public class ConsistencyTokenAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request.getMethod() == HttpMethod.POST) {
+            response.getHeaders().set(ReadConsistency.TOKEN_HEADER, ReadConsistency.issueToken());
+        }
+        return body;
+    }
+}
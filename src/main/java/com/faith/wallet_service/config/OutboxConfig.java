@@ -0,0 +1,32 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.service.OutboxSink;
+import com.faith.wallet_service.serviceImpl.FileOutboxSink;
+import com.faith.wallet_service.serviceImpl.InMemoryOutboxSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Selects where the outbox relay publishes via {@code wallet.outbox.sink}: {@code memory} (default), a
+ * bounded in-process queue that stands in for a broker, or {@code file}, an NDJSON file. An application
+ * can plug in its own sink, e.g. a Kafka producer, as a {@code @Primary} {@link OutboxSink} bean.
+ */
+@Configuration
+@ConditionalOnProperty(name = "wallet.outbox.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean
+    public OutboxSink outboxSink(@Value("${wallet.outbox.sink:memory}") String sink,
+                                 @Value("${wallet.outbox.memory.capacity:100000}") int capacity,
+                                 @Value("${wallet.outbox.file.path:outbox/events.ndjson}") Path path) {
+        return switch (sink) {
+            case "memory" -> new InMemoryOutboxSink(capacity);
+            case "file" -> new FileOutboxSink(path);
+            default -> throw new IllegalStateException("Unknown wallet.outbox.sink: " + sink);
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.dto.TransactionBatchRequest;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransferRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rate-limits write requests by the wallet they debit or credit, read from the request body before the
+ * controller runs. That is after admission control has taken its permit, which the refused request
+ * returns on completion. A batch charges each wallet one token per item.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "wallet.ratelimit.enabled", havingValue = "true")
+public class RateLimitBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitBodyAdvice(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == TransactionRequest.class
+                || targetType == TransferRequest.class
+                || targetType == TransactionBatchRequest.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        if (body instanceof TransactionRequest request && request.getWalletId() != null) {
+            rateLimiter.checkWallet(request.getWalletId(), 1);
+        } else if (body instanceof TransferRequest request && request.getFromWalletId() != null) {
+            // The sender is the side that can be drained, so transfers count against it
+            rateLimiter.checkWallet(request.getFromWalletId(), 1);
+        } else if (body instanceof TransactionBatchRequest request && request.getTransactions() != null) {
+            Map<Long, Integer> items = new TreeMap<>();
+            for (TransactionRequest item : request.getTransactions()) {
+                if (item != null && item.getWalletId() != null) {
+                    items.merge(item.getWalletId(), 1, Integer::sum);
+                }
+            }
+            items.forEach(rateLimiter::checkWallet);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,32 @@
+package com.faith.wallet_service.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Enables per-wallet and per-client rate limiting via {@code wallet.ratelimit.enabled}. The interceptor
+ * runs ahead of admission control, so a request throttled by client or by the wallet in its path is
+ * refused without taking one of the in-flight permits that are sized to the connection pool. Wallets in
+ * request bodies can only be checked once the body is read, after admission: such a request holds a
+ * permit until it is refused, but still never reaches the database.
+ */
+@Configuration
+@ConditionalOnProperty(name = "wallet.ratelimit.enabled", havingValue = "true")
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitConfig(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter))
+                .addPathPatterns("/wallets/**", "/transactions/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
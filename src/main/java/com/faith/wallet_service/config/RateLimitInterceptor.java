@@ -0,0 +1,43 @@
+package com.faith.wallet_service.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Rate-limits every API request by client and requests on a {@code /wallets/{id}} path by wallet. The
+ * client is the authenticated principal, else the remote address: never a value the caller can change
+ * per request, which would give it a fresh bucket every time. Wallets in request bodies are checked by
+ * {@link RateLimitBodyAdvice}.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Prefixed so that a principal named like an address never shares its bucket
+        Principal principal = request.getUserPrincipal();
+        rateLimiter.checkClient(principal != null ? "user:" + principal.getName() : "addr:" + request.getRemoteAddr());
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String walletId = variables == null ? null : variables.get("id");
+        if (walletId != null) {
+            try {
+                rateLimiter.checkWallet(Long.parseLong(walletId), 1);
+            } catch (NumberFormatException e) {
+                // Not a wallet id; the handler rejects it
+            }
+        }
+        return true;
+    }
+}
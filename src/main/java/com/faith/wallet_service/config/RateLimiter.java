@@ -0,0 +1,87 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.cache.TokenBucketTable;
+import com.faith.wallet_service.exception.RateLimitedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-wallet and per-client request rates, enforced with {@link TokenBucketTable}s. Each wallet and
+ * each client gets {@code rate} requests per second with bursts of up to {@code burst}; beyond that a
+ * request is refused with 429 before it reaches the database. Checking costs one table probe and one
+ * compare-and-set.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.ratelimit.enabled", havingValue = "true")
+public class RateLimiter {
+
+    private final TokenBucketTable wallets;
+    private final TokenBucketTable clients;
+    private final int walletBurst;
+    private final Counter walletRejected;
+    private final Counter clientRejected;
+
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${wallet.ratelimit.max-keys:65536}") int maxKeys,
+                       @Value("${wallet.ratelimit.wallet.rate:50}") double walletRate,
+                       @Value("${wallet.ratelimit.wallet.burst:100}") int walletBurst,
+                       @Value("${wallet.ratelimit.client.rate:500}") double clientRate,
+                       @Value("${wallet.ratelimit.client.burst:1000}") int clientBurst) {
+        this.wallets = new TokenBucketTable(maxKeys, walletRate, walletBurst);
+        this.clients = new TokenBucketTable(maxKeys, clientRate, clientBurst);
+        this.walletBurst = walletBurst;
+        this.walletRejected = rejectedCounter(meterRegistry, "wallet");
+        this.clientRejected = rejectedCounter(meterRegistry, "client");
+        register(meterRegistry, "wallet", wallets);
+        register(meterRegistry, "client", clients);
+    }
+
+    /**
+     * Charges the wallet {@code requests} tokens, at most a full burst, so a large batch drains the
+     * bucket instead of never fitting.
+     */
+    public void checkWallet(long walletId, int requests) {
+        long waitNanos = wallets.tryAcquire(walletId, Math.min(requests, walletBurst));
+        if (waitNanos > 0) {
+            walletRejected.increment();
+            throw new RateLimitedException("Too many requests for this wallet, retry shortly", retryAfterSeconds(waitNanos));
+        }
+    }
+
+    public void checkClient(String client) {
+        long waitNanos = clients.tryAcquire(client, 1);
+        if (waitNanos > 0) {
+            clientRejected.increment();
+            throw new RateLimitedException("Too many requests, retry shortly", retryAfterSeconds(waitNanos));
+        }
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("wallet.ratelimit.rejected")
+                .description("Requests refused with 429 by the rate limiter")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private static void register(MeterRegistry meterRegistry, String scope, TokenBucketTable table) {
+        Gauge.builder("wallet.ratelimit.active_keys", table, TokenBucketTable::activeKeys)
+                .description("Keys that used tokens recently")
+                .tag("scope", scope)
+                .register(meterRegistry);
+        FunctionCounter.builder("wallet.ratelimit.overflow", table, TokenBucketTable::overflowCount)
+                .description("Requests refused because the table had no free bucket for their key")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
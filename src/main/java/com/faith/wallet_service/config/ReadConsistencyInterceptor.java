@@ -0,0 +1,32 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.commons.ReadConsistency;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Applies the {@code X-Consistency-Token} of a read request, so it is served by a replica only once that
+ * replica has the write the token came from.
+ */
+public class ReadConsistencyInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String token = request.getHeader(ReadConsistency.TOKEN_HEADER);
+        if (token != null) {
+            ReadConsistency.require(ReadConsistency.parseToken(token));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadConsistency.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadConsistency.clear();
+    }
+}
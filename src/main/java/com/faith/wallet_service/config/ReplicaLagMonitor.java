@@ -0,0 +1,158 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.commons.ReadConsistency;
+import com.faith.wallet_service.commons.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks how far each replica is behind its primary and decides whether a read-only transaction may use
+ * it. Every {@code heartbeat-interval-ms} this node stamps the primary's replica_heartbeat row with its
+ * clock and reads the stamp back from the replica: the replica has replayed every write committed before
+ * that stamp. A read goes to the replica only when that stamp is within {@code max-lag} of now and not
+ * older than the thread's {@link ReadConsistency} requirement; an unreachable replica counts as lagging.
+ * Stamps come from the nodes' clocks, so they must agree to well within {@code max-lag}.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String READ_HEARTBEAT = "SELECT beat_millis FROM replica_heartbeat WHERE id = 1";
+
+    private final ShardRouter shardRouter;
+    private final ObjectProvider<JdbcTemplate> primary;
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+    private final List<JdbcTemplate> replicaTemplates = new ArrayList<>();
+    private final AtomicLongArray caughtUpTo;
+    private final long maxLagMillis;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaLagMonitor(ShardRouter shardRouter,
+                             ObjectProvider<JdbcTemplate> primary,
+                             DataSourceProperties properties,
+                             Environment environment,
+                             MeterRegistry meterRegistry,
+                             @Value("${wallet.replica.urls}") String[] urls,
+                             @Value("${wallet.replica.max-lag:1s}") Duration maxLag) {
+        if (urls.length != shardRouter.getShardCount()) {
+            throw new IllegalStateException("wallet.replica.urls needs one replica per shard: expected "
+                    + shardRouter.getShardCount() + ", got " + urls.length);
+        }
+        this.shardRouter = shardRouter;
+        this.primary = primary;
+        this.maxLagMillis = maxLag.toMillis();
+        this.caughtUpTo = new AtomicLongArray(urls.length);
+
+        Binder binder = Binder.get(environment);
+        for (int shard = 0; shard < urls.length; shard++) {
+            HikariDataSource replica = ShardingConfig.pool(properties, binder, urls[shard].trim(), "wallet-replica-" + shard);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+            replicaTemplates.add(new JdbcTemplate(replica));
+            int index = shard;
+            Gauge.builder("wallet.replica.lag", this, monitor -> monitor.lagSeconds(index))
+                    .description("Age of the newest heartbeat the replica has replayed")
+                    .tag("shard", Integer.toString(shard))
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+        this.replicaReads = Counter.builder("wallet.replica.reads")
+                .description("Read-only transactions by the database that served them")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("wallet.replica.reads")
+                .description("Read-only transactions by the database that served them")
+                .tag("target", "primary")
+                .register(meterRegistry);
+    }
+
+    public HikariDataSource getReplica(int shard) {
+        return replicas.get(shard);
+    }
+
+    public List<HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    /** True when a read-only transaction on {@code shard} starting now may use the replica. */
+    public boolean routeToReplica(int shard) {
+        long replayed = caughtUpTo.get(shard);
+        boolean usable = replayed >= ReadConsistency.required()
+                && System.currentTimeMillis() - replayed <= maxLagMillis;
+        (usable ? replicaReads : primaryReads).increment();
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.replica.heartbeat-interval-ms:200}")
+    public void heartbeat() {
+        shardRouter.forEachShard(shard -> {
+            try {
+                beat(System.currentTimeMillis());
+            } catch (DataAccessException e) {
+                log.warn("Could not write the replica heartbeat of shard {}", shard, e);
+            }
+            refresh(shard);
+        });
+    }
+
+    /** Re-reads the replica's heartbeat; an unreachable replica is treated as infinitely behind. */
+    public void refresh(int shard) {
+        long replayed;
+        try {
+            Long stamp = replicaTemplates.get(shard).query(READ_HEARTBEAT, rs -> rs.next() ? rs.getLong(1) : null);
+            replayed = stamp == null ? 0 : stamp;
+        } catch (DataAccessException e) {
+            if (caughtUpTo.get(shard) != 0) {
+                log.warn("Replica of shard {} is unreachable; reads go to the primary", shard, e);
+            }
+            replayed = 0;
+        }
+        caughtUpTo.set(shard, replayed);
+    }
+
+    private void beat(long now) {
+        JdbcTemplate jdbcTemplate = primary.getObject();
+        // Never moves back, so a node with a slower clock cannot make a replica look further behind
+        if (jdbcTemplate.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1 AND beat_millis < ?", now, now) == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)", now);
+            } catch (DuplicateKeyException e) {
+                // Present and already at least as new
+            }
+        }
+    }
+
+    private double lagSeconds(int shard) {
+        long replayed = caughtUpTo.get(shard);
+        return replayed == 0 ? Double.NaN : Math.max(0, System.currentTimeMillis() - replayed) / 1000.0;
+    }
+
+    @PreDestroy
+    void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
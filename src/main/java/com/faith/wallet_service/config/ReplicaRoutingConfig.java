@@ -0,0 +1,60 @@
+package com.faith.wallet_service.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions ({@code @Transactional(readOnly = true)}, read-only templates) to replicas
+ * via {@code wallet.replica.enabled}. The application DataSource, sharded or not, is wrapped in a
+ * {@link LazyConnectionDataSourceProxy}, which only picks a physical connection once the transaction has
+ * declared itself read-only, and then takes it from {@link ReplicaRoutingDataSource}. Everything else,
+ * including all writes and idempotency lookups, stays on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "wallet.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+    @Bean
+    static BeanPostProcessor replicaRoutingPostProcessor(ObjectProvider<ReplicaLagMonitor> lagMonitor) {
+        return new ReplicaRoutingPostProcessor(lagMonitor);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadConsistencyInterceptor()).addPathPatterns("/wallets/**");
+    }
+
+    /** Runs ahead of {@link StatementCountingConfig}'s wrapper, which must stay outermost. */
+    private static final class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ReplicaLagMonitor> lagMonitor;
+
+        ReplicaRoutingPostProcessor(ObjectProvider<ReplicaLagMonitor> lagMonitor) {
+            this.lagMonitor = lagMonitor;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)) {
+                return bean;
+            }
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+            proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, lagMonitor.getObject()));
+            return proxy;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connections for read-only transactions: the current shard's replica when {@link ReplicaLagMonitor}
+ * allows it, otherwise the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        Map<Object, Object> replicas = new HashMap<>();
+        for (int shard = 0; shard < lagMonitor.getReplicas().size(); shard++) {
+            replicas.put(shard, lagMonitor.getReplica(shard));
+        }
+        setTargetDataSources(replicas);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        initialize();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer current = ShardRouter.currentShard();
+        int shard = current == null ? 0 : current;
+        // No key means the primary, which routes to the same shard itself
+        return lagMonitor.routeToReplica(shard) ? shard : null;
+    }
+}
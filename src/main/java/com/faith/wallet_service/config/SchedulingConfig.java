@@ -0,0 +1,13 @@
+package com.faith.wallet_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs (partition maintenance, ledger archival, idempotency expiry). Each job is its own
+ * conditional bean, so only the ones switched on are ever scheduled.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
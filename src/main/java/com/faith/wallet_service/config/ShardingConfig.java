@@ -0,0 +1,88 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single DataSource with a {@link ShardRoutingDataSource} when {@code wallet.sharding.enabled}
+ * is set. {@code spring.datasource.*} is shard 0, {@code wallet.sharding.urls} lists shards 1..N in order;
+ * every shard uses the same driver, credentials and {@code spring.datasource.hikari.*} pool settings.
+ *
+ * <p>Shard 0 gets its schema from the usual SQL initialization. The other shards run schema.sql here and
+ * have their id sequences moved into their own range (see {@link ShardRouter#SHARD_SHIFT}), which is how
+ * a wallet id carries its shard. The order of the URLs is therefore part of the data and must never change.
+ */
+@Configuration
+@ConditionalOnProperty(name = "wallet.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardingConfig.class);
+
+    // outbox_events_id_seq is not part of a wallet id, but moving it keeps event ids unique across shards
+    private static final List<String> SEQUENCES = List.of("wallets_id_seq", "wallet_transactions_id_seq",
+            "transfer_transactions_id_seq", "outbox_events_id_seq");
+
+    @Bean
+    public ShardRoutingDataSource dataSource(DataSourceProperties properties,
+                                             Environment environment,
+                                             @Value("${wallet.sharding.urls:}") String[] urls,
+                                             @Value("${spring.sql.init.schema-locations:classpath:schema.sql}") Resource schema,
+                                             @Value("${spring.jpa.properties.wallet.id.allocation-size:50}") int allocationSize) {
+        // An EntityManager held open for the whole web request would keep its first shard's connection
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("wallet.sharding.enabled requires spring.jpa.open-in-view=false");
+        }
+        Binder binder = Binder.get(environment);
+        List<HikariDataSource> shards = new ArrayList<>();
+        shards.add(pool(properties, binder, properties.determineUrl(), "wallet-shard-0"));
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource shard = pool(properties, binder, urls[i].trim(), "wallet-shard-" + (i + 1));
+            prepare(shard, i + 1, schema, allocationSize);
+            shards.add(shard);
+        }
+        log.info("Routing wallets across {} shards", shards.size());
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /** A pool for {@code url} with the driver, credentials and Hikari settings of {@code spring.datasource}. */
+    static HikariDataSource pool(DataSourceProperties properties, Binder binder, String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+
+    /** Creates the schema and starts the shard's sequences at its first id; a no-op once both are done. */
+    private static void prepare(HikariDataSource pool, int shard, Resource schema, int allocationSize) {
+        new ResourceDatabasePopulator(schema).execute(pool);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+        boolean h2 = "H2".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+        long firstId = ShardRouter.firstId(shard);
+        for (String sequence : SEQUENCES) {
+            Long next = jdbcTemplate.queryForObject(
+                    h2 ? "SELECT NEXT VALUE FOR " + sequence : "SELECT nextval('" + sequence + "')", Long.class);
+            if (next != null && next < firstId) {
+                // The pooled optimizer treats a value this high as the end of its first block
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (firstId + allocationSize));
+            }
+        }
+    }
+}
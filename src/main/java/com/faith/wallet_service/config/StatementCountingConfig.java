@@ -0,0 +1,38 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.metrics.StatementCountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource, sharded or not, in a {@link StatementCountingDataSource}. It wraps last,
+ * outside the replica routing proxy, so statements sent to replicas are counted as well.
+ */
+@Configuration
+public class StatementCountingConfig {
+
+    @Bean
+    static BeanPostProcessor statementCountingPostProcessor() {
+        return new StatementCountingPostProcessor();
+    }
+
+    private static final class StatementCountingPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new StatementCountingDataSource(dataSource);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
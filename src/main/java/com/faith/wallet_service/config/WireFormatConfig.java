@@ -0,0 +1,164 @@
+package com.faith.wallet_service.config;
+
+import com.faith.wallet_service.controller.TransactionController;
+import com.faith.wallet_service.controller.WalletController;
+import com.faith.wallet_service.exception.GlobalExceptionHandler;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.MapperFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SerializationConfig;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.cfg.DatatypeFeature;
+import tools.jackson.databind.cfg.DateTimeFeature;
+import tools.jackson.databind.cfg.EnumFeature;
+import tools.jackson.databind.cfg.JsonNodeFeature;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves the wallet and transaction endpoints as CBOR ({@code application/cbor}) and Smile
+ * ({@code application/x-jackson-smile}) besides JSON, chosen by the request's {@code Accept} and
+ * {@code Content-Type}. JSON stays the default for clients that accept anything.
+ *
+ * <p>The JSON and CBOR mappers are the ones Boot configures from {@code spring.jackson.*} and its customizers.
+ * Boot has no Smile mapper, so ours copies the JSON mapper's modules, features, naming, inclusion, visibility
+ * and date settings, and a Smile document carries the same fields and values as its JSON twin.
+ *
+ * <p>Each format has one mapper, shared by its converter, that writes straight into the response. At
+ * startup every mapper resolves the serializers and deserializers of the controllers' bodies, so the first
+ * requests after a deploy do not pay for introspecting them.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatConfig.class);
+
+    private static final List<Class<?>> WIRE_TYPE_SOURCES =
+            List.of(TransactionController.class, WalletController.class, GlobalExceptionHandler.class);
+
+    private final JsonMapper jsonMapper;
+    private final CBORMapper cborMapper;
+    private final SmileMapper smileMapper;
+
+    public WireFormatConfig(JsonMapper jsonMapper, CBORMapper cborMapper) {
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = cborMapper;
+        this.smileMapper = smileMapperLike(jsonMapper);
+    }
+
+    /** Copies the settings {@code spring.jackson.*} and Boot's customizers can change onto a Smile mapper. */
+    static SmileMapper smileMapperLike(JsonMapper json) {
+        SerializationConfig config = json.serializationConfig();
+        SmileMapper.Builder builder = SmileMapper.builder()
+                .addModules(json.registeredModules())
+                .propertyNamingStrategy(config.getPropertyNamingStrategy())
+                .changeDefaultPropertyInclusion(inclusion -> config.getDefaultPropertyInclusion())
+                .changeDefaultVisibility(visibility -> config.getDefaultVisibilityChecker())
+                .constructorDetector(config.getConstructorDetector())
+                .defaultDateFormat(config.getDateFormat())
+                .defaultLocale(config.getLocale());
+        if (config.hasExplicitTimeZone()) {
+            builder.defaultTimeZone(config.getTimeZone());
+        }
+        for (MapperFeature feature : MapperFeature.values()) {
+            builder.configure(feature, json.isEnabled(feature));
+        }
+        for (SerializationFeature feature : SerializationFeature.values()) {
+            builder.configure(feature, json.isEnabled(feature));
+        }
+        for (DeserializationFeature feature : DeserializationFeature.values()) {
+            builder.configure(feature, json.isEnabled(feature));
+        }
+        for (DatatypeFeature[] features : List.<DatatypeFeature[]>of(
+                EnumFeature.values(), JsonNodeFeature.values(), DateTimeFeature.values())) {
+            for (DatatypeFeature feature : features) {
+                builder.configure(feature, json.isEnabled(feature));
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper));
+    }
+
+    @PostConstruct
+    void prewarm() {
+        Set<Type> written = new LinkedHashSet<>();
+        Set<Type> read = new LinkedHashSet<>();
+        for (Class<?> source : WIRE_TYPE_SOURCES) {
+            for (Method method : source.getDeclaredMethods()) {
+                if (AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class)
+                        || method.isAnnotationPresent(ExceptionHandler.class)) {
+                    collect(method, written, read);
+                }
+            }
+        }
+        for (ObjectMapper mapper : List.of(jsonMapper, cborMapper, smileMapper)) {
+            written.forEach(type -> prefetch(mapper, type, true));
+            read.forEach(type -> prefetch(mapper, type, false));
+        }
+        log.debug("Prewarmed {} response and {} request types for JSON, CBOR and Smile", written.size(), read.size());
+    }
+
+    private static void collect(Method method, Set<Type> written, Set<Type> read) {
+        ResolvableType body = ResolvableType.forMethodReturnType(method);
+        if (HttpEntity.class.isAssignableFrom(body.toClass())) {
+            body = body.getGeneric(0);
+        }
+        Class<?> raw = body.toClass();
+        if (raw != void.class && raw != Object.class && !StreamingResponseBody.class.isAssignableFrom(raw)) {
+            written.add(body.getType());
+        }
+        for (int i = 0; i < method.getParameterCount(); i++) {
+            MethodParameter parameter = new MethodParameter(method, i);
+            if (parameter.hasParameterAnnotation(RequestBody.class)) {
+                read.add(parameter.getGenericParameterType());
+            }
+        }
+    }
+
+    /** Builds the reader or writer the converters would build, which resolves and caches its (de)serializers. */
+    private static void prefetch(ObjectMapper mapper, Type type, boolean write) {
+        try {
+            JavaType javaType = mapper.constructType(type);
+            if (write) {
+                mapper.writerFor(javaType);
+            } else {
+                mapper.readerFor(javaType);
+            }
+        } catch (JacksonException e) {
+            log.warn("Could not prewarm {} for {}", mapper.getClass().getSimpleName(), type, e);
+        }
+    }
+}
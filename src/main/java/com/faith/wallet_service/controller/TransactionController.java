@@ -1,6 +1,8 @@
 package com.faith.wallet_service.controller;
 
 import com.faith.wallet_service.commons.ResultWrapper;
+import com.faith.wallet_service.dto.TransactionBatchItemResult;
+import com.faith.wallet_service.dto.TransactionBatchRequest;
 import com.faith.wallet_service.dto.TransactionRequest;
 import com.faith.wallet_service.dto.TransactionResponse;
 import com.faith.wallet_service.dto.TransferRequest;
@@ -14,6 +16,8 @@ import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/transactions")
 @Tag(name = "Transaction Management", description = "APIs for wallet transactions and transfers")
@@ -41,6 +45,22 @@ public class TransactionController {
         return ResponseEntity.ok(result);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Apply transactions in bulk", description = "Credit or debit many wallets in one request; each item keeps its own idempotency key and result")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see per-item status"),
+        @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
+    public ResponseEntity<ResultWrapper<List<TransactionBatchItemResult>>> transactBatch(@Valid @RequestBody TransactionBatchRequest request) {
+        List<TransactionBatchItemResult> results = transactionService.applyTransactions(request.getTransactions());
+        long failed = results.stream().filter(r -> r.getStatus() != ResultWrapper.ResultStatus.SUCCESS).count();
+        ResultWrapper<List<TransactionBatchItemResult>> result = new ResultWrapper<>();
+        result.setStatus(ResultWrapper.ResultStatus.SUCCESS);
+        result.setMessage("Batch processed: " + (results.size() - failed) + " succeeded, " + failed + " failed");
+        result.setData(results);
+        return ResponseEntity.ok(result);
+    }
+
     @PostMapping("/transfer")
     @Operation(summary = "Transfer between wallets", description = "Transfer money between two wallets with idempotency support")
     @ApiResponses(value = {
@@ -1,17 +1,25 @@
 package com.faith.wallet_service.controller;
 
+import com.faith.wallet_service.commons.ReadConsistency;
 import com.faith.wallet_service.commons.ResultWrapper;
 import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.WalletHistoryPage;
 import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.enums.StatementFormat;
+import com.faith.wallet_service.service.StatementService;
 import com.faith.wallet_service.service.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/wallets")
@@ -19,9 +27,11 @@ import org.springframework.web.bind.annotation.*;
 public class WalletController {
 
     private final WalletService walletService;
+    private final StatementService statementService;
 
-    public WalletController(WalletService walletService) {
+    public WalletController(WalletService walletService, StatementService statementService) {
         this.walletService = walletService;
+        this.statementService = statementService;
     }
 
     @PostMapping
@@ -54,4 +64,53 @@ public class WalletController {
         result.setData(wallet);
         return ResponseEntity.ok(result);
     }
+
+    @GetMapping("/{id}/transactions")
+    @Operation(summary = "Get wallet history", description = "Credits, debits and transfers in and out, newest first, with cursor pagination")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "History page returned"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or limit"),
+        @ApiResponse(responseCode = "404", description = "Wallet not found")
+    })
+    public ResponseEntity<ResultWrapper<WalletHistoryPage>> getHistory(@PathVariable Long id,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(defaultValue = "50") int limit) {
+        WalletHistoryPage page = walletService.getHistory(id, cursor, limit);
+        ResultWrapper<WalletHistoryPage> result = new ResultWrapper<>();
+        result.setStatus(ResultWrapper.ResultStatus.SUCCESS);
+        result.setMessage("Wallet history retrieved successfully");
+        result.setData(page);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/{id}/statement")
+    @Operation(summary = "Export wallet statement", description = "Streams every credit, debit and transfer of the wallet, oldest first, as NDJSON or CSV, optionally gzip-compressed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statement streamed"),
+        @ApiResponse(responseCode = "400", description = "Unsupported format"),
+        @ApiResponse(responseCode = "404", description = "Wallet not found")
+    })
+    public ResponseEntity<StreamingResponseBody> exportStatement(@PathVariable Long id,
+                                                                 @RequestParam(defaultValue = "ndjson") String format,
+                                                                 @RequestParam(defaultValue = "false") boolean gzip) {
+        StatementFormat statementFormat = StatementFormat.fromParam(format);
+        // Resolve the wallet before streaming starts; once the body is committed the status can no longer change
+        walletService.getWallet(id);
+
+        String filename = "wallet-" + id + "-statement." + statementFormat.getExtension() + (gzip ? ".gz" : "");
+        // The body is written on another thread, which needs the request's consistency token too
+        long required = ReadConsistency.required();
+        StreamingResponseBody body = out -> {
+            ReadConsistency.require(required);
+            try {
+                statementService.writeStatement(id, statementFormat, gzip, out);
+            } finally {
+                ReadConsistency.clear();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : statementFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
 }
@@ -0,0 +1,29 @@
+package com.faith.wallet_service.dto;
+
+import com.faith.wallet_service.enums.BalanceEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceChangeEvent {
+    // outbox_events id, increasing per wallet; the same on every redelivery, so consumers can deduplicate by it
+    private Long id;
+    private Long walletId;
+    private BalanceEventType type;
+    // wallet_transactions id for credits/debits, transfer_transactions id for transfers
+    private Long entryId;
+    private Long amount;
+    private Long balance;
+    private Long counterpartyWalletId;
+    private LocalDateTime createdAt;
+
+    public BalanceChangeEvent(Long walletId, BalanceEventType type, Long entryId, long amount, long balance,
+                              Long counterpartyWalletId, LocalDateTime createdAt) {
+        this(null, walletId, type, entryId, amount, balance, counterpartyWalletId, createdAt);
+    }
+}
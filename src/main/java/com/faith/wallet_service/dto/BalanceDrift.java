@@ -0,0 +1,15 @@
+package com.faith.wallet_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDrift {
+    private Long walletId;
+    private Long balance;
+    // Opening balance plus the net of every ledger entry: what the balance should be
+    private Long ledgerBalance;
+}
@@ -0,0 +1,24 @@
+package com.faith.wallet_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+    private long walletsChecked;
+    private long walletsDrifted;
+    // Wallets without an opening balance, which cannot be checked until it is backfilled
+    private long walletsUnverified;
+    private long ledgerEntriesScanned;
+    // The first wallet.reconciliation.report-limit drifted wallets, by id
+    private List<BalanceDrift> drifts;
+    // Snapshots taken by this run cover ledger entries created before this time
+    private LocalDateTime coveredUntil;
+    private long durationMillis;
+}
@@ -0,0 +1,28 @@
+package com.faith.wallet_service.dto;
+
+import com.faith.wallet_service.commons.ResultWrapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch, in the same position as the request item.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchItemResult {
+    private String idempotencyKey;
+    private ResultWrapper.ResultStatus status;
+    private String message;
+    private TransactionResponse data;
+
+    public static TransactionBatchItemResult success(String idempotencyKey, TransactionResponse data) {
+        return new TransactionBatchItemResult(idempotencyKey, ResultWrapper.ResultStatus.SUCCESS,
+                "Transaction completed successfully", data);
+    }
+
+    public static TransactionBatchItemResult failed(String idempotencyKey, String message) {
+        return new TransactionBatchItemResult(idempotencyKey, ResultWrapper.ResultStatus.FAILED, message, null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.faith.wallet_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TransactionBatchRequest {
+    @NotEmpty(message = "At least one transaction is required")
+    @Size(max = 10000, message = "A batch can contain at most 10000 transactions")
+    private List<@Valid TransactionRequest> transactions;
+}
@@ -0,0 +1,20 @@
+package com.faith.wallet_service.dto;
+
+import com.faith.wallet_service.enums.HistoryEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletHistoryEntry {
+    // wallet_transactions id for credits/debits, transfer_transactions id for transfers
+    private Long id;
+    private HistoryEntryType type;
+    private Long amount;
+    private Long counterpartyWalletId;
+    private LocalDateTime timestamp;
+}
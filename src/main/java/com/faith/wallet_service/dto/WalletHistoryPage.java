@@ -0,0 +1,16 @@
+package com.faith.wallet_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletHistoryPage {
+    private List<WalletHistoryEntry> entries;
+    // Opaque; pass back as ?cursor= to get the next (older) page. Null on the last page.
+    private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.faith.wallet_service.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates ids from a database sequence through Hibernate's pooled optimizer, reserving a block
+ * of ids per round trip. The block size comes from {@code wallet.id.allocation-size} and must
+ * match the sequence's INCREMENT BY.
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+
+    /** Name of the backing database sequence. */
+    String value();
+}
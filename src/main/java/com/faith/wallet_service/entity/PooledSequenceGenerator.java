@@ -0,0 +1,68 @@
+package com.faith.wallet_service.entity;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sequence generator behind {@link PooledSequence}. Reads the allocation size from the Hibernate
+ * settings (set via {@code spring.jpa.properties.wallet.id.allocation-size}) so deployments can tune
+ * it without touching the entities. Hibernate compares it with the sequence's increment in the database
+ * at startup unless the schema is being recreated.
+ *
+ * <p>With sharding, each shard's sequence issues ids in that shard's range, so every shard other than 0
+ * gets its own optimizer and a block reserved on one shard is never handed out on another.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "wallet.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private final String sequenceName;
+    private final Map<Integer, Optimizer> shardOptimizers = new ConcurrentHashMap<>();
+
+    public PooledSequenceGenerator(PooledSequence config, Member idMember, GeneratorCreationContext creationContext) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public void configure(GeneratorCreationContext creationContext, Properties parameters) throws MappingException {
+        Object configured = creationContext.getServiceRegistry()
+                .requireService(ConfigurationService.class)
+                .getSettings()
+                .get(ALLOCATION_SIZE_SETTING);
+        int allocationSize = configured == null ? DEFAULT_ALLOCATION_SIZE : Integer.parseInt(configured.toString().trim());
+        if (allocationSize <= 0) {
+            throw new MappingException(ALLOCATION_SIZE_SETTING + " must be positive");
+        }
+
+        parameters.put(SEQUENCE_PARAM, sequenceName);
+        parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(creationContext, parameters);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner) {
+        Integer shard = ShardRouter.currentShard();
+        if (shard == null || shard == 0) {
+            return super.generate(session, owner);
+        }
+        Optimizer optimizer = shardOptimizers.computeIfAbsent(shard, s -> OptimizerFactory.buildOptimizer(
+                StandardOptimizerDescriptor.POOLED, getIdentifierType().getReturnedClass(),
+                getOptimizer().getIncrementSize(), getDatabaseStructure().getInitialValue()));
+        // The session's connection belongs to the current shard, so the callback reads that shard's sequence
+        return optimizer.generate(getDatabaseStructure().buildCallback(session));
+    }
+}
@@ -4,26 +4,31 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "transfer_transactions")
+@Table(name = "transfer_transactions", indexes = {
+        @Index(name = "idx_transfer_transactions_from_created", columnList = "from_wallet_id, created_at, id"),
+        @Index(name = "idx_transfer_transactions_to_created", columnList = "to_wallet_id, created_at, id")
+})
 public class TransferTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("transfer_transactions_id_seq")
     private Long id;
 
     private Long fromWalletId;
     private Long toWalletId;
     private Long amount;
 
-    @Column(name = "idempotency_key", nullable = false, unique = true)
+    @Column(name = "idempotency_key", nullable = false)
     private String idempotencyKey;
 
+    // Truncated to the database's microsecond precision so replayed responses match the original
     @Column(nullable = false)
-    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
 }
\ No newline at end of file
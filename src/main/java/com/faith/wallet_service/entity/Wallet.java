@@ -1,5 +1,6 @@
 package com.faith.wallet_service.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -14,7 +15,7 @@ import java.time.LocalDateTime;
 public class Wallet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("wallets_id_seq")
     private Long id;
 
     @Column(nullable = false)
@@ -25,4 +26,9 @@ public class Wallet {
 
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    // The balance the wallet was created with, which has no ledger entry; null for wallets older than the column
+    @JsonIgnore
+    @Column(updatable = false)
+    private Long openingBalance;
 }
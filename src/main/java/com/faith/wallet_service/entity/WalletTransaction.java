@@ -5,17 +5,18 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "wallet_transactions")
+@Table(name = "wallet_transactions", indexes = @Index(name = "idx_wallet_transactions_wallet_created", columnList = "wallet_id, created_at, id"))
 public class WalletTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("wallet_transactions_id_seq")
     private Long id;
 
     private Long walletId;
@@ -25,9 +26,10 @@ public class WalletTransaction {
     @Enumerated(EnumType.STRING)
     private TransactionType type;
 
-    @Column(name = "idempotency_key", nullable = false, unique = true)
+    @Column(name = "idempotency_key", nullable = false)
     private String idempotencyKey;
 
+    // Truncated to the database's microsecond precision so replayed responses match the original
     @Column(nullable = false)
-    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
 }
@@ -0,0 +1,29 @@
+package com.faith.wallet_service.enums;
+
+/**
+ * What changed a wallet's balance, as published through the outbox. The code is what outbox_events stores.
+ */
+public enum BalanceEventType {
+    CREDIT((short) 1),
+    DEBIT((short) 2),
+    TRANSFER_OUT((short) 3),
+    TRANSFER_IN((short) 4),
+    // A cross-shard transfer to a wallet that does not exist, handed back to the sender
+    TRANSFER_REFUND((short) 5);
+
+    private static final BalanceEventType[] BY_CODE = values();
+
+    private final short code;
+
+    BalanceEventType(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static BalanceEventType fromCode(short code) {
+        return BY_CODE[code - 1];
+    }
+}
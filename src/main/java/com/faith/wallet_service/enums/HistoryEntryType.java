@@ -0,0 +1,5 @@
+package com.faith.wallet_service.enums;
+
+public enum HistoryEntryType {
+    CREDIT, DEBIT, TRANSFER_IN, TRANSFER_OUT
+}
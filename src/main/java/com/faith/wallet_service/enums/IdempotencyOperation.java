@@ -0,0 +1,20 @@
+package com.faith.wallet_service.enums;
+
+/**
+ * Kind of request an idempotency record belongs to. The code is stored in idempotency_records and mixed
+ * into the key hash, so a credit and a transfer may reuse the same client key without colliding.
+ */
+public enum IdempotencyOperation {
+    TRANSACTION((short) 1),
+    TRANSFER((short) 2);
+
+    private final short code;
+
+    IdempotencyOperation(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,11 @@
+package com.faith.wallet_service.enums;
+
+import java.util.Locale;
+
+public enum OperationOutcome {
+    SUCCESS, REPLAY, INSUFFICIENT_BALANCE, NOT_FOUND, DUPLICATE, ERROR;
+
+    public String tagValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,11 @@
+package com.faith.wallet_service.enums;
+
+/**
+ * Progress of a cross-shard transfer. PENDING means the sender has been debited and the receiver may or
+ * may not have been credited yet; both other states are final.
+ */
+public enum TransferSagaState {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
@@ -1,11 +1,11 @@
 package com.faith.wallet_service.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
@@ -46,6 +46,30 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorDetails> handleServiceOverloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(ErrorDetails.builder()
+                        .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .message(e.getMessage())
+                        .time(LocalDateTime.now())
+                        .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                        .build());
+    }
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ErrorDetails> handleRateLimited(RateLimitedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(ErrorDetails.builder()
+                        .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                        .message(e.getMessage())
+                        .time(LocalDateTime.now())
+                        .httpStatus(HttpStatus.TOO_MANY_REQUESTS)
+                        .build());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorDetails> handleIllegalArgument(IllegalArgumentException e) {
         return ResponseEntity.badRequest().body(
@@ -72,7 +96,7 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorDetails> handleGeneral(Exception e, WebRequest req) {
+    public ResponseEntity<ErrorDetails> handleGeneral(Exception e) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
                 ErrorDetails.builder()
                         .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
@@ -0,0 +1,56 @@
+package com.faith.wallet_service.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Pool saturation on top of the per-state Hikari gauges: the share of connections in use, and that
+ * share counting threads queued for a connection, which goes above 1 once callers start waiting.
+ */
+@Component
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final DataSource dataSource;
+
+    public ConnectionPoolMetrics(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        HikariDataSource hikari = unwrap();
+        if (hikari == null) {
+            return;
+        }
+        Gauge.builder("wallet.db.pool.utilization", hikari, pool -> ratio(pool, false))
+                .description("Active connections divided by the maximum pool size")
+                .register(registry);
+        Gauge.builder("wallet.db.pool.saturation", hikari, pool -> ratio(pool, true))
+                .description("Active connections plus waiting threads divided by the maximum pool size")
+                .register(registry);
+    }
+
+    private static double ratio(HikariDataSource pool, boolean includeWaiting) {
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        if (bean == null) {
+            return Double.NaN;
+        }
+        int demand = bean.getActiveConnections() + (includeWaiting ? bean.getThreadsAwaitingConnection() : 0);
+        return (double) demand / pool.getMaximumPoolSize();
+    }
+
+    private HikariDataSource unwrap() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.faith.wallet_service.metrics;
+
+import com.faith.wallet_service.enums.OperationOutcome;
+import com.faith.wallet_service.exception.DuplicateTransactionException;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.exception.WalletNotFoundException;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times one service call. The outcome defaults to success; replay paths mark themselves and failures
+ * are classified from the exception.
+ */
+public class OperationTimer {
+
+    private final WalletMetrics metrics;
+    private final String operation;
+    private final Timer.Sample sample;
+    private OperationOutcome outcome = OperationOutcome.SUCCESS;
+
+    OperationTimer(WalletMetrics metrics, String operation, Timer.Sample sample) {
+        this.metrics = metrics;
+        this.operation = operation;
+        this.sample = sample;
+    }
+
+    public <T> T replayed(T response) {
+        outcome = OperationOutcome.REPLAY;
+        return response;
+    }
+
+    public <T> T stop(T result) {
+        metrics.record(sample, operation, outcome);
+        return result;
+    }
+
+    public void stop(RuntimeException e) {
+        metrics.record(sample, operation, classify(e));
+    }
+
+    private static OperationOutcome classify(RuntimeException e) {
+        if (e instanceof InsufficientBalanceException) {
+            return OperationOutcome.INSUFFICIENT_BALANCE;
+        }
+        if (e instanceof WalletNotFoundException) {
+            return OperationOutcome.NOT_FOUND;
+        }
+        if (e instanceof DuplicateTransactionException) {
+            return OperationOutcome.DUPLICATE;
+        }
+        return OperationOutcome.ERROR;
+    }
+}
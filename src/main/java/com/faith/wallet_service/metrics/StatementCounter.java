@@ -0,0 +1,26 @@
+package com.faith.wallet_service.metrics;
+
+/**
+ * Counts the SQL statements prepared on the current thread, by Hibernate and by the JdbcTemplate
+ * repositories alike (see {@link StatementCountingDataSource}). A JDBC batch is prepared once, so the count
+ * tracks database round trips rather than rows.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private StatementCounter() {
+    }
+
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,39 @@
+package com.faith.wallet_service.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many statements each request sent, tagged with the matched route so ids do not explode
+ * the tag space.
+ */
+@Component
+public class StatementCountingFilter extends OncePerRequestFilter {
+
+    private final WalletMetrics walletMetrics;
+
+    public StatementCountingFilter(WalletMetrics walletMetrics) {
+        this.walletMetrics = walletMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementCounter.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                walletMetrics.recordStatements(pattern.toString(), StatementCounter.current());
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.faith.wallet_service.metrics;
+
+import com.faith.wallet_service.cache.CacheStats;
+import com.faith.wallet_service.cache.IdempotencyCache;
+import com.faith.wallet_service.cache.WalletCache;
+import com.faith.wallet_service.enums.OperationOutcome;
+import com.faith.wallet_service.serviceImpl.TransferExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Meters for the money-moving paths: latency per operation and outcome, idempotency cache and
+ * short-circuit counters, transfer retries and database statements per request.
+ */
+@Component
+public class WalletMetrics {
+
+    public static final String TRANSACTION = "transaction";
+    public static final String TRANSFER = "transfer";
+    public static final String BATCH = "batch";
+
+    private final MeterRegistry registry;
+
+    public WalletMetrics(MeterRegistry registry, IdempotencyCache idempotencyCache, WalletCache walletCache,
+                         TransferExecutor transferExecutor) {
+        this.registry = registry;
+        bindCache("wallet.idempotency.cache", idempotencyCache, TRANSACTION, IdempotencyCache::transactionStats);
+        bindCache("wallet.idempotency.cache", idempotencyCache, TRANSFER, IdempotencyCache::transferStats);
+        bindCache("wallet.snapshot.cache", walletCache, "get_wallet", WalletCache::stats);
+
+        FunctionCounter.builder("wallet.transfer.retries", transferExecutor, TransferExecutor::getRetryCount)
+                .description("Transfer attempts retried after a lock conflict")
+                .register(registry);
+        FunctionCounter.builder("wallet.transfer.retries.exhausted", transferExecutor, TransferExecutor::getExhaustedCount)
+                .description("Transfers that failed after the last retry")
+                .register(registry);
+    }
+
+    public OperationTimer start(String operation) {
+        return new OperationTimer(this, operation, Timer.start(registry));
+    }
+
+    /**
+     * Counts idempotency checks by whether the recent-key filter let the request skip the store lookup.
+     */
+    public void recordStoreLookup(String operation, boolean checked) {
+        Counter.builder("wallet.idempotency.store.lookups")
+                .tag("operation", operation)
+                .tag("result", checked ? "checked" : "skipped")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Counts requests answered by a concurrent request with the same key, on this node ({@code local})
+     * or on another node holding the key's claim ({@code remote}).
+     */
+    public void recordCoalesced(String operation, String scope) {
+        Counter.builder("wallet.idempotency.coalesced")
+                .tag("operation", operation)
+                .tag("scope", scope)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordStatements(String uri, long statements) {
+        DistributionSummary.builder("wallet.db.statements")
+                .description("SQL statements sent to the database per HTTP request")
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(statements);
+    }
+
+    void record(Timer.Sample sample, String operation, OperationOutcome outcome) {
+        sample.stop(Timer.builder("wallet.operation")
+                .description("Latency of transaction, transfer and batch calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome.tagValue())
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private <C> void bindCache(String prefix, C cache, String operation, Function<C, CacheStats> stats) {
+        functionCounter(prefix + ".hits", cache, operation, c -> stats.apply(c).hits());
+        functionCounter(prefix + ".misses", cache, operation, c -> stats.apply(c).misses());
+        functionCounter(prefix + ".evictions", cache, operation, c -> stats.apply(c).evictions());
+        Gauge.builder(prefix + ".size", cache, c -> stats.apply(c).size())
+                .tag("operation", operation)
+                .register(registry);
+        Gauge.builder(prefix + ".weight", cache, c -> stats.apply(c).weightBytes())
+                .tag("operation", operation)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private <C> void functionCounter(String name, C cache, String operation, ToLongFunction<C> value) {
+        FunctionCounter.builder(name, cache, c -> value.applyAsLong(c))
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
@@ -0,0 +1,83 @@
+package com.faith.wallet_service.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * wallet_balance_slots, the extra balance rows of hot wallets. A wallet's balance is its wallets.balance
+ * plus the sum of its slots; a wallet without slots has just the row.
+ */
+@Repository
+public class BalanceSlotRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceSlotRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Row and slots in one statement, so a concurrent move between them is never half seen. */
+    public Optional<Long> findTotalBalance(long walletId) {
+        return jdbcTemplate.query("SELECT w.balance + COALESCE((SELECT SUM(s.balance) FROM wallet_balance_slots s "
+                        + "WHERE s.wallet_id = w.id), 0) FROM wallets w WHERE w.id = ?",
+                (rs, rowNum) -> rs.getLong(1), walletId).stream().findFirst();
+    }
+
+    /** False when the wallet has no such slot. */
+    public boolean credit(long walletId, int slot, long amount) {
+        return jdbcTemplate.update("UPDATE wallet_balance_slots SET balance = balance + ? WHERE wallet_id = ? AND slot = ?",
+                amount, walletId, slot) == 1;
+    }
+
+    /** Takes the amount from the slot only when it can cover it. */
+    public boolean debit(long walletId, int slot, long amount) {
+        return jdbcTemplate.update("UPDATE wallet_balance_slots SET balance = balance - ? "
+                + "WHERE wallet_id = ? AND slot = ? AND balance >= ?", amount, walletId, slot, amount) == 1;
+    }
+
+    /** Takes the amount from the first slot found that can cover it. */
+    public boolean debitAnySlot(long walletId, long amount) {
+        return jdbcTemplate.update("UPDATE wallet_balance_slots SET balance = balance - ? "
+                        + "WHERE wallet_id = ? AND balance >= ? AND slot = (SELECT MIN(slot) FROM wallet_balance_slots "
+                        + "WHERE wallet_id = ? AND balance >= ?)",
+                amount, walletId, amount, walletId, amount) == 1;
+    }
+
+    /**
+     * Locks the wallet's slots in slot order, empties them and returns what they held. The caller holds
+     * the wallet row's lock and adds the amount to the row in the same transaction.
+     */
+    public long drain(long walletId) {
+        List<Long> balances = jdbcTemplate.queryForList("SELECT balance FROM wallet_balance_slots WHERE wallet_id = ? "
+                + "ORDER BY slot FOR UPDATE", Long.class, walletId);
+        long total = balances.stream().mapToLong(Long::longValue).sum();
+        if (total != 0) {
+            jdbcTemplate.update("UPDATE wallet_balance_slots SET balance = 0 WHERE wallet_id = ? AND balance <> 0", walletId);
+        }
+        return total;
+    }
+
+    public int countSlots(long walletId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_balance_slots WHERE wallet_id = ?",
+                Integer.class, walletId);
+        return count == null ? 0 : count;
+    }
+
+    /** Adds empty slots numbered from {@code from} up to {@code slots} - 1. */
+    public void createSlots(long walletId, int from, int slots) {
+        jdbcTemplate.batchUpdate("INSERT INTO wallet_balance_slots (wallet_id, slot, balance) VALUES (?, ?, 0)",
+                IntStream.range(from, slots).mapToObj(slot -> new Object[]{walletId, slot}).toList());
+    }
+
+    public List<Long> findWalletsWithSlots() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT wallet_id FROM wallet_balance_slots", Long.class);
+    }
+
+    public void deleteSlots(long walletId) {
+        jdbcTemplate.update("DELETE FROM wallet_balance_slots WHERE wallet_id = ?", walletId);
+    }
+}
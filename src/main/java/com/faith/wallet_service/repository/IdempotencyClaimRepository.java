@@ -0,0 +1,58 @@
+package com.faith.wallet_service.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Short-lived claims on idempotency keys, so only one node at a time executes a given key. Statements
+ * run outside the request's transaction and commit at once, which is what makes a claim visible to
+ * other nodes while its owner is still working. A claim only avoids wasted work: the idempotency_records
+ * primary key still decides which request is applied.
+ */
+@Repository
+public class IdempotencyClaimRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyClaimRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Claims an unclaimed key; false when another owner holds it, expired or not. */
+    public boolean tryClaim(byte[] keyHash, String owner, LocalDateTime expiresAt) {
+        try {
+            return jdbcTemplate.update("INSERT INTO idempotency_claims (key_hash, owner, expires_at) VALUES (?, ?, ?)",
+                    keyHash, owner, Timestamp.valueOf(expiresAt)) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /** Takes over a claim whose lease ran out before {@code now}, e.g. because its owner crashed. */
+    public boolean takeOverExpired(byte[] keyHash, String owner, LocalDateTime now, LocalDateTime expiresAt) {
+        return jdbcTemplate.update("UPDATE idempotency_claims SET owner = ?, expires_at = ? WHERE key_hash = ? AND expires_at < ?",
+                owner, Timestamp.valueOf(expiresAt), keyHash, Timestamp.valueOf(now)) == 1;
+    }
+
+    /**
+     * Extends every claim {@code owner} still holds to {@code expiresAt}; returns the number extended. Claims
+     * are deleted on release, so the table only holds in-flight keys and needs no index on owner.
+     */
+    public int renew(String owner, LocalDateTime expiresAt) {
+        return jdbcTemplate.update("UPDATE idempotency_claims SET expires_at = ? WHERE owner = ?",
+                Timestamp.valueOf(expiresAt), owner);
+    }
+
+    public void release(byte[] keyHash, String owner) {
+        jdbcTemplate.update("DELETE FROM idempotency_claims WHERE key_hash = ? AND owner = ?", keyHash, owner);
+    }
+
+    /** Removes claims left behind by owners that never released them; returns the number removed. */
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_claims WHERE expires_at < ?", Timestamp.valueOf(now));
+    }
+}
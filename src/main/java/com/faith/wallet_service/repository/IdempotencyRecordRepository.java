@@ -0,0 +1,99 @@
+package com.faith.wallet_service.repository;
+
+import com.faith.wallet_service.commons.IdempotencyRecordCodec;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.enums.IdempotencyOperation;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The idempotency store: one idempotency_records row per key, found with a single primary-key probe on
+ * a 16-byte hash. Inserts run immediately on the caller's transaction, so a key committed concurrently
+ * fails the primary key (DuplicateKeyException) before the surrounding transaction commits.
+ */
+@Repository
+public class IdempotencyRecordRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO idempotency_records (key_hash, operation, response, created_at) "
+            + "VALUES (:keyHash, :operation, :response, :createdAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public IdempotencyRecordRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<TransactionResponse> findTransaction(String key) {
+        return findResponse(IdempotencyOperation.TRANSACTION, key).map(IdempotencyRecordCodec::decodeTransaction);
+    }
+
+    public Optional<TransferResponse> findTransfer(String key) {
+        return findResponse(IdempotencyOperation.TRANSFER, key).map(IdempotencyRecordCodec::decodeTransfer);
+    }
+
+    /** Stored transaction responses for whichever of {@code keys} have one. */
+    public Map<String, TransactionResponse> findTransactions(Collection<String> keys) {
+        Map<ByteBuffer, String> keysByHash = new HashMap<>();
+        for (String key : keys) {
+            keysByHash.put(ByteBuffer.wrap(IdempotencyRecordCodec.keyHash(IdempotencyOperation.TRANSACTION, key)), key);
+        }
+        List<byte[]> hashes = keysByHash.keySet().stream().map(ByteBuffer::array).toList();
+        Map<String, TransactionResponse> found = new HashMap<>();
+        if (hashes.isEmpty()) {
+            return found;
+        }
+        jdbcTemplate.query("SELECT key_hash, response FROM idempotency_records WHERE key_hash IN (:hashes)",
+                new MapSqlParameterSource("hashes", hashes),
+                rs -> {
+                    found.put(keysByHash.get(ByteBuffer.wrap(rs.getBytes("key_hash"))),
+                            IdempotencyRecordCodec.decodeTransaction(rs.getBytes("response")));
+                });
+        return found;
+    }
+
+    public void insertTransaction(String key, TransactionResponse response) {
+        jdbcTemplate.update(INSERT_SQL, params(IdempotencyOperation.TRANSACTION, key,
+                IdempotencyRecordCodec.encode(response), response.getTimestamp()));
+    }
+
+    /** Inserts all responses as one JDBC batch. */
+    public void insertTransactions(Map<String, TransactionResponse> responses) {
+        List<MapSqlParameterSource> batch = new ArrayList<>(responses.size());
+        responses.forEach((key, response) -> batch.add(params(IdempotencyOperation.TRANSACTION, key,
+                IdempotencyRecordCodec.encode(response), response.getTimestamp())));
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch.toArray(MapSqlParameterSource[]::new));
+    }
+
+    public void insertTransfer(String key, TransferResponse response) {
+        jdbcTemplate.update(INSERT_SQL, params(IdempotencyOperation.TRANSFER, key,
+                IdempotencyRecordCodec.encode(response), response.getTimestamp()));
+    }
+
+    private Optional<byte[]> findResponse(IdempotencyOperation operation, String key) {
+        List<byte[]> rows = jdbcTemplate.query("SELECT response FROM idempotency_records WHERE key_hash = :keyHash",
+                new MapSqlParameterSource("keyHash", IdempotencyRecordCodec.keyHash(operation, key)),
+                (rs, rowNum) -> rs.getBytes("response"));
+        return rows.stream().findFirst();
+    }
+
+    private static MapSqlParameterSource params(IdempotencyOperation operation, String key, byte[] response,
+                                                LocalDateTime createdAt) {
+        return new MapSqlParameterSource()
+                .addValue("keyHash", IdempotencyRecordCodec.keyHash(operation, key))
+                .addValue("operation", operation.getCode())
+                .addValue("response", response)
+                .addValue("createdAt", Timestamp.valueOf(createdAt));
+    }
+}
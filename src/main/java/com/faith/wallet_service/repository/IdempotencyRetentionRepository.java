@@ -0,0 +1,36 @@
+package com.faith.wallet_service.repository;
+
+import com.faith.wallet_service.enums.IdempotencyOperation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Expiry queries for idempotency_records. Deletes go through the (operation, created_at) index in
+ * small chunks and skip rows another transaction holds, so a sweep never waits on foreground writes.
+ */
+@Repository
+public class IdempotencyRetentionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyRetentionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Deletes up to {@code limit} of the oldest records created before {@code cutoff}; returns the number deleted. */
+    public int deleteExpired(IdempotencyOperation operation, LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update("DELETE FROM idempotency_records WHERE key_hash IN ("
+                + "SELECT key_hash FROM idempotency_records WHERE operation = ? AND created_at < ? "
+                + "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED)",
+                operation.getCode(), Timestamp.valueOf(cutoff), limit);
+    }
+
+    /** Creation time of the operation's oldest record, or null when it has none. */
+    public LocalDateTime findOldestCreatedAt(IdempotencyOperation operation) {
+        return jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM idempotency_records WHERE operation = ?",
+                LocalDateTime.class, operation.getCode());
+    }
+}
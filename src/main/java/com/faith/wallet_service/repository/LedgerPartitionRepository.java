@@ -0,0 +1,106 @@
+package com.faith.wallet_service.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Catalog queries and DDL for the monthly partitions of the ledger tables (PostgreSQL only, see
+ * db/partition-ledger.sql). Table names are interpolated into DDL, so only plain lower-case identifiers
+ * are accepted.
+ */
+@Repository
+public class LedgerPartitionRepository {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z][a-z0-9_]*");
+    private static final Pattern BOUND_FROM = Pattern.compile("FROM \\('([^']+)'\\)");
+    private static final Pattern BOUND_TO = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerPartitionRepository(DataSource dataSource,
+                                     @Value("${wallet.partitioning.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /** Partitions currently attached to {@code parent}, with their bounds. */
+    public List<Partition> findPartitions(String parent) {
+        return jdbcTemplate.query("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound "
+                        + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = ? AND p.relnamespace = current_schema()::regnamespace",
+                (rs, rowNum) -> Partition.parse(rs.getString("relname"), rs.getString("bound")),
+                identifier(parent));
+    }
+
+    /** Former partitions of {@code parent} that have been detached and are waiting to be archived. */
+    public List<String> findDetachedPartitions(String parent) {
+        return jdbcTemplate.queryForList("SELECT t.tablename FROM pg_tables t "
+                        + "WHERE t.schemaname = current_schema() AND t.tablename ~ ? "
+                        + "AND NOT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE c.relname = t.tablename AND c.relnamespace = current_schema()::regnamespace) "
+                        + "ORDER BY t.tablename",
+                String.class, "^" + identifier(parent) + "_(p[0-9]{4}_[0-9]{2}|legacy)$");
+    }
+
+    public void createPartition(String parent, String partition, LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + identifier(partition) + " PARTITION OF " + identifier(parent)
+                + " FOR VALUES FROM ('" + BOUND_FORMAT.format(from) + "') TO ('" + BOUND_FORMAT.format(to) + "')");
+    }
+
+    /** Detaches without blocking inserts into the parent; must run outside a transaction. */
+    public void detachPartition(String parent, String partition) {
+        jdbcTemplate.execute("ALTER TABLE " + identifier(parent) + " DETACH PARTITION " + identifier(partition) + " CONCURRENTLY");
+    }
+
+    public long countRows(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + identifier(table), Long.class);
+    }
+
+    /**
+     * Reads every row of {@code table} in (created_at, id) order through a forward-only cursor; like
+     * statements, it only streams inside a transaction.
+     */
+    public <T> T streamRows(String table, ResultSetExtractor<T> extractor) {
+        return jdbcTemplate.query("SELECT * FROM " + identifier(table) + " ORDER BY created_at, id", extractor);
+    }
+
+    public void dropTable(String table) {
+        jdbcTemplate.execute("DROP TABLE " + identifier(table));
+    }
+
+    private static String identifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid table name: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * An attached partition covering [from, to); {@code from} is null for a partition that starts at
+     * MINVALUE, such as the legacy partition created by the migration.
+     */
+    public record Partition(String name, LocalDateTime from, LocalDateTime to) {
+
+        static Partition parse(String name, String bound) {
+            return new Partition(name, boundary(BOUND_FROM.matcher(bound)), boundary(BOUND_TO.matcher(bound)));
+        }
+
+        public boolean covers(LocalDateTime time) {
+            return (from == null || !time.isBefore(from)) && (to == null || time.isBefore(to));
+        }
+
+        private static LocalDateTime boundary(Matcher matcher) {
+            return matcher.find() ? LocalDateTime.parse(matcher.group(1), BOUND_FORMAT) : null;
+        }
+    }
+}
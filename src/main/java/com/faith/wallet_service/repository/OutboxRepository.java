@@ -0,0 +1,93 @@
+package com.faith.wallet_service.repository;
+
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+import com.faith.wallet_service.enums.BalanceEventType;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * outbox_events, the balance changes waiting to be published, and outbox_partitions, one lock row per
+ * partition of wallets. A relay holds a partition's row while it publishes that partition's events, so
+ * each wallet's events leave in id order however many relays run, and other relays skip to free partitions.
+ */
+@Repository
+public class OutboxRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_events "
+            + "(partition_id, wallet_id, event_type, entry_id, amount, balance, counterparty_wallet_id, created_at) "
+            + "VALUES (:partition, :walletId, :type, :entryId, :amount, :balance, :counterparty, :createdAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OutboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Inserts the events as one JDBC batch, each under its wallet's partition. */
+    public void insert(Collection<BalanceChangeEvent> events, int partitions) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events.stream().map(event -> new MapSqlParameterSource()
+                        .addValue("partition", partitionOf(event.getWalletId(), partitions))
+                        .addValue("walletId", event.getWalletId())
+                        .addValue("type", event.getType().getCode())
+                        .addValue("entryId", event.getEntryId())
+                        .addValue("amount", event.getAmount())
+                        .addValue("balance", event.getBalance())
+                        .addValue("counterparty", event.getCounterpartyWalletId())
+                        .addValue("createdAt", Timestamp.valueOf(event.getCreatedAt())))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    public static int partitionOf(long walletId, int partitions) {
+        return (int) Math.floorMod(walletId, (long) partitions);
+    }
+
+    /** Creates the lock rows of partitions 0..partitions-1 that do not exist yet. */
+    public void createPartitions(int partitions) {
+        for (int partition = 0; partition < partitions; partition++) {
+            try {
+                jdbcTemplate.update("INSERT INTO outbox_partitions (partition_id) SELECT :partition "
+                                + "WHERE NOT EXISTS (SELECT 1 FROM outbox_partitions WHERE partition_id = :partition)",
+                        new MapSqlParameterSource("partition", partition));
+            } catch (DuplicateKeyException e) {
+                // Created concurrently by another node
+            }
+        }
+    }
+
+    /** Locks the partition for the current transaction; false when another relay holds it. */
+    public boolean lockPartition(int partition) {
+        return !jdbcTemplate.queryForList("SELECT partition_id FROM outbox_partitions WHERE partition_id = :partition "
+                + "FOR UPDATE SKIP LOCKED", new MapSqlParameterSource("partition", partition), Integer.class).isEmpty();
+    }
+
+    /** The partition's oldest {@code limit} events, in id order. */
+    public List<BalanceChangeEvent> findBatch(int partition, int limit) {
+        return jdbcTemplate.query("SELECT id, wallet_id, event_type, entry_id, amount, balance, counterparty_wallet_id, created_at "
+                        + "FROM outbox_events WHERE partition_id = :partition ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource().addValue("partition", partition).addValue("limit", limit),
+                (rs, rowNum) -> new BalanceChangeEvent(
+                        rs.getLong("id"),
+                        rs.getLong("wallet_id"),
+                        BalanceEventType.fromCode(rs.getShort("event_type")),
+                        rs.getLong("entry_id"),
+                        rs.getLong("amount"),
+                        rs.getLong("balance"),
+                        rs.getObject("counterparty_wallet_id", Long.class),
+                        rs.getTimestamp("created_at").toLocalDateTime()));
+    }
+
+    public void delete(Collection<Long> ids) {
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids));
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", new MapSqlParameterSource(), Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,114 @@
+package com.faith.wallet_service.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads wallet balances next to the ledger entries that should explain them, and keeps the per-wallet
+ * snapshots that let a reconciliation skip the entries an earlier one already summed.
+ */
+@Repository
+public class ReconciliationRepository {
+
+    // Entries at or after each wallet's snapshot, signed as they move the balance. Each branch is a range
+    // seek on its (wallet, created_at) index; a cross-shard transfer's entry on this shard only falls in
+    // the range on the side whose wallet lives here.
+    private static final String SINCE_SNAPSHOT = "SELECT t.wallet_id, CASE WHEN t.type = 'DEBIT' THEN -t.amount ELSE t.amount END AS amount, t.created_at "
+            + "FROM wallet_transactions t LEFT JOIN wallet_balance_snapshots s ON s.wallet_id = t.wallet_id "
+            + "WHERE t.wallet_id >= :from AND t.wallet_id < :to AND t.created_at >= COALESCE(s.covered_until, TIMESTAMP '1970-01-01 00:00:00') "
+            + "UNION ALL SELECT t.from_wallet_id, -t.amount, t.created_at "
+            + "FROM transfer_transactions t LEFT JOIN wallet_balance_snapshots s ON s.wallet_id = t.from_wallet_id "
+            + "WHERE t.from_wallet_id >= :from AND t.from_wallet_id < :to AND t.created_at >= COALESCE(s.covered_until, TIMESTAMP '1970-01-01 00:00:00') "
+            + "UNION ALL SELECT t.to_wallet_id, t.amount, t.created_at "
+            + "FROM transfer_transactions t LEFT JOIN wallet_balance_snapshots s ON s.wallet_id = t.to_wallet_id "
+            + "WHERE t.to_wallet_id >= :from AND t.to_wallet_id < :to AND t.created_at >= COALESCE(s.covered_until, TIMESTAMP '1970-01-01 00:00:00')";
+
+    // One statement, so the balances and the entries come from the same committed state. A hot wallet's
+    // balance includes its slots
+    private static final String SCAN_SQL = "SELECT w.id, w.balance + COALESCE(h.slots, 0) AS balance, w.opening_balance, s.ledger_net, s.covered_until, "
+            + "COALESCE(d.delta, 0) AS delta, COALESCE(d.settled, 0) AS settled, "
+            + "COALESCE(d.settled_entries, 0) AS settled_entries, COALESCE(d.entries, 0) AS entries "
+            + "FROM wallets w "
+            + "LEFT JOIN wallet_balance_snapshots s ON s.wallet_id = w.id "
+            + "LEFT JOIN (SELECT wallet_id, SUM(balance) AS slots FROM wallet_balance_slots "
+            + "WHERE wallet_id >= :from AND wallet_id < :to GROUP BY wallet_id) h ON h.wallet_id = w.id "
+            + "LEFT JOIN (SELECT e.wallet_id, SUM(e.amount) AS delta, "
+            + "SUM(CASE WHEN e.created_at < :horizon THEN e.amount ELSE 0 END) AS settled, "
+            + "SUM(CASE WHEN e.created_at < :horizon THEN 1 ELSE 0 END) AS settled_entries, COUNT(*) AS entries "
+            + "FROM (" + SINCE_SNAPSHOT + ") e GROUP BY e.wallet_id) d ON d.wallet_id = w.id "
+            + "WHERE w.id >= :from AND w.id < :to";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ReconciliationRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Lowest and highest wallet id on the current shard, or null when it has no wallets. */
+    public long[] findIdRange() {
+        return jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM wallets", rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+    }
+
+    /**
+     * Every wallet with an id in [from, to), with its snapshot and the net of its entries since then: in
+     * total, and for those created before {@code horizon}, which the next snapshot will cover.
+     */
+    public List<LedgerBalance> scan(long from, long to, LocalDateTime horizon) {
+        return jdbcTemplate.query(SCAN_SQL, new MapSqlParameterSource()
+                        .addValue("from", from)
+                        .addValue("to", to)
+                        .addValue("horizon", Timestamp.valueOf(horizon)),
+                (rs, rowNum) -> {
+                    Timestamp coveredUntil = rs.getTimestamp("covered_until");
+                    long openingBalance = rs.getLong("opening_balance");
+                    Long opening = rs.wasNull() ? null : openingBalance;
+                    return new LedgerBalance(rs.getLong("id"), rs.getLong("balance"), opening,
+                            rs.getLong("ledger_net"), coveredUntil == null ? null : coveredUntil.toLocalDateTime(),
+                            rs.getLong("delta"), rs.getLong("settled"), rs.getLong("settled_entries"), rs.getLong("entries"));
+                });
+    }
+
+    /** Writes the snapshots as JDBC batches: updates first, then inserts for wallets that had none. */
+    public void saveSnapshots(List<Snapshot> snapshots, LocalDateTime takenAt) {
+        MapSqlParameterSource[] params = snapshots.stream().map(snapshot -> new MapSqlParameterSource()
+                        .addValue("walletId", snapshot.walletId())
+                        .addValue("ledgerNet", snapshot.ledgerNet())
+                        .addValue("coveredUntil", Timestamp.valueOf(snapshot.coveredUntil()))
+                        .addValue("takenAt", Timestamp.valueOf(takenAt)))
+                .toArray(MapSqlParameterSource[]::new);
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE wallet_balance_snapshots "
+                + "SET ledger_net = :ledgerNet, covered_until = :coveredUntil, taken_at = :takenAt WHERE wallet_id = :walletId", params);
+        List<MapSqlParameterSource> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(params[i]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO wallet_balance_snapshots (wallet_id, ledger_net, covered_until, taken_at) "
+                    + "VALUES (:walletId, :ledgerNet, :coveredUntil, :takenAt)", missing.toArray(MapSqlParameterSource[]::new));
+        }
+    }
+
+    /**
+     * A wallet as of one scan. The ledger says its balance should be openingBalance + snapshotNet + delta;
+     * settled is the part of delta from entries before the scan's horizon.
+     */
+    public record LedgerBalance(long walletId, long balance, Long openingBalance, long snapshotNet,
+                                LocalDateTime coveredUntil, long delta, long settled, long settledEntries,
+                                long entries) {
+    }
+
+    public record Snapshot(long walletId, long ledgerNet, LocalDateTime coveredUntil) {
+    }
+}
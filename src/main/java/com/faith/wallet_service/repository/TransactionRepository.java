@@ -3,9 +3,5 @@ package com.faith.wallet_service.repository;
 import com.faith.wallet_service.entity.WalletTransaction;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Optional;
-
 public interface TransactionRepository extends JpaRepository<WalletTransaction, Long> {
-
-    Optional<WalletTransaction> findByIdempotencyKey(String idempotencyKey);
 }
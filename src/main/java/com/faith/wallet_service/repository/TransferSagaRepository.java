@@ -0,0 +1,113 @@
+package com.faith.wallet_service.repository;
+
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.enums.TransferSagaState;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cross-shard transfers in progress, kept on the sender's shard, plus the receiver's copy of the transfer
+ * ledger entry. State changes are conditional on the saga still being PENDING, so two workers resuming
+ * the same saga cannot both finish it.
+ */
+@Repository
+public class TransferSagaRepository {
+
+    private static final String COLUMNS =
+            "id, idempotency_key, from_wallet_id, to_wallet_id, amount, from_balance, to_balance, state, created_at";
+
+    private static final RowMapper<Saga> ROW_MAPPER = (rs, rowNum) -> new Saga(
+            rs.getLong("id"),
+            rs.getString("idempotency_key"),
+            rs.getLong("from_wallet_id"),
+            rs.getLong("to_wallet_id"),
+            rs.getLong("amount"),
+            rs.getLong("from_balance"),
+            rs.getObject("to_balance", Long.class),
+            TransferSagaState.valueOf(rs.getString("state")),
+            rs.getObject("created_at", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransferSagaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Records a new PENDING saga; the unique idempotency key rejects a second saga for the same request. */
+    public void insert(Saga saga) {
+        jdbcTemplate.update("INSERT INTO transfer_sagas (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, NULL, ?, ?)",
+                saga.id(), saga.idempotencyKey(), saga.fromWalletId(), saga.toWalletId(), saga.amount(),
+                saga.fromBalance(), TransferSagaState.PENDING.name(), Timestamp.valueOf(saga.createdAt()));
+    }
+
+    public Optional<Saga> findById(long id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM transfer_sagas WHERE id = ?", ROW_MAPPER, id)
+                .stream().findFirst();
+    }
+
+    public Optional<Saga> findByIdempotencyKey(String idempotencyKey) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM transfer_sagas WHERE idempotency_key = ?",
+                ROW_MAPPER, idempotencyKey).stream().findFirst();
+    }
+
+    /** PENDING sagas started before {@code startedBefore}, oldest first. */
+    public List<Saga> findPending(LocalDateTime startedBefore, int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM transfer_sagas WHERE state = ? AND created_at < ? "
+                        + "ORDER BY created_at LIMIT ?",
+                ROW_MAPPER, TransferSagaState.PENDING.name(), Timestamp.valueOf(startedBefore), limit);
+    }
+
+    public boolean markCompleted(long id, long toBalance) {
+        return jdbcTemplate.update("UPDATE transfer_sagas SET state = ?, to_balance = ? WHERE id = ? AND state = ?",
+                TransferSagaState.COMPLETED.name(), toBalance, id, TransferSagaState.PENDING.name()) == 1;
+    }
+
+    public boolean markFailed(long id) {
+        return jdbcTemplate.update("UPDATE transfer_sagas SET state = ? WHERE id = ? AND state = ?",
+                TransferSagaState.FAILED.name(), id, TransferSagaState.PENDING.name()) == 1;
+    }
+
+    /** Deletes finished sagas older than the cutoff; returns the number deleted. */
+    public int deleteFinishedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM transfer_sagas WHERE state <> ? AND created_at < ?",
+                TransferSagaState.PENDING.name(), Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * True when the receiver's shard already holds its copy of the transfer entry, i.e. it was credited.
+     * Matched on the id alone, since the copy carries the receiver's own timestamp; on a partitioned ledger
+     * this probes every partition's key index.
+     */
+    public boolean hasReceiverEntry(long sagaId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transfer_transactions WHERE id = ?",
+                Integer.class, sagaId);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Writes the receiver's copy of the transfer entry under the sender's id, stamped with when it is
+     * written: a saga resumed long after it began must still land after the receiver's reconciliation
+     * snapshot. On an unpartitioned ledger a second copy fails on the key.
+     */
+    public void insertReceiverEntry(Saga saga, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO transfer_transactions (id, from_wallet_id, to_wallet_id, amount, idempotency_key, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                saga.id(), saga.fromWalletId(), saga.toWalletId(), saga.amount(), saga.idempotencyKey(),
+                Timestamp.valueOf(createdAt));
+    }
+
+    public record Saga(long id, String idempotencyKey, long fromWalletId, long toWalletId, long amount,
+                       long fromBalance, Long toBalance, TransferSagaState state, LocalDateTime createdAt) {
+
+        /** The transfer's response; only complete once the saga is COMPLETED. */
+        public TransferResponse response() {
+            return new TransferResponse(id, fromWalletId, fromBalance, toWalletId, toBalance, createdAt);
+        }
+    }
+}
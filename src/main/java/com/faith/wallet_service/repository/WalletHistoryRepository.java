@@ -0,0 +1,116 @@
+package com.faith.wallet_service.repository;
+
+import com.faith.wallet_service.dto.WalletHistoryEntry;
+import com.faith.wallet_service.enums.HistoryEntryType;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Reads a wallet's credits, debits and transfers as one newest-first history using keyset pagination.
+ * Each source is read through its (wallet, created_at, id) index, limited on its own, and the three
+ * slices are merged, so the cost of a page does not depend on how deep it is.
+ */
+@Repository
+public class WalletHistoryRepository {
+
+    // Sources in tie-break order for entries with the same timestamp
+    private static final int WALLET_TRANSACTIONS = 0;
+    private static final int TRANSFERS_OUT = 1;
+    private static final int TRANSFERS_IN = 2;
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(
+            rs.getInt("source"),
+            new WalletHistoryEntry(
+                    rs.getLong("id"),
+                    HistoryEntryType.valueOf(rs.getString("entry_type")),
+                    rs.getLong("amount"),
+                    rs.getObject("counterparty_wallet_id", Long.class),
+                    rs.getObject("created_at", LocalDateTime.class)));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public WalletHistoryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns up to {@code limit} entries older than {@code after} (null for the first page).
+     */
+    public List<Row> findPage(Long walletId, Cursor after, int limit) {
+        String sql = "SELECT id, source, entry_type, amount, counterparty_wallet_id, created_at FROM ("
+                + "(SELECT id, " + WALLET_TRANSACTIONS + " AS source, CAST(type AS VARCHAR(20)) AS entry_type, amount, "
+                + "CAST(NULL AS BIGINT) AS counterparty_wallet_id, created_at "
+                + "FROM wallet_transactions WHERE wallet_id = :walletId" + keyset(WALLET_TRANSACTIONS, after)
+                + " ORDER BY created_at DESC, id DESC LIMIT :limit)"
+                + " UNION ALL "
+                + "(SELECT id, " + TRANSFERS_OUT + " AS source, 'TRANSFER_OUT' AS entry_type, amount, "
+                + "to_wallet_id AS counterparty_wallet_id, created_at "
+                + "FROM transfer_transactions WHERE from_wallet_id = :walletId" + keyset(TRANSFERS_OUT, after)
+                + " ORDER BY created_at DESC, id DESC LIMIT :limit)"
+                + " UNION ALL "
+                + "(SELECT id, " + TRANSFERS_IN + " AS source, 'TRANSFER_IN' AS entry_type, amount, "
+                + "from_wallet_id AS counterparty_wallet_id, created_at "
+                + "FROM transfer_transactions WHERE to_wallet_id = :walletId" + keyset(TRANSFERS_IN, after)
+                + " ORDER BY created_at DESC, id DESC LIMIT :limit)"
+                + ") history ORDER BY created_at DESC, source DESC, id DESC LIMIT :limit";
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("walletId", walletId)
+                .addValue("limit", limit);
+        if (after != null) {
+            params.addValue("cursorTime", after.createdAt()).addValue("cursorId", after.id());
+        }
+        return jdbcTemplate.query(sql, params, ROW_MAPPER);
+    }
+
+    /**
+     * Position strictly after the cursor in (created_at DESC, source DESC, id DESC) order. The source is
+     * constant per branch, so the comparison reduces to a range on the branch's own index. Every branch
+     * keeps a plain bound on created_at, which is what lets PostgreSQL prune monthly ledger partitions;
+     * a row comparison alone does not.
+     */
+    private static String keyset(int source, Cursor after) {
+        if (after == null) {
+            return "";
+        }
+        if (source < after.source()) {
+            return " AND created_at <= :cursorTime";
+        }
+        if (source > after.source()) {
+            return " AND created_at < :cursorTime";
+        }
+        return " AND created_at <= :cursorTime AND (created_at, id) < (:cursorTime, :cursorId)";
+    }
+
+    public record Row(int source, WalletHistoryEntry entry) {
+
+        public Cursor toCursor() {
+            return new Cursor(entry.getTimestamp(), source, entry.getId());
+        }
+    }
+
+    public record Cursor(LocalDateTime createdAt, int source, long id) {
+
+        public String encode() {
+            String raw = createdAt + "|" + source + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                return new Cursor(LocalDateTime.parse(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -1,6 +1,39 @@
 package com.faith.wallet_service.repository;
 
 import com.faith.wallet_service.entity.Wallet;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface WalletRepository extends JpaRepository<Wallet, Long> {}
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WalletRepository extends JpaRepository<Wallet, Long> {
+
+    @Modifying
+    @Query("update Wallet w set w.balance = w.balance + :amount where w.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") long amount);
+
+    // Only matches when the wallet can cover the debit, so the check and the write are one atomic statement
+    @Modifying
+    @Query("update Wallet w set w.balance = w.balance - :amount where w.id = :id and w.balance >= :amount")
+    int debit(@Param("id") Long id, @Param("amount") long amount);
+
+    @Query("select w.balance from Wallet w where w.id = :id")
+    Optional<Long> findBalanceById(@Param("id") Long id);
+
+    // Rows are locked in ascending id order so opposing transfers wait on each other instead of deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from Wallet w where w.id in :ids order by w.id")
+    List<Wallet> lockAllByIdOrdered(@Param("ids") Collection<Long> ids);
+
+    // Debits the sender and credits the receiver in one statement
+    @Modifying(clearAutomatically = true)
+    @Query("update Wallet w set w.balance = case when w.id = :fromId then w.balance - :amount else w.balance + :amount end "
+            + "where w.id in (:fromId, :toId)")
+    int transfer(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("amount") long amount);
+}
@@ -0,0 +1,54 @@
+package com.faith.wallet_service.repository;
+
+import com.faith.wallet_service.dto.WalletHistoryEntry;
+import com.faith.wallet_service.enums.HistoryEntryType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Streams a wallet's full statement, oldest first, from a forward-only cursor. Rows are handed to the
+ * consumer one at a time and never collected, so memory does not grow with the size of the wallet.
+ * The driver only honours the fetch size inside a transaction (autocommit off on PostgreSQL).
+ */
+@Repository
+public class WalletStatementRepository {
+
+    private static final String STATEMENT_SQL = "SELECT id, source, entry_type, amount, counterparty_wallet_id, created_at FROM ("
+            + "SELECT id, 0 AS source, CAST(type AS VARCHAR(20)) AS entry_type, amount, "
+            + "CAST(NULL AS BIGINT) AS counterparty_wallet_id, created_at "
+            + "FROM wallet_transactions WHERE wallet_id = :walletId"
+            + " UNION ALL "
+            + "SELECT id, 1 AS source, 'TRANSFER_OUT' AS entry_type, amount, to_wallet_id AS counterparty_wallet_id, created_at "
+            + "FROM transfer_transactions WHERE from_wallet_id = :walletId"
+            + " UNION ALL "
+            + "SELECT id, 2 AS source, 'TRANSFER_IN' AS entry_type, amount, from_wallet_id AS counterparty_wallet_id, created_at "
+            + "FROM transfer_transactions WHERE to_wallet_id = :walletId"
+            + ") statement ORDER BY created_at, source, id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public WalletStatementRepository(DataSource dataSource,
+                                     @Value("${wallet.statement.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    public void streamStatement(Long walletId, Consumer<WalletHistoryEntry> consumer) {
+        jdbcTemplate.query(STATEMENT_SQL, new MapSqlParameterSource("walletId", walletId), rs -> {
+            consumer.accept(new WalletHistoryEntry(
+                    rs.getLong("id"),
+                    HistoryEntryType.valueOf(rs.getString("entry_type")),
+                    rs.getLong("amount"),
+                    rs.getObject("counterparty_wallet_id", Long.class),
+                    rs.getObject("created_at", LocalDateTime.class)));
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.faith.wallet_service.service;
+
+/**
+ * Applies credits and debits to a wallet balance. Implementations run inside the caller's
+ * transaction and return the balance as seen by that transaction after the change.
+ */
+public interface BalanceUpdateEngine {
+    long credit(Long walletId, long amount);
+    long debit(Long walletId, long amount);
+}
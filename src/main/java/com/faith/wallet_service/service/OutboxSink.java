@@ -0,0 +1,19 @@
+package com.faith.wallet_service.service;
+
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+
+import java.util.List;
+
+/**
+ * Where {@code OutboxRelay} delivers balance changes. Events of a wallet arrive in the order they
+ * committed, but an event may be delivered again after a failure, so consumers deduplicate by event id,
+ * which is unique across shards.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers the events, in list order. Returning means they are durably handed over and are removed
+     * from the outbox; throwing leaves all of them for the next attempt.
+     */
+    void publish(List<BalanceChangeEvent> events);
+}
@@ -0,0 +1,10 @@
+package com.faith.wallet_service.service;
+
+import com.faith.wallet_service.enums.StatementFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface StatementService {
+    void writeStatement(Long walletId, StatementFormat format, boolean gzip, OutputStream out) throws IOException;
+}
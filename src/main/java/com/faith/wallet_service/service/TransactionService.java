@@ -1,11 +1,15 @@
 package com.faith.wallet_service.service;
 
+import com.faith.wallet_service.dto.TransactionBatchItemResult;
 import com.faith.wallet_service.dto.TransactionRequest;
 import com.faith.wallet_service.dto.TransactionResponse;
 import com.faith.wallet_service.dto.TransferRequest;
 import com.faith.wallet_service.dto.TransferResponse;
 
+import java.util.List;
+
 public interface TransactionService {
     TransactionResponse applyTransaction(TransactionRequest request);
     TransferResponse transfer(TransferRequest request);
+    List<TransactionBatchItemResult> applyTransactions(List<TransactionRequest> requests);
 }
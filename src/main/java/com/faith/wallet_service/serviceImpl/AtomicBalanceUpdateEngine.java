@@ -0,0 +1,44 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.exception.WalletNotFoundException;
+import com.faith.wallet_service.repository.WalletRepository;
+import com.faith.wallet_service.service.BalanceUpdateEngine;
+
+/**
+ * Updates the balance with a single conditional UPDATE instead of read-modify-write,
+ * so concurrent requests on the same wallet can never overwrite each other.
+ */
+public class AtomicBalanceUpdateEngine implements BalanceUpdateEngine {
+
+    private final WalletRepository walletRepository;
+
+    public AtomicBalanceUpdateEngine(WalletRepository walletRepository) {
+        this.walletRepository = walletRepository;
+    }
+
+    @Override
+    public long credit(Long walletId, long amount) {
+        if (walletRepository.credit(walletId, amount) == 0) {
+            throw new WalletNotFoundException("Wallet not found");
+        }
+        return currentBalance(walletId);
+    }
+
+    @Override
+    public long debit(Long walletId, long amount) {
+        if (walletRepository.debit(walletId, amount) == 0) {
+            // No row matched: either the wallet does not exist or it cannot cover the amount
+            if (!walletRepository.existsById(walletId)) {
+                throw new WalletNotFoundException("Wallet not found");
+            }
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+        return currentBalance(walletId);
+    }
+
+    private long currentBalance(Long walletId) {
+        return walletRepository.findBalanceById(walletId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
+    }
+}
@@ -0,0 +1,219 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.dto.BalanceDrift;
+import com.faith.wallet_service.dto.ReconciliationReport;
+import com.faith.wallet_service.repository.ReconciliationRepository;
+import com.faith.wallet_service.repository.ReconciliationRepository.LedgerBalance;
+import com.faith.wallet_service.repository.ReconciliationRepository.Snapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks every wallet's balance against its ledger: opening balance, plus credits, minus debits, minus
+ * transfers out, plus transfers in. Each shard's id range is split into {@code chunk-size} id ranges that
+ * a fork-join pool of {@code parallelism} threads scans concurrently, one aggregate query per chunk.
+ *
+ * <p>Each run leaves a snapshot per wallet with the net of its entries created before the run's horizon,
+ * {@code settle-window} ago, so the next run only reads entries from there on. Entries are stamped before
+ * they commit, so a transaction still open after {@code settle-window} would be missed by the snapshot and
+ * reported as drift forever; the window must exceed the longest write transaction. Snapshots also keep
+ * entries that {@link LedgerArchiver} has since dropped accounted for.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.reconciliation.enabled", havingValue = "true")
+public class BalanceReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceReconciler.class);
+
+    private final ReconciliationRepository reconciliationRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool pool;
+    private final long chunkSize;
+    private final Duration settleWindow;
+    private final int reportLimit;
+    private final Timer duration;
+    private final LongAdder scanned = new LongAdder();
+    private final AtomicLong drifted = new AtomicLong();
+    private final AtomicLong unverified = new AtomicLong();
+
+    public BalanceReconciler(ReconciliationRepository reconciliationRepository,
+                             ShardRouter shardRouter,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${wallet.reconciliation.parallelism:4}") int parallelism,
+                             @Value("${wallet.reconciliation.chunk-size:10000}") long chunkSize,
+                             @Value("${wallet.reconciliation.settle-window:10m}") Duration settleWindow,
+                             @Value("${wallet.reconciliation.report-limit:100}") int reportLimit) {
+        this.reconciliationRepository = reconciliationRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+        this.settleWindow = settleWindow;
+        this.reportLimit = reportLimit;
+        this.duration = Timer.builder("wallet.reconciliation.duration")
+                .description("Time to reconcile every wallet against the ledger")
+                .register(meterRegistry);
+        FunctionCounter.builder("wallet.reconciliation.entries.scanned", scanned, LongAdder::sum)
+                .description("Ledger entries read by reconciliation")
+                .register(meterRegistry);
+        Gauge.builder("wallet.reconciliation.drifted", drifted, AtomicLong::get)
+                .description("Wallets whose balance disagreed with the ledger in the last run")
+                .register(meterRegistry);
+        Gauge.builder("wallet.reconciliation.unverified", unverified, AtomicLong::get)
+                .description("Wallets without an opening balance in the last run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.reconciliation.interval-ms:3600000}",
+               initialDelayString = "${wallet.reconciliation.interval-ms:3600000}")
+    public void run() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Balance reconciliation failed", e);
+        }
+    }
+
+    public ReconciliationReport reconcile() {
+        long started = System.nanoTime();
+        LocalDateTime horizon = LocalDateTime.now().minus(settleWindow);
+        List<ForkJoinTask<Tally>> shards = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            long[] range = shardRouter.onShard(shard, reconciliationRepository::findIdRange);
+            if (range != null) {
+                shards.add(pool.submit(new Chunk(shard, range[0], range[1] + 1, horizon)));
+            }
+        }
+        Tally total = new Tally();
+        for (ForkJoinTask<Tally> shard : shards) {
+            total.add(shard.join(), reportLimit);
+        }
+        total.drifts.sort(Comparator.comparing(BalanceDrift::getWalletId));
+
+        long elapsed = System.nanoTime() - started;
+        duration.record(elapsed, TimeUnit.NANOSECONDS);
+        drifted.set(total.drifted);
+        unverified.set(total.unverified);
+        if (total.drifted > 0) {
+            log.error("{} of {} wallets disagree with their ledger; first: {}", total.drifted, total.checked, total.drifts);
+        } else {
+            log.info("Reconciled {} wallets against {} ledger entries in {} ms ({} unverified)",
+                    total.checked, total.entries, TimeUnit.NANOSECONDS.toMillis(elapsed), total.unverified);
+        }
+        return new ReconciliationReport(total.checked, total.drifted, total.unverified, total.entries,
+                total.drifts, horizon, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /** Reconciles one chunk of a shard's wallets and advances their snapshots. */
+    private Tally reconcileChunk(long from, long to, LocalDateTime horizon) {
+        Tally tally = new Tally();
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (LedgerBalance wallet : reconciliationRepository.scan(from, to, horizon)) {
+            tally.checked++;
+            tally.entries += wallet.entries();
+            if (wallet.openingBalance() == null) {
+                tally.unverified++;
+            } else {
+                long ledgerBalance = wallet.openingBalance() + wallet.snapshotNet() + wallet.delta();
+                if (ledgerBalance != wallet.balance()) {
+                    tally.drifted++;
+                    if (tally.drifts.size() < reportLimit) {
+                        tally.drifts.add(new BalanceDrift(wallet.walletId(), wallet.balance(), ledgerBalance));
+                    }
+                }
+            }
+            // With no entry between the old snapshot and the horizon the old one still holds
+            if (wallet.coveredUntil() == null || wallet.settledEntries() > 0) {
+                LocalDateTime coveredUntil = wallet.coveredUntil() != null && wallet.coveredUntil().isAfter(horizon)
+                        ? wallet.coveredUntil() : horizon;
+                snapshots.add(new Snapshot(wallet.walletId(), wallet.snapshotNet() + wallet.settled(), coveredUntil));
+            }
+        }
+        if (!snapshots.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> reconciliationRepository.saveSnapshots(snapshots, now));
+        }
+        scanned.add(tally.entries);
+        return tally;
+    }
+
+    @PreDestroy
+    void close() {
+        pool.shutdownNow();
+    }
+
+    /** Splits [from, to) in halves down to {@code chunk-size} ids, each reconciled on the shard's database. */
+    private class Chunk extends RecursiveTask<Tally> {
+
+        private final int shard;
+        private final long from;
+        private final long to;
+        private final LocalDateTime horizon;
+
+        Chunk(int shard, long from, long to, LocalDateTime horizon) {
+            this.shard = shard;
+            this.from = from;
+            this.to = to;
+            this.horizon = horizon;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= chunkSize) {
+                return shardRouter.onShard(shard, () -> reconcileChunk(from, to, horizon));
+            }
+            long mid = from + (to - from) / 2;
+            Chunk upper = new Chunk(shard, mid, to, horizon);
+            upper.fork();
+            Tally tally = new Chunk(shard, from, mid, horizon).compute();
+            tally.add(upper.join(), reportLimit);
+            return tally;
+        }
+    }
+
+    private static class Tally {
+        long checked;
+        long drifted;
+        long unverified;
+        long entries;
+        final List<BalanceDrift> drifts = new ArrayList<>();
+
+        void add(Tally other, int reportLimit) {
+            checked += other.checked;
+            drifted += other.drifted;
+            unverified += other.unverified;
+            entries += other.entries;
+            for (BalanceDrift drift : other.drifts) {
+                if (drifts.size() < reportLimit) {
+                    drifts.add(drift);
+                }
+            }
+        }
+    }
+}
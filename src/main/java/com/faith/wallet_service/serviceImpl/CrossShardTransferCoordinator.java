@@ -0,0 +1,280 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.cache.IdempotencyCache;
+import com.faith.wallet_service.cache.WalletCache;
+import com.faith.wallet_service.commons.ReadConsistency;
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+import com.faith.wallet_service.dto.TransferRequest;
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.entity.TransferTransaction;
+import com.faith.wallet_service.enums.BalanceEventType;
+import com.faith.wallet_service.enums.TransferSagaState;
+import com.faith.wallet_service.exception.ServiceOverloadedException;
+import com.faith.wallet_service.exception.WalletNotFoundException;
+import com.faith.wallet_service.repository.IdempotencyRecordRepository;
+import com.faith.wallet_service.repository.TransferSagaRepository;
+import com.faith.wallet_service.repository.TransferSagaRepository.Saga;
+import com.faith.wallet_service.repository.TransferTransactionRepository;
+import com.faith.wallet_service.repository.WalletRepository;
+import com.faith.wallet_service.service.BalanceUpdateEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transfers between wallets on different shards, which no single database transaction can cover. Each
+ * transfer is a saga recorded on the sender's shard, in three local transactions:
+ * <ol>
+ *     <li>sender shard: debit the sender, write its ledger entry and a PENDING saga row;</li>
+ *     <li>receiver shard: lock the receiver, then credit it and write its copy of the ledger entry under
+ *     the same id unless that copy exists, which makes the step safe to repeat;</li>
+ *     <li>sender shard: mark the saga COMPLETED and store the idempotency record.</li>
+ * </ol>
+ * If the receiver turns out not to exist, the sender is refunded, its entry removed and the saga marked
+ * FAILED. A crash or database error between steps leaves the saga PENDING; a retry with the same key, or
+ * {@link #recoverPending()}, resumes it at step 2, so money is neither lost nor credited twice.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.sharding.enabled", havingValue = "true")
+public class CrossShardTransferCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(CrossShardTransferCoordinator.class);
+
+    private static final int RECOVERY_BATCH = 100;
+
+    private final ShardRouter shardRouter;
+    private final WalletRepository walletRepository;
+    private final BalanceUpdateEngine balanceUpdateEngine;
+    private final HotWalletSlots hotWalletSlots;
+    private final TransferTransactionRepository transferTransactionRepository;
+    private final TransferSagaRepository transferSagaRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyCache idempotencyCache;
+    private final WalletCache walletCache;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration staleAfter;
+    private final Duration retention;
+
+    public CrossShardTransferCoordinator(ShardRouter shardRouter,
+                                         WalletRepository walletRepository,
+                                         BalanceUpdateEngine balanceUpdateEngine,
+                                         HotWalletSlots hotWalletSlots,
+                                         TransferTransactionRepository transferTransactionRepository,
+                                         TransferSagaRepository transferSagaRepository,
+                                         IdempotencyRecordRepository idempotencyRecordRepository,
+                                         IdempotencyCache idempotencyCache,
+                                         WalletCache walletCache,
+                                         OutboxWriter outboxWriter,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${wallet.sharding.saga.stale-after:30s}") Duration staleAfter,
+                                         @Value("${wallet.idempotency.retention.transfer:30d}") Duration retention) {
+        this.shardRouter = shardRouter;
+        this.walletRepository = walletRepository;
+        this.balanceUpdateEngine = balanceUpdateEngine;
+        this.hotWalletSlots = hotWalletSlots;
+        this.transferTransactionRepository = transferTransactionRepository;
+        this.transferSagaRepository = transferSagaRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.walletCache = walletCache;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.staleAfter = staleAfter;
+        this.retention = retention;
+    }
+
+    /**
+     * Moves the amount from the sender's shard to the receiver's. Throws DataIntegrityViolationException
+     * when the key already has a stored response, so the caller replays it.
+     */
+    public TransferResponse transfer(TransferRequest request) {
+        int fromShard = shardRouter.shardOf(request.getFromWalletId());
+        int toShard = shardRouter.shardOf(request.getToWalletId());
+
+        // A retry of a saga that never finished picks it up where it stopped
+        Saga existing = shardRouter.onShard(fromShard,
+                () -> transferSagaRepository.findByIdempotencyKey(request.getIdempotencyKey())).orElse(null);
+        if (existing != null) {
+            return resume(existing);
+        }
+
+        // Checked up front so the common failure never debits the sender; step 2 still handles a late one
+        if (!shardRouter.isKnownShard(toShard)
+                || !shardRouter.onShard(toShard,
+                        () -> ReadConsistency.onPrimary(() -> walletRepository.existsById(request.getToWalletId())))) {
+            throw new WalletNotFoundException("Receiver wallet not found");
+        }
+
+        Saga saga;
+        try {
+            saga = shardRouter.onShard(fromShard, () -> transactionTemplate.execute(status -> begin(request)));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with this key started the saga first
+            saga = shardRouter.onShard(fromShard,
+                    () -> transferSagaRepository.findByIdempotencyKey(request.getIdempotencyKey())).orElseThrow(() -> e);
+        }
+        return resume(saga);
+    }
+
+    /** Step 1, in a sender-shard transaction. */
+    private Saga begin(TransferRequest request) {
+        Long fromId = request.getFromWalletId();
+        long amount = request.getAmount();
+        if (idempotencyRecordRepository.findTransfer(request.getIdempotencyKey()).isPresent()) {
+            throw new DataIntegrityViolationException("Transfer already applied");
+        }
+        long fromBalance;
+        try {
+            fromBalance = balanceUpdateEngine.debit(fromId, amount);
+        } catch (WalletNotFoundException e) {
+            throw new WalletNotFoundException("Sender wallet not found");
+        }
+
+        TransferTransaction transferTx = new TransferTransaction();
+        transferTx.setFromWalletId(fromId);
+        transferTx.setToWalletId(request.getToWalletId());
+        transferTx.setAmount(amount);
+        transferTx.setIdempotencyKey(request.getIdempotencyKey());
+        transferTx = transferTransactionRepository.save(transferTx);
+
+        Saga saga = new Saga(transferTx.getId(), request.getIdempotencyKey(), fromId, request.getToWalletId(),
+                amount, fromBalance, null, TransferSagaState.PENDING, transferTx.getCreatedAt());
+        transferSagaRepository.insert(saga);
+        outboxWriter.append(new BalanceChangeEvent(fromId, BalanceEventType.TRANSFER_OUT, saga.id(), amount, fromBalance,
+                saga.toWalletId(), saga.createdAt()));
+        walletCache.invalidateAfterCommit(fromId);
+        return saga;
+    }
+
+    private TransferResponse resume(Saga saga) {
+        if (saga.state() == TransferSagaState.COMPLETED) {
+            return saga.response();
+        }
+        if (saga.state() == TransferSagaState.FAILED) {
+            throw new WalletNotFoundException("Receiver wallet not found");
+        }
+        try {
+            long toBalance;
+            try {
+                toBalance = shardRouter.onShard(shardRouter.shardOf(saga.toWalletId()),
+                        () -> transactionTemplate.execute(status -> credit(saga)));
+            } catch (WalletNotFoundException e) {
+                return compensate(saga);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent resume credited the receiver first
+                toBalance = shardRouter.onShard(shardRouter.shardOf(saga.toWalletId()),
+                        () -> ReadConsistency.onPrimary(() -> hotWalletSlots.findBalance(saga.toWalletId()))).orElseThrow();
+            }
+            return complete(saga, toBalance);
+        } catch (WalletNotFoundException | DataIntegrityViolationException | ServiceOverloadedException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // The saga stays PENDING and is finished by a retry or the recovery job
+            log.warn("Cross-shard transfer {} interrupted", saga.id(), e);
+            throw new ServiceOverloadedException("Transfer is in progress, retry with the same idempotency key", 1);
+        }
+    }
+
+    /** Step 2, in a receiver-shard transaction; returns the receiver's balance. */
+    private long credit(Saga saga) {
+        // Concurrent resumes queue on the receiver's row, so the later one sees the entry the first wrote;
+        // the entry's key cannot tell them apart on a partitioned ledger, where it includes created_at
+        if (walletRepository.lockAllByIdOrdered(List.of(saga.toWalletId())).isEmpty()) {
+            throw new WalletNotFoundException("Receiver wallet not found");
+        }
+        boolean repeated = transferSagaRepository.hasReceiverEntry(saga.id());
+        LocalDateTime receivedAt = LocalDateTime.now();
+        if (!repeated) {
+            transferSagaRepository.insertReceiverEntry(saga, receivedAt);
+            walletCache.invalidateAfterCommit(saga.toWalletId());
+        }
+        long toBalance;
+        try {
+            toBalance = repeated
+                    ? hotWalletSlots.findBalance(saga.toWalletId()).orElseThrow(() -> new WalletNotFoundException("Wallet not found"))
+                    : balanceUpdateEngine.credit(saga.toWalletId(), saga.amount());
+        } catch (WalletNotFoundException e) {
+            throw new WalletNotFoundException("Receiver wallet not found");
+        }
+        if (!repeated) {
+            outboxWriter.append(new BalanceChangeEvent(saga.toWalletId(), BalanceEventType.TRANSFER_IN, saga.id(),
+                    saga.amount(), toBalance, saga.fromWalletId(), receivedAt));
+        }
+        return toBalance;
+    }
+
+    /** Step 3, in a sender-shard transaction. */
+    private TransferResponse complete(Saga saga, long toBalance) {
+        TransferResponse response = new TransferResponse(saga.id(), saga.fromWalletId(), saga.fromBalance(),
+                saga.toWalletId(), toBalance, saga.createdAt());
+        int fromShard = shardRouter.shardOf(saga.fromWalletId());
+        boolean completed = shardRouter.onShard(fromShard, () -> transactionTemplate.execute(status -> {
+            if (!transferSagaRepository.markCompleted(saga.id(), toBalance)) {
+                return false;
+            }
+            idempotencyRecordRepository.insertTransfer(saga.idempotencyKey(), response);
+            return true;
+        }));
+        if (!completed) {
+            // Another worker finished the saga; answer with its outcome
+            return resume(shardRouter.onShard(fromShard, () -> transferSagaRepository.findById(saga.id())).orElseThrow());
+        }
+        idempotencyCache.putTransfer(saga.idempotencyKey(), response);
+        return response;
+    }
+
+    /** Refunds the sender of a transfer whose receiver does not exist, in a sender-shard transaction. */
+    private TransferResponse compensate(Saga saga) {
+        int fromShard = shardRouter.shardOf(saga.fromWalletId());
+        boolean failed = shardRouter.onShard(fromShard, () -> transactionTemplate.execute(status -> {
+            if (!transferSagaRepository.markFailed(saga.id())) {
+                return false;
+            }
+            long fromBalance = balanceUpdateEngine.credit(saga.fromWalletId(), saga.amount());
+            transferTransactionRepository.deleteById(saga.id());
+            outboxWriter.append(new BalanceChangeEvent(saga.fromWalletId(), BalanceEventType.TRANSFER_REFUND, saga.id(),
+                    saga.amount(), fromBalance,
+                    saga.toWalletId(), LocalDateTime.now()));
+            walletCache.invalidateAfterCommit(saga.fromWalletId());
+            return true;
+        }));
+        if (!failed) {
+            return resume(shardRouter.onShard(fromShard, () -> transferSagaRepository.findById(saga.id())).orElseThrow());
+        }
+        throw new WalletNotFoundException("Receiver wallet not found");
+    }
+
+    /**
+     * Finishes sagas left PENDING for longer than {@code stale-after}, e.g. by a crash between steps, and
+     * drops finished ones once their transfer's idempotency window has passed.
+     */
+    @Scheduled(fixedDelayString = "${wallet.sharding.saga.recovery-interval-ms:10000}")
+    public void recoverPending() {
+        shardRouter.forEachShard(shard -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (Saga saga : transferSagaRepository.findPending(now.minus(staleAfter), RECOVERY_BATCH)) {
+                try {
+                    resume(saga);
+                    log.info("Recovered cross-shard transfer {}", saga.id());
+                } catch (WalletNotFoundException e) {
+                    log.info("Refunded cross-shard transfer {} to a missing receiver", saga.id());
+                } catch (RuntimeException e) {
+                    log.warn("Could not recover cross-shard transfer {}", saga.id(), e);
+                }
+            }
+            transferSagaRepository.deleteFinishedBefore(now.minus(retention));
+        });
+    }
+}
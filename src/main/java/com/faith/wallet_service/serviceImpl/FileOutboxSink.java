@@ -0,0 +1,74 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+import com.faith.wallet_service.service.OutboxSink;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to an NDJSON file, one object per line, and forces each batch to disk before the relay
+ * removes it from the outbox. A crash in between repeats the batch in the file.
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private FileChannel channel;
+
+    public FileOutboxSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public synchronized void publish(List<BalanceChangeEvent> events) {
+        StringBuilder lines = new StringBuilder(events.size() * 192);
+        for (BalanceChangeEvent event : events) {
+            // Every field is a number, enum name or ISO timestamp, so no JSON escaping is needed
+            lines.append("{\"id\":").append(event.getId())
+                    .append(",\"walletId\":").append(event.getWalletId())
+                    .append(",\"type\":\"").append(event.getType().name())
+                    .append("\",\"entryId\":").append(event.getEntryId())
+                    .append(",\"amount\":").append(event.getAmount())
+                    .append(",\"balance\":").append(event.getBalance())
+                    .append(",\"counterpartyWalletId\":").append(event.getCounterpartyWalletId())
+                    .append(",\"createdAt\":\"").append(event.getCreatedAt())
+                    .append("\"}\n");
+        }
+        try {
+            FileChannel out = channel();
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append outbox events to " + path, e);
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.commons.ResultWrapper;
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.dto.TransactionBatchItemResult;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.exception.ServiceOverloadedException;
+import com.faith.wallet_service.exception.WalletNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit for single credits and debits. Requests are queued per wallet shard; one writer thread
+ * per shard drains up to {@code max-batch} of them, waiting at most {@code max-delay-ms} for more, and
+ * applies them with {@link TransactionBatchProcessor} in one transaction. Callers block until that
+ * transaction has committed, so every response is as durable as before while one commit, and its
+ * fsync, is shared by the whole batch.
+ *
+ * <p>A wallet always maps to the same shard, so writers never contend for each other's row locks.
+ * A full queue is rejected with 503 rather than buffered without bound, and so is a caller whose commit
+ * has not completed within {@code max-wait}; a writer survives any failure of a batch.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.group-commit.enabled", havingValue = "true")
+public class GroupCommitLedgerWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitLedgerWriter.class);
+
+    private final TransactionBatchProcessor transactionBatchProcessor;
+    private final ShardRouter shardRouter;
+    private final List<Shard> shards = new ArrayList<>();
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final Duration maxWait;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running = true;
+
+    public GroupCommitLedgerWriter(TransactionBatchProcessor transactionBatchProcessor,
+                                   ShardRouter shardRouter,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${wallet.group-commit.shards:4}") int shardCount,
+                                   @Value("${wallet.group-commit.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${wallet.group-commit.max-batch:500}") int maxBatch,
+                                   @Value("${wallet.group-commit.max-delay-ms:2}") long maxDelayMillis,
+                                   @Value("${wallet.group-commit.max-wait:5s}") Duration maxWait) {
+        this.transactionBatchProcessor = transactionBatchProcessor;
+        this.shardRouter = shardRouter;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.maxWait = maxWait;
+        this.batchSizes = DistributionSummary.builder("wallet.group_commit.batch.size")
+                .description("Transactions committed together by one group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        for (int i = 0; i < shardCount; i++) {
+            Shard shard = new Shard(new ArrayBlockingQueue<>(queueCapacity));
+            Gauge.builder("wallet.group_commit.queue.depth", shard.queue, BlockingQueue::size)
+                    .description("Transactions waiting for their shard's next group commit")
+                    .tag("shard", Integer.toString(i))
+                    .register(meterRegistry);
+            shard.writer = new Thread(() -> drain(shard), "ledger-writer-" + i);
+            shard.writer.setDaemon(true);
+            shard.writer.start();
+            shards.add(shard);
+        }
+    }
+
+    /**
+     * Applies the request in the next group commit of its wallet's shard and returns once that commit
+     * is durable. Throws DataIntegrityViolationException when one of the batch's keys was committed
+     * concurrently; nothing from the batch is applied in that case. Throws ServiceOverloadedException
+     * when the commit takes longer than {@code max-wait}; a retry with the same key then replays it if it
+     * did commit after all.
+     */
+    public TransactionResponse submit(TransactionRequest request) {
+        Pending pending = new Pending(request);
+        Shard shard = shards.get(Math.floorMod(request.getWalletId(), shards.size()));
+        if (!running || !shard.queue.offer(pending)) {
+            throw new ServiceOverloadedException("Service is at capacity, retry shortly", 1);
+        }
+        TransactionBatchItemResult result;
+        try {
+            result = pending.result.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Withdrawn if still queued; if its writer already has it, the idempotency record settles the retry
+            shard.queue.remove(pending);
+            throw new ServiceOverloadedException("Group commit is delayed, retry with the same idempotency key", 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        }
+        if (result.getStatus() == ResultWrapper.ResultStatus.SUCCESS) {
+            return result.getData();
+        }
+        throw TransactionBatchProcessor.WALLET_NOT_FOUND.equals(result.getMessage())
+                ? new WalletNotFoundException(result.getMessage())
+                : new InsufficientBalanceException(result.getMessage());
+    }
+
+    private void drain(Shard shard) {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !shard.queue.isEmpty()) {
+            try {
+                Pending first = shard.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    if (shard.queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? shard.queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Stop taking requests; what was collected and what is still queued are committed first
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    commit(batch);
+                } catch (Throwable e) {
+                    // Whatever escaped, callers still waiting are answered and the writer keeps serving its queue
+                    log.error("Group commit of {} transactions failed", batch.size(), e);
+                    batch.forEach(pending -> pending.result.completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        if (!shardRouter.isSharded()) {
+            commitOnShard(batch);
+            return;
+        }
+        // Queues are keyed by wallet, not by database shard, so a batch may need one commit per database
+        Map<Integer, List<Pending>> byDatabase = batch.stream()
+                .collect(Collectors.groupingBy(pending -> shardRouter.shardOf(pending.request.getWalletId())));
+        byDatabase.forEach((database, part) -> shardRouter.onShard(database, () -> {
+            commitOnShard(part);
+            return null;
+        }));
+    }
+
+    private void commitOnShard(List<Pending> batch) {
+        try {
+            List<TransactionBatchItemResult> results = transactionBatchProcessor.process(
+                    batch.stream().map(pending -> pending.request).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            // Nothing was committed; each caller decides how to recover
+            log.debug("Group commit of {} transactions failed", batch.size(), e);
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        for (Shard shard : shards) {
+            shard.writer.join(TimeUnit.SECONDS.toMillis(10));
+            // Anything that slipped in after its writer stopped is answered rather than left waiting
+            Pending pending;
+            while ((pending = shard.queue.poll()) != null) {
+                pending.result.completeExceptionally(new ServiceOverloadedException("Service is shutting down", 1));
+            }
+        }
+    }
+
+    private static final class Shard {
+        final BlockingQueue<Pending> queue;
+        Thread writer;
+
+        Shard(BlockingQueue<Pending> queue) {
+            this.queue = queue;
+        }
+    }
+
+    private static final class Pending {
+        final TransactionRequest request;
+        final CompletableFuture<TransactionBatchItemResult> result = new CompletableFuture<>();
+
+        Pending(TransactionRequest request) {
+            this.request = request;
+        }
+    }
+}
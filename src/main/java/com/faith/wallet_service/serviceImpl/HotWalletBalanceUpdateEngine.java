@@ -0,0 +1,33 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.service.BalanceUpdateEngine;
+
+/**
+ * Sends credits and debits of hot wallets to their balance slots and everything else to the configured
+ * engine. It sits outside the striped engine, whose per-wallet stripe would queue a hot wallet's writers
+ * again.
+ */
+public class HotWalletBalanceUpdateEngine implements BalanceUpdateEngine {
+
+    private final BalanceUpdateEngine delegate;
+    private final HotWalletSlots hotWalletSlots;
+
+    public HotWalletBalanceUpdateEngine(BalanceUpdateEngine delegate, HotWalletSlots hotWalletSlots) {
+        this.delegate = delegate;
+        this.hotWalletSlots = hotWalletSlots;
+    }
+
+    @Override
+    public long credit(Long walletId, long amount) {
+        return hotWalletSlots.isHot(walletId)
+                ? hotWalletSlots.credit(walletId, amount)
+                : delegate.credit(walletId, amount);
+    }
+
+    @Override
+    public long debit(Long walletId, long amount) {
+        return hotWalletSlots.isHot(walletId)
+                ? hotWalletSlots.debit(walletId, amount)
+                : delegate.debit(walletId, amount);
+    }
+}
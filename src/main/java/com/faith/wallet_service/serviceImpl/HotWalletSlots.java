@@ -0,0 +1,201 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.exception.WalletNotFoundException;
+import com.faith.wallet_service.repository.BalanceSlotRepository;
+import com.faith.wallet_service.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits the balance of the wallets listed in {@code wallet.hot-wallets.ids} over {@code slots} extra
+ * rows, so credits to one wallet stop queueing on a single row lock. The balance is the wallet row plus
+ * its slots:
+ * <ul>
+ *     <li>a credit adds to a random slot;</li>
+ *     <li>a debit takes from the wallet row, else from a slot that can cover it, else sweeps: it locks the
+ *     row and every slot, moves the slots into the row and debits the row;</li>
+ *     <li>code that already locks the wallet row (batches, transfers) drains the slots into it first, so
+ *     it sees the whole balance.</li>
+ * </ul>
+ * Locks are always taken row before slots and slots in slot order, which keeps the paths deadlock free.
+ * Balances returned for a hot wallet are read after the write without locking every slot, so they are
+ * approximate under concurrency: they can include other transactions' changes, never miss this one's.
+ * The list must be the same on every node; a wallet removed from it has its slots folded back into its
+ * row at startup.
+ */
+@Component
+public class HotWalletSlots {
+
+    private static final Logger log = LoggerFactory.getLogger(HotWalletSlots.class);
+
+    private final BalanceSlotRepository slotRepository;
+    private final WalletRepository walletRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Set<Long> hotWallets;
+    private final int slots;
+    private final Counter sweeps;
+
+    public HotWalletSlots(BalanceSlotRepository slotRepository,
+                          WalletRepository walletRepository,
+                          ShardRouter shardRouter,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${wallet.hot-wallets.ids:}") Set<Long> hotWallets,
+                          @Value("${wallet.hot-wallets.slots:8}") int slots) {
+        if (slots < 1) {
+            throw new IllegalStateException("wallet.hot-wallets.slots must be at least 1");
+        }
+        this.slotRepository = slotRepository;
+        this.walletRepository = walletRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hotWallets = Set.copyOf(hotWallets);
+        this.slots = slots;
+        this.sweeps = Counter.builder("wallet.hot_wallet.sweeps")
+                .description("Hot-wallet debits that had to gather the slots into the wallet row")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return !hotWallets.isEmpty();
+    }
+
+    public boolean isHot(Long walletId) {
+        return !hotWallets.isEmpty() && hotWallets.contains(walletId);
+    }
+
+    /**
+     * Credits a random slot, inside the caller's transaction; returns the total read right after it, which
+     * may include changes that concurrent transactions committed to other slots meanwhile.
+     */
+    public long credit(Long walletId, long amount) {
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        if (!slotRepository.credit(walletId, slot, amount)) {
+            // Slots are created at startup; a wallet created since gets them here
+            createSlots(walletId);
+            if (!slotRepository.credit(walletId, slot, amount)) {
+                throw new WalletNotFoundException("Wallet not found");
+            }
+        }
+        return totalBalance(walletId);
+    }
+
+    /** Debits the wallet row or a slot, sweeping the slots together when neither can cover the amount. */
+    public long debit(Long walletId, long amount) {
+        if (walletRepository.debit(walletId, amount) == 1
+                || slotRepository.debit(walletId, ThreadLocalRandom.current().nextInt(slots), amount)
+                || slotRepository.debitAnySlot(walletId, amount)) {
+            return totalBalance(walletId);
+        }
+        if (walletRepository.lockAllByIdOrdered(List.of(walletId)).isEmpty()) {
+            throw new WalletNotFoundException("Wallet not found");
+        }
+        sweeps.increment();
+        long drained = slotRepository.drain(walletId);
+        if (drained != 0) {
+            walletRepository.credit(walletId, drained);
+        }
+        if (walletRepository.debit(walletId, amount) == 0) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+        return totalBalance(walletId);
+    }
+
+    /**
+     * Empties a hot wallet's slots and returns what they held, 0 for other wallets. The caller holds the
+     * wallet row's lock and must add the amount to the row in the same transaction.
+     */
+    public long drainSlots(Long walletId) {
+        return isHot(walletId) ? slotRepository.drain(walletId) : 0;
+    }
+
+    public Optional<Long> findBalance(Long walletId) {
+        return isHot(walletId) ? slotRepository.findTotalBalance(walletId) : walletRepository.findBalanceById(walletId);
+    }
+
+    /**
+     * The wallet as clients see it: for a hot wallet, a copy whose balance includes the slots. Run it in
+     * the transaction that read the wallet, so a replica read takes the slots from the same replica.
+     */
+    public Wallet withTotalBalance(Wallet wallet) {
+        if (wallet == null || !isHot(wallet.getId())) {
+            return wallet;
+        }
+        long balance = slotRepository.findTotalBalance(wallet.getId()).orElse(wallet.getBalance());
+        return new Wallet(wallet.getId(), balance, wallet.getDescription(), wallet.getCreatedAt(), wallet.getOpeningBalance());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepare() {
+        for (Long walletId : hotWallets) {
+            try {
+                shardRouter.onWallet(walletId, () -> {
+                    createSlots(walletId);
+                    return null;
+                });
+            } catch (WalletNotFoundException e) {
+                log.info("Hot wallet {} does not exist yet; its slots are created on its first credit", walletId);
+            }
+        }
+        shardRouter.forEachShard(shard -> {
+            for (Long walletId : slotRepository.findWalletsWithSlots()) {
+                if (!hotWallets.contains(walletId)) {
+                    transactionTemplate.executeWithoutResult(status -> fold(walletId));
+                    log.info("Folded the slots of wallet {} back into its balance", walletId);
+                }
+            }
+        });
+    }
+
+    private long totalBalance(Long walletId) {
+        return slotRepository.findTotalBalance(walletId).orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
+    }
+
+    /** Adds the wallet's missing slots in a transaction of their own, so a lost race does not fail the caller's. */
+    private void createSlots(Long walletId) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (!walletRepository.existsById(walletId)) {
+                    throw new WalletNotFoundException("Wallet not found");
+                }
+                int existing = slotRepository.countSlots(walletId);
+                if (existing < slots) {
+                    slotRepository.createSlots(walletId, existing, slots);
+                }
+            });
+        } catch (DuplicateKeyException e) {
+            // Created concurrently
+        }
+    }
+
+    private void fold(Long walletId) {
+        walletRepository.lockAllByIdOrdered(List.of(walletId));
+        long drained = slotRepository.drain(walletId);
+        if (drained != 0) {
+            walletRepository.credit(walletId, drained);
+        }
+        slotRepository.deleteSlots(walletId);
+    }
+}
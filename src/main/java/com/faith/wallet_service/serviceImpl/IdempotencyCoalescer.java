@@ -0,0 +1,224 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.commons.IdempotencyRecordCodec;
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.enums.IdempotencyOperation;
+import com.faith.wallet_service.metrics.WalletMetrics;
+import com.faith.wallet_service.repository.IdempotencyClaimRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent requests that share an idempotency key into one execution. On this node the
+ * first caller runs the request; later callers wait on its future and share its response or exception.
+ *
+ * <p>With {@code wallet.idempotency.claim.enabled}, the first caller also claims the key in the database
+ * for a short lease, which a background thread renews every third of the lease while the request runs.
+ * A caller on another node that finds the key claimed polls for the stored record instead of executing,
+ * and takes the claim over only if the lease runs out, i.e. the owner died or stalled for a whole lease
+ * (a long GC pause stops renewal too). Every wait is bounded by
+ * {@code max-wait}; past it the caller executes anyway and the idempotency_records primary key keeps
+ * the outcome single.
+ */
+@Component
+public class IdempotencyCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyCoalescer.class);
+
+    static final String LOCAL = "local";
+    static final String REMOTE = "remote";
+
+    private final IdempotencyClaimRepository claimRepository;
+    private final WalletMetrics walletMetrics;
+    private final ShardRouter shardRouter;
+    private final boolean claimsEnabled;
+    private final Duration lease;
+    private final Duration pollInterval;
+    private final Duration maxWait;
+    private final String owner = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger held = new AtomicInteger();
+    private final ScheduledExecutorService renewer;
+
+    public IdempotencyCoalescer(IdempotencyClaimRepository claimRepository,
+                                WalletMetrics walletMetrics,
+                                ShardRouter shardRouter,
+                                @Value("${wallet.idempotency.claim.enabled:false}") boolean claimsEnabled,
+                                @Value("${wallet.idempotency.claim.lease:5s}") Duration lease,
+                                @Value("${wallet.idempotency.claim.poll-interval:20ms}") Duration pollInterval,
+                                @Value("${wallet.idempotency.coalesce.max-wait:10s}") Duration maxWait) {
+        this.claimRepository = claimRepository;
+        this.walletMetrics = walletMetrics;
+        this.shardRouter = shardRouter;
+        this.claimsEnabled = claimsEnabled;
+        this.lease = lease;
+        this.pollInterval = pollInterval;
+        this.maxWait = maxWait;
+        // Its own thread, not @Scheduled: a slow job on the shared scheduler must not let leases run out
+        this.renewer = claimsEnabled ? Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "idempotency-claim-renewer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        if (renewer != null) {
+            long interval = Math.max(1, lease.toMillis() / 3);
+            renewer.scheduleWithFixedDelay(this::renewClaims, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs {@code work} unless a concurrent request with the same key is already running it, in which
+     * case that request's outcome is returned (or thrown) with {@code shared} set.
+     */
+    public <T> Coalesced<T> execute(IdempotencyOperation operation, String key,
+                                    Supplier<Optional<T>> findStored, Supplier<T> work) {
+        String inFlightKey = operation.getCode() + ":" + key;
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(inFlightKey, mine);
+        if (running != null) {
+            Optional<T> shared = await(running);
+            if (shared.isPresent()) {
+                walletMetrics.recordCoalesced(metricName(operation), LOCAL);
+                return new Coalesced<>(shared.get(), true);
+            }
+            return new Coalesced<>(work.get(), false);
+        }
+        try {
+            Coalesced<T> result = claimsEnabled
+                    ? executeClaimed(operation, key, findStored, work)
+                    : new Coalesced<>(work.get(), false);
+            mine.complete(result.response());
+            return result;
+        } catch (Throwable e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(inFlightKey, mine);
+        }
+    }
+
+    private <T> Coalesced<T> executeClaimed(IdempotencyOperation operation, String key,
+                                            Supplier<Optional<T>> findStored, Supplier<T> work) {
+        byte[] keyHash = IdempotencyRecordCodec.keyHash(operation, key);
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        boolean contended = false;
+        while (!claim(keyHash)) {
+            contended = true;
+            // Another node is executing this key; its record answers this request once it commits
+            Optional<T> stored = findStored.get();
+            if (stored.isPresent()) {
+                walletMetrics.recordCoalesced(metricName(operation), REMOTE);
+                return new Coalesced<>(stored.get(), true);
+            }
+            if (System.nanoTime() - deadline > 0 || !pause()) {
+                log.warn("Executing {} without a claim after waiting {} for its owner", operation, maxWait);
+                return new Coalesced<>(work.get(), false);
+            }
+        }
+        held.incrementAndGet();
+        try {
+            // The previous owner may have committed just before releasing the claim
+            Optional<T> stored = contended ? findStored.get() : Optional.empty();
+            if (stored.isPresent()) {
+                walletMetrics.recordCoalesced(metricName(operation), REMOTE);
+                return new Coalesced<>(stored.get(), true);
+            }
+            return new Coalesced<>(work.get(), false);
+        } finally {
+            held.decrementAndGet();
+            claimRepository.release(keyHash, owner);
+        }
+    }
+
+    private boolean claim(byte[] keyHash) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(lease);
+        return claimRepository.tryClaim(keyHash, owner, expiresAt)
+                || claimRepository.takeOverExpired(keyHash, owner, now, expiresAt);
+    }
+
+    /** Extends this node's claims on every shard while any request holds one. */
+    void renewClaims() {
+        if (held.get() == 0) {
+            return;
+        }
+        try {
+            LocalDateTime expiresAt = LocalDateTime.now().plus(lease);
+            shardRouter.forEachShard(shard -> claimRepository.renew(owner, expiresAt));
+        } catch (RuntimeException e) {
+            // Thrown out of the task, it would cancel every later renewal
+            log.warn("Could not renew idempotency claims", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Optional<T> await(CompletableFuture<Object> running) {
+        try {
+            return Optional.of((T) running.get(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            // The first request's failure is this request's outcome too
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    private boolean pause() {
+        try {
+            TimeUnit.NANOSECONDS.sleep(pollInterval.toNanos());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Removes claims whose owners died before releasing them. */
+    @Scheduled(fixedDelayString = "${wallet.idempotency.claim.purge-interval-ms:60000}")
+    public void purgeExpiredClaims() {
+        if (claimsEnabled) {
+            shardRouter.forEachShard(shard -> claimRepository.deleteExpired(LocalDateTime.now()));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (renewer != null) {
+            renewer.shutdownNow();
+        }
+    }
+
+    private static String metricName(IdempotencyOperation operation) {
+        return operation == IdempotencyOperation.TRANSFER ? WalletMetrics.TRANSFER : WalletMetrics.TRANSACTION;
+    }
+
+    public record Coalesced<T>(T response, boolean shared) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.enums.IdempotencyOperation;
+import com.faith.wallet_service.metrics.WalletMetrics;
+import com.faith.wallet_service.repository.IdempotencyRetentionRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes idempotency records older than their operation's retention window. Each chunk is its own short
+ * transaction that skips locked rows, and chunks are paced to {@code max-rows-per-second}, so the sweep
+ * never holds locks for long or competes with foreground writes for I/O. A key retried after its record
+ * has expired is applied again, so the retention window is the replay guarantee offered to clients.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.idempotency.sweeper.enabled", havingValue = "true")
+public class IdempotencySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencySweeper.class);
+
+    private final IdempotencyRetentionRepository retentionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final List<Target> targets;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+
+    public IdempotencySweeper(IdempotencyRetentionRepository retentionRepository,
+                              PlatformTransactionManager transactionManager,
+                              ShardRouter shardRouter,
+                              MeterRegistry meterRegistry,
+                              @Value("${wallet.idempotency.retention.transaction:30d}") Duration transactionRetention,
+                              @Value("${wallet.idempotency.retention.transfer:30d}") Duration transferRetention,
+                              @Value("${wallet.idempotency.sweeper.chunk-size:500}") int chunkSize,
+                              @Value("${wallet.idempotency.sweeper.max-rows-per-second:5000}") int maxRowsPerSecond) {
+        this.retentionRepository = retentionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.targets = List.of(
+                new Target(WalletMetrics.TRANSACTION, IdempotencyOperation.TRANSACTION, transactionRetention),
+                new Target(WalletMetrics.TRANSFER, IdempotencyOperation.TRANSFER, transferRetention));
+
+        for (Target target : targets) {
+            FunctionCounter.builder("wallet.idempotency.purged", target, t -> t.purged.sum())
+                    .description("Expired idempotency records deleted by the sweeper")
+                    .tag("operation", target.operation)
+                    .register(meterRegistry);
+            Gauge.builder("wallet.idempotency.retention.lag", target, t -> t.lagSeconds.get())
+                    .description("How far the oldest stored record is past the retention window")
+                    .tag("operation", target.operation)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.idempotency.sweeper.interval-ms:60000}",
+               initialDelayString = "${wallet.idempotency.sweeper.interval-ms:60000}")
+    public void sweep() {
+        for (Target target : targets) {
+            // Every shard keeps its own records; the lag reported is the worst shard's
+            long lagSeconds = 0;
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                try {
+                    lagSeconds = Math.max(lagSeconds, shardRouter.onShard(shard, () -> sweep(target)));
+                } catch (RuntimeException e) {
+                    // Rows stay in place and the next run picks them up
+                    log.warn("Idempotency sweep of {} records failed", target.operation, e);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+            target.lagSeconds.set(lagSeconds);
+        }
+    }
+
+    /** Sweeps the current shard and returns how far its oldest record is past the retention window. */
+    private long sweep(Target target) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(target.retention);
+        long total = 0;
+        int deleted;
+        try {
+            do {
+                long start = System.nanoTime();
+                deleted = transactionTemplate.execute(status ->
+                        retentionRepository.deleteExpired(target.idempotencyOperation, cutoff, chunkSize));
+                target.purged.add(deleted);
+                total += deleted;
+                throttle(deleted, System.nanoTime() - start);
+            } while (deleted == chunkSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (total > 0) {
+            log.info("Purged {} expired {} idempotency records", total, target.operation);
+        }
+        LocalDateTime oldest = retentionRepository.findOldestCreatedAt(target.idempotencyOperation);
+        return oldest == null || !oldest.isBefore(cutoff) ? 0 : Duration.between(oldest, cutoff).toSeconds();
+    }
+
+    private void throttle(int deleted, long elapsedNanos) throws InterruptedException {
+        long budgetNanos = TimeUnit.SECONDS.toNanos(deleted) / maxRowsPerSecond;
+        if (budgetNanos > elapsedNanos) {
+            TimeUnit.NANOSECONDS.sleep(budgetNanos - elapsedNanos);
+        }
+    }
+
+    private static final class Target {
+        final String operation;
+        final IdempotencyOperation idempotencyOperation;
+        final Duration retention;
+        final LongAdder purged = new LongAdder();
+        final AtomicLong lagSeconds = new AtomicLong();
+
+        Target(String operation, IdempotencyOperation idempotencyOperation, Duration retention) {
+            this.operation = operation;
+            this.idempotencyOperation = idempotencyOperation;
+            this.retention = retention;
+        }
+    }
+}
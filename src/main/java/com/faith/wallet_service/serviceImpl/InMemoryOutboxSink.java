@@ -0,0 +1,44 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+import com.faith.wallet_service.service.OutboxSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-process queue standing in for a broker, for local consumers and tests. A batch that does
+ * not fit is refused whole, which leaves it in the outbox until consumers have made room.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<BalanceChangeEvent> queue;
+
+    public InMemoryOutboxSink(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<BalanceChangeEvent> events) {
+        if (queue.remainingCapacity() < events.size()) {
+            throw new IllegalStateException("Outbox queue is full");
+        }
+        queue.addAll(events);
+    }
+
+    /** The next event, waiting up to {@code timeout}; null when none arrived. */
+    public BalanceChangeEvent poll(Duration timeout) throws InterruptedException {
+        return queue.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Removes and returns up to {@code max} queued events without waiting. */
+    public List<BalanceChangeEvent> drain(int max) {
+        List<BalanceChangeEvent> events = new ArrayList<>();
+        queue.drainTo(events, max);
+        return events;
+    }
+}
@@ -0,0 +1,137 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.repository.LedgerPartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves detached ledger partitions out of the database: each one is exported to
+ * {@code <archive-dir>/<partition>.csv.gz}, the row count is checked against the table, and only then is
+ * the table dropped. A crash at any point leaves either the table or a complete archive, never neither.
+ * With sharding, each shard's partitions go to {@code <archive-dir>/shard-<n>}, as their names repeat.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.partitioning.enabled", havingValue = "true")
+public class LedgerArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerArchiver.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final LedgerPartitionRepository ledgerPartitionRepository;
+    private final Path archiveDir;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public LedgerArchiver(LedgerPartitionRepository ledgerPartitionRepository,
+                          @Value("${wallet.partitioning.archive-dir:archive}") Path archiveDir,
+                          PlatformTransactionManager transactionManager,
+                          ShardRouter shardRouter) {
+        this.ledgerPartitionRepository = ledgerPartitionRepository;
+        this.shardRouter = shardRouter;
+        this.archiveDir = archiveDir;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${wallet.partitioning.archive-cron:0 45 0 * * *}")
+    public void archiveDetached() {
+        shardRouter.forEachShard(shard -> {
+            for (String table : LedgerPartitionManager.LEDGER_TABLES) {
+                for (String partition : ledgerPartitionRepository.findDetachedPartitions(table)) {
+                    try {
+                        archive(partition);
+                    } catch (IOException | RuntimeException e) {
+                        // Left in place and retried on the next run
+                        log.error("Archiving partition {} failed", partition, e);
+                    }
+                }
+            }
+        });
+    }
+
+    /** Exports {@code partition} as gzip CSV with a header row, then drops it. Returns the archive file. */
+    public Path archive(String partition) throws IOException {
+        Integer shard = ShardRouter.currentShard();
+        Path dir = shardRouter.isSharded() && shard != null ? archiveDir.resolve("shard-" + shard) : archiveDir;
+        Files.createDirectories(dir);
+        Path target = dir.resolve(partition + ".csv.gz");
+        Path partial = dir.resolve(partition + ".csv.gz.part");
+
+        long expected = ledgerPartitionRepository.countRows(partition);
+        long written;
+        try (OutputStream file = Files.newOutputStream(partial);
+             GZIPOutputStream gzip = new GZIPOutputStream(file, BUFFER_SIZE);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            written = writeCsv(partition, writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (written != expected) {
+            Files.deleteIfExists(partial);
+            throw new IllegalStateException("Partition " + partition + " changed during export: "
+                    + expected + " rows counted, " + written + " written");
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        ledgerPartitionRepository.dropTable(partition);
+        log.info("Archived {} rows of {} to {}", written, partition, target);
+        return target;
+    }
+
+    private long writeCsv(String partition, Writer writer) {
+        return transactionTemplate.execute(status -> ledgerPartitionRepository.streamRows(partition, rs -> {
+            try {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    writer.write(i > 1 ? "," : "");
+                    writer.write(meta.getColumnLabel(i).toLowerCase(Locale.ROOT));
+                }
+                writer.write('\n');
+                long rows = 0;
+                while (rs.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        writer.write(i > 1 ? "," : "");
+                        writer.write(csvValue(rs.getString(i)));
+                    }
+                    writer.write('\n');
+                    rows++;
+                }
+                return rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,95 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.repository.LedgerPartitionRepository;
+import com.faith.wallet_service.repository.LedgerPartitionRepository.Partition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of the ledger tables in shape: creates the current month and the next
+ * {@code months-ahead} before any insert needs them, and detaches partitions that lie entirely before
+ * the retention window so {@link LedgerArchiver} can export and drop them. There is no default partition,
+ * so an insert past the last partition fails; the daily run and startup run keep months of headroom.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.partitioning.enabled", havingValue = "true")
+public class LedgerPartitionManager {
+
+    public static final List<String> LEDGER_TABLES = List.of("wallet_transactions", "transfer_transactions");
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerPartitionManager.class);
+
+    private final LedgerPartitionRepository ledgerPartitionRepository;
+    private final ShardRouter shardRouter;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public LedgerPartitionManager(LedgerPartitionRepository ledgerPartitionRepository,
+                                  ShardRouter shardRouter,
+                                  @Value("${wallet.partitioning.months-ahead:3}") int monthsAhead,
+                                  @Value("${wallet.partitioning.retention-months:13}") int retentionMonths) {
+        this.ledgerPartitionRepository = ledgerPartitionRepository;
+        this.shardRouter = shardRouter;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${wallet.partitioning.cron:0 15 0 * * *}")
+    public void maintain() {
+        shardRouter.forEachShard(shard -> maintain(YearMonth.now()));
+    }
+
+    private void maintain(YearMonth current) {
+        for (String table : LEDGER_TABLES) {
+            List<Partition> partitions = ledgerPartitionRepository.findPartitions(table);
+            for (YearMonth month : monthsToCreate(partitions, current, monthsAhead)) {
+                String name = partitionName(table, month);
+                ledgerPartitionRepository.createPartition(table, name, month.atDay(1).atStartOfDay(),
+                        month.plusMonths(1).atDay(1).atStartOfDay());
+                log.info("Created partition {}", name);
+            }
+            for (Partition partition : partitionsToDetach(partitions, current.minusMonths(retentionMonths))) {
+                ledgerPartitionRepository.detachPartition(table, partition.name());
+                log.info("Detached partition {} for archival", partition.name());
+            }
+        }
+    }
+
+    /** Months from {@code current} to {@code current + ahead} not yet covered by any partition. */
+    public static List<YearMonth> monthsToCreate(List<Partition> partitions, YearMonth current, int ahead) {
+        List<YearMonth> missing = new ArrayList<>();
+        for (int i = 0; i <= ahead; i++) {
+            YearMonth month = current.plusMonths(i);
+            LocalDateTime start = month.atDay(1).atStartOfDay();
+            if (partitions.stream().noneMatch(p -> p.covers(start))) {
+                missing.add(month);
+            }
+        }
+        return missing;
+    }
+
+    /** Partitions whose whole range ends before the first retained month. */
+    public static List<Partition> partitionsToDetach(List<Partition> partitions, YearMonth firstRetained) {
+        LocalDateTime cutoff = firstRetained.atDay(1).atStartOfDay();
+        return partitions.stream()
+                .filter(p -> p.to() != null && !p.to().isAfter(cutoff))
+                .toList();
+    }
+
+    public static String partitionName(String table, YearMonth month) {
+        return String.format("%s_p%04d_%02d", table, month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,135 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+import com.faith.wallet_service.repository.OutboxRepository;
+import com.faith.wallet_service.service.OutboxSink;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the outbox to the {@link OutboxSink}. Each batch is one transaction that locks a partition
+ * with {@code SKIP LOCKED}, reads its oldest {@code batch-size} events, publishes them and deletes them.
+ * A wallet's events are therefore delivered in order even with several nodes relaying, and a failure
+ * before the commit leaves the batch to be published again: delivery is at least once.
+ *
+ * <p>Partitions are visited round robin until none has a full batch left, so a busy partition cannot
+ * starve the others.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.outbox.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink sink;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final int partitions;
+    private final int batchSize;
+    private final Timer lag;
+    private final LongAdder published = new LongAdder();
+    private final AtomicLong backlog = new AtomicLong();
+    private volatile boolean partitionsCreated;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       OutboxSink sink,
+                       ShardRouter shardRouter,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${wallet.outbox.partitions:16}") int partitions,
+                       @Value("${wallet.outbox.relay.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+        this.lag = Timer.builder("wallet.outbox.lag")
+                .description("Time from a balance change to its event being published")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        FunctionCounter.builder("wallet.outbox.published", published, LongAdder::sum)
+                .description("Outbox events published")
+                .register(meterRegistry);
+        Gauge.builder("wallet.outbox.backlog", backlog, AtomicLong::get)
+                .description("Outbox events waiting to be published, as of the last sample")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.outbox.relay.interval-ms:100}")
+    public void relay() {
+        try {
+            shardRouter.forEachShard(shard -> {
+                if (!partitionsCreated) {
+                    outboxRepository.createPartitions(partitions);
+                }
+                boolean more;
+                do {
+                    more = false;
+                    for (int partition = 0; partition < partitions; partition++) {
+                        more |= relayBatch(partition) == batchSize;
+                    }
+                } while (more);
+            });
+            partitionsCreated = true;
+        } catch (RuntimeException e) {
+            // Unpublished events stay in the outbox for the next pass
+            log.warn("Outbox relay pass failed", e);
+        }
+    }
+
+    /** Counts the whole outbox, so it runs far less often than the relay passes it reports on. */
+    @Scheduled(fixedDelayString = "${wallet.outbox.backlog.interval-ms:30000}")
+    public void sampleBacklog() {
+        AtomicLong remaining = new AtomicLong();
+        try {
+            shardRouter.forEachShard(shard -> remaining.addAndGet(outboxRepository.count()));
+            backlog.set(remaining.get());
+        } catch (RuntimeException e) {
+            log.warn("Could not count the outbox backlog", e);
+        }
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    private int relayBatch(int partition) {
+        List<BalanceChangeEvent> events = transactionTemplate.execute(status -> {
+            if (!outboxRepository.lockPartition(partition)) {
+                // Another relay is publishing this partition
+                return List.<BalanceChangeEvent>of();
+            }
+            List<BalanceChangeEvent> batch = outboxRepository.findBatch(partition, batchSize);
+            if (!batch.isEmpty()) {
+                sink.publish(batch);
+                outboxRepository.delete(batch.stream().map(BalanceChangeEvent::getId).toList());
+            }
+            return batch;
+        });
+        LocalDateTime now = LocalDateTime.now();
+        for (BalanceChangeEvent event : events) {
+            lag.record(Duration.between(event.getCreatedAt(), now));
+        }
+        published.add(events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,46 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+import com.faith.wallet_service.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Records balance changes in the outbox. Called inside the transaction that changes the balance, after
+ * the wallet row is locked or updated, so an event commits exactly when its change does and a wallet's
+ * events get increasing ids. A no-op unless {@code wallet.outbox.enabled} is set.
+ *
+ * <p>Credits to hot wallets update a balance slot without the row lock, so their events could commit in
+ * another order than their ids; the outbox therefore refuses to start while any hot wallet is configured.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxRepository outboxRepository;
+    private final boolean enabled;
+    private final int partitions;
+
+    public OutboxWriter(OutboxRepository outboxRepository,
+                        @Value("${wallet.outbox.enabled:false}") boolean enabled,
+                        @Value("${wallet.outbox.partitions:16}") int partitions,
+                        HotWalletSlots hotWalletSlots) {
+        if (enabled && hotWalletSlots.isEnabled()) {
+            throw new IllegalStateException("wallet.outbox.enabled cannot be combined with wallet.hot-wallets.ids");
+        }
+        this.outboxRepository = outboxRepository;
+        this.enabled = enabled;
+        this.partitions = partitions;
+    }
+
+    public void append(BalanceChangeEvent event) {
+        appendAll(List.of(event));
+    }
+
+    public void appendAll(List<BalanceChangeEvent> events) {
+        if (enabled && !events.isEmpty()) {
+            outboxRepository.insert(events, partitions);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.cache.WalletCache;
+import com.faith.wallet_service.commons.ReadConsistency;
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.dto.WalletHistoryEntry;
+import com.faith.wallet_service.enums.StatementFormat;
+import com.faith.wallet_service.repository.WalletStatementRepository;
+import com.faith.wallet_service.service.StatementService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class StatementServiceImpl implements StatementService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,type,amount,counterparty_wallet_id,timestamp\n";
+
+    private final WalletStatementRepository walletStatementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final WalletCache walletCache;
+
+    public StatementServiceImpl(WalletStatementRepository walletStatementRepository,
+                                PlatformTransactionManager transactionManager,
+                                ShardRouter shardRouter,
+                                WalletCache walletCache) {
+        this.walletStatementRepository = walletStatementRepository;
+        this.shardRouter = shardRouter;
+        this.walletCache = walletCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void writeStatement(Long walletId, StatementFormat format, boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzip ? gzipStream : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == StatementFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        try {
+            shardRouter.onWallet(walletId, () -> ReadConsistency.atLeast(walletCache.lastWriteMillis(walletId),
+                    () -> transactionTemplate.execute(status -> {
+                        walletStatementRepository.streamStatement(walletId, entry -> writeEntry(writer, format, entry));
+                        return null;
+                    })));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (gzipStream != null) {
+            // Writes the trailer without closing the response stream, which the container owns
+            gzipStream.finish();
+        }
+    }
+
+    private static void writeEntry(Writer writer, StatementFormat format, WalletHistoryEntry entry) {
+        try {
+            if (format == StatementFormat.CSV) {
+                writer.write(Long.toString(entry.getId()));
+                writer.write(',');
+                writer.write(entry.getType().name());
+                writer.write(',');
+                writer.write(Long.toString(entry.getAmount()));
+                writer.write(',');
+                if (entry.getCounterpartyWalletId() != null) {
+                    writer.write(Long.toString(entry.getCounterpartyWalletId()));
+                }
+                writer.write(',');
+                writer.write(entry.getTimestamp().toString());
+                writer.write('\n');
+            } else {
+                // Every field is a number, enum name or ISO timestamp, so no JSON escaping is needed
+                writer.write("{\"id\":");
+                writer.write(Long.toString(entry.getId()));
+                writer.write(",\"type\":\"");
+                writer.write(entry.getType().name());
+                writer.write("\",\"amount\":");
+                writer.write(Long.toString(entry.getAmount()));
+                writer.write(",\"counterpartyWalletId\":");
+                writer.write(entry.getCounterpartyWalletId() == null ? "null" : Long.toString(entry.getCounterpartyWalletId()));
+                writer.write(",\"timestamp\":\"");
+                writer.write(entry.getTimestamp().toString());
+                writer.write("\"}\n");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.service.BalanceUpdateEngine;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Queues writers for the same wallet on an in-process lock stripe before they reach the database.
+ * The stripe is held until the surrounding transaction completes, so at most one backend per
+ * stripe waits on a hot wallet row instead of every concurrent request piling onto the row lock.
+ */
+public class StripedBalanceUpdateEngine implements BalanceUpdateEngine {
+
+    private final BalanceUpdateEngine delegate;
+    private final ReentrantLock[] stripes;
+
+    public StripedBalanceUpdateEngine(BalanceUpdateEngine delegate, int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        this.delegate = delegate;
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // Fair locks hand the stripe over in arrival order, which keeps tail latency predictable
+            stripes[i] = new ReentrantLock(true);
+        }
+    }
+
+    @Override
+    public long credit(Long walletId, long amount) {
+        return withStripe(walletId, () -> delegate.credit(walletId, amount));
+    }
+
+    @Override
+    public long debit(Long walletId, long amount) {
+        return withStripe(walletId, () -> delegate.debit(walletId, amount));
+    }
+
+    private long withStripe(Long walletId, LongSupplier update) {
+        ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(walletId), stripes.length)];
+        lock.lock();
+        boolean releasedOnCompletion = false;
+        try {
+            long balance = update.getAsLong();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                // The row stays locked until commit, so keep the stripe until then as well
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        lock.unlock();
+                    }
+                });
+                releasedOnCompletion = true;
+            }
+            return balance;
+        } finally {
+            if (!releasedOnCompletion) {
+                lock.unlock();
+            }
+        }
+    }
+}
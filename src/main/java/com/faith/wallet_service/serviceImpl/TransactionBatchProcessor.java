@@ -0,0 +1,227 @@
+package com.faith.wallet_service.serviceImpl;
+
+import com.faith.wallet_service.cache.IdempotencyCache;
+import com.faith.wallet_service.cache.WalletCache;
+import com.faith.wallet_service.commons.ResultWrapper;
+import com.faith.wallet_service.commons.TransactionHooks;
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+import com.faith.wallet_service.dto.TransactionBatchItemResult;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.entity.WalletTransaction;
+import com.faith.wallet_service.enums.BalanceEventType;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.repository.IdempotencyRecordRepository;
+import com.faith.wallet_service.repository.TransactionRepository;
+import com.faith.wallet_service.repository.WalletRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Applies a list of credits and debits in one database transaction. Wallets are locked once in
+ * ascending id order, items are evaluated in request order against the running balance, each wallet
+ * gets a single UPDATE carrying its net change, and ledger and idempotency rows go out as JDBC batches.
+ */
+@Component
+public class TransactionBatchProcessor {
+
+    static final String WALLET_NOT_FOUND = "Wallet not found";
+    static final String INSUFFICIENT_BALANCE = "Insufficient balance";
+
+    // Keeps IN lists well below driver and planner limits
+    private static final int CHUNK_SIZE = 1000;
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyCache idempotencyCache;
+    private final WalletCache walletCache;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxWriter outboxWriter;
+    private final HotWalletSlots hotWalletSlots;
+
+    public TransactionBatchProcessor(WalletRepository walletRepository,
+                                     TransactionRepository transactionRepository,
+                                     IdempotencyRecordRepository idempotencyRecordRepository,
+                                     IdempotencyCache idempotencyCache,
+                                     WalletCache walletCache,
+                                     PlatformTransactionManager transactionManager,
+                                     OutboxWriter outboxWriter,
+                                     HotWalletSlots hotWalletSlots) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.walletCache = walletCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxWriter = outboxWriter;
+        this.hotWalletSlots = hotWalletSlots;
+    }
+
+    /**
+     * Returns one result per request, in request order. Throws DataIntegrityViolationException when an
+     * idempotency key was committed concurrently; nothing from the batch is applied in that case.
+     */
+    public List<TransactionBatchItemResult> process(List<TransactionRequest> requests) {
+        TransactionBatchItemResult[] results = new TransactionBatchItemResult[requests.size()];
+        Map<String, Integer> firstIndexByKey = new HashMap<>();
+        List<Integer> pending = new ArrayList<>();
+        Set<String> lookupKeys = new HashSet<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            String key = requests.get(i).getIdempotencyKey();
+            if (firstIndexByKey.putIfAbsent(key, i) != null) {
+                continue; // repeated key inside the batch: gets the first occurrence's result
+            }
+            TransactionResponse cached = idempotencyCache.getTransaction(key);
+            if (cached != null) {
+                results[i] = TransactionBatchItemResult.success(key, cached);
+            } else {
+                pending.add(i);
+                if (idempotencyCache.mightHaveTransaction(key)) {
+                    lookupKeys.add(key);
+                }
+            }
+        }
+
+        Map<String, TransactionResponse> stored = findStored(new ArrayList<>(lookupKeys));
+        pending.removeIf(i -> {
+            TransactionResponse replay = stored.get(requests.get(i).getIdempotencyKey());
+            if (replay != null) {
+                results[i] = TransactionBatchItemResult.success(requests.get(i).getIdempotencyKey(), replay);
+                return true;
+            }
+            return false;
+        });
+
+        if (!pending.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> apply(requests, pending, results));
+            replayRejectedUnseenKeys(requests, pending, lookupKeys, results);
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] == null) {
+                results[i] = results[firstIndexByKey.get(requests.get(i).getIdempotencyKey())];
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void apply(List<TransactionRequest> requests, List<Integer> pending, TransactionBatchItemResult[] results) {
+        TreeSet<Long> walletIds = new TreeSet<>();
+        for (int i : pending) {
+            walletIds.add(requests.get(i).getWalletId());
+        }
+        Map<Long, Wallet> wallets = lockWallets(new ArrayList<>(walletIds));
+
+        List<WalletTransaction> ledger = new ArrayList<>();
+        List<Integer> appliedIndexes = new ArrayList<>();
+        List<Long> balances = new ArrayList<>();
+        for (int i : pending) {
+            TransactionRequest request = requests.get(i);
+            Wallet wallet = wallets.get(request.getWalletId());
+            if (wallet == null) {
+                results[i] = TransactionBatchItemResult.failed(request.getIdempotencyKey(), WALLET_NOT_FOUND);
+                continue;
+            }
+            if (request.getType() == TransactionType.DEBIT && wallet.getBalance() < request.getAmount()) {
+                results[i] = TransactionBatchItemResult.failed(request.getIdempotencyKey(), INSUFFICIENT_BALANCE);
+                continue;
+            }
+            // Managed and locked: Hibernate flushes one UPDATE per wallet holding the net change
+            wallet.setBalance(request.getType() == TransactionType.DEBIT
+                    ? wallet.getBalance() - request.getAmount()
+                    : wallet.getBalance() + request.getAmount());
+
+            WalletTransaction tx = new WalletTransaction();
+            tx.setWalletId(request.getWalletId());
+            tx.setAmount(request.getAmount());
+            tx.setType(request.getType());
+            tx.setIdempotencyKey(request.getIdempotencyKey());
+            ledger.add(tx);
+            appliedIndexes.add(i);
+            balances.add(wallet.getBalance());
+        }
+
+        transactionRepository.saveAll(ledger);
+
+        Map<String, TransactionResponse> committed = new HashMap<>();
+        List<BalanceChangeEvent> events = new ArrayList<>(ledger.size());
+        for (int n = 0; n < ledger.size(); n++) {
+            WalletTransaction tx = ledger.get(n);
+            TransactionResponse response = new TransactionResponse(tx.getId(), tx.getWalletId(), balances.get(n), tx.getCreatedAt());
+            results[appliedIndexes.get(n)] = TransactionBatchItemResult.success(tx.getIdempotencyKey(), response);
+            committed.put(tx.getIdempotencyKey(), response);
+            events.add(new BalanceChangeEvent(tx.getWalletId(),
+                    tx.getType() == TransactionType.DEBIT ? BalanceEventType.DEBIT : BalanceEventType.CREDIT,
+                    tx.getId(), tx.getAmount(), balances.get(n), null, tx.getCreatedAt()));
+        }
+        idempotencyRecordRepository.insertTransactions(committed);
+        // In request order, so a wallet's events follow the order its items were applied in
+        outboxWriter.appendAll(events);
+
+        walletCache.invalidateAfterCommit(ledger.stream().map(WalletTransaction::getWalletId).distinct().toList());
+        TransactionHooks.afterCommit(() -> committed.forEach(idempotencyCache::putTransaction));
+    }
+
+    /**
+     * Items rejected without a store lookup may be retries of requests committed elsewhere;
+     * those get the stored response instead of the rejection.
+     */
+    private void replayRejectedUnseenKeys(List<TransactionRequest> requests, List<Integer> pending,
+                                          Set<String> lookupKeys, TransactionBatchItemResult[] results) {
+        List<String> unchecked = new ArrayList<>();
+        for (int i : pending) {
+            String key = requests.get(i).getIdempotencyKey();
+            if (results[i].getStatus() != ResultWrapper.ResultStatus.SUCCESS && !lookupKeys.contains(key)) {
+                unchecked.add(key);
+            }
+        }
+        if (unchecked.isEmpty()) {
+            return;
+        }
+        Map<String, TransactionResponse> stored = findStored(unchecked);
+        for (int i : pending) {
+            TransactionResponse replay = stored.get(requests.get(i).getIdempotencyKey());
+            if (replay != null) {
+                results[i] = TransactionBatchItemResult.success(requests.get(i).getIdempotencyKey(), replay);
+            }
+        }
+    }
+
+    private Map<Long, Wallet> lockWallets(List<Long> sortedIds) {
+        Map<Long, Wallet> wallets = new HashMap<>();
+        for (int from = 0; from < sortedIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = sortedIds.subList(from, Math.min(from + CHUNK_SIZE, sortedIds.size()));
+            for (Wallet wallet : walletRepository.lockAllByIdOrdered(chunk)) {
+                // Locked, so a hot wallet's slots can be gathered into the row the batch works on
+                wallet.setBalance(wallet.getBalance() + hotWalletSlots.drainSlots(wallet.getId()));
+                wallets.put(wallet.getId(), wallet);
+            }
+        }
+        return wallets;
+    }
+
+    private Map<String, TransactionResponse> findStored(List<String> keys) {
+        Map<String, TransactionResponse> stored = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += CHUNK_SIZE) {
+            List<String> chunk = keys.subList(from, Math.min(from + CHUNK_SIZE, keys.size()));
+            idempotencyRecordRepository.findTransactions(chunk).forEach((key, response) -> {
+                idempotencyCache.putTransaction(key, response);
+                stored.put(key, response);
+            });
+        }
+        return stored;
+    }
+}
@@ -1,18 +1,41 @@
 package com.faith.wallet_service.serviceImpl;
 
+import com.faith.wallet_service.cache.IdempotencyCache;
+import com.faith.wallet_service.cache.WalletCache;
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.commons.TransactionHooks;
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+import com.faith.wallet_service.dto.TransactionBatchItemResult;
 import com.faith.wallet_service.dto.TransactionRequest;
 import com.faith.wallet_service.dto.TransactionResponse;
 import com.faith.wallet_service.dto.TransferRequest;
 import com.faith.wallet_service.dto.TransferResponse;
 import com.faith.wallet_service.entity.*;
+import com.faith.wallet_service.enums.BalanceEventType;
+import com.faith.wallet_service.enums.IdempotencyOperation;
 import com.faith.wallet_service.enums.TransactionType;
 import com.faith.wallet_service.exception.DuplicateTransactionException;
 import com.faith.wallet_service.exception.InsufficientBalanceException;
 import com.faith.wallet_service.exception.WalletNotFoundException;
+import com.faith.wallet_service.metrics.OperationTimer;
+import com.faith.wallet_service.metrics.WalletMetrics;
 import com.faith.wallet_service.repository.*;
+import com.faith.wallet_service.service.BalanceUpdateEngine;
 import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.serviceImpl.IdempotencyCoalescer.Coalesced;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
@@ -20,125 +43,328 @@ public class TransactionServiceImpl implements TransactionService {
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
     private final TransferTransactionRepository transferTransactionRepository;
-    private final TransactionIdempotencyResponseRepository transactionIdempotencyResponseRepository;
-    private final TransferIdempotencyResponseRepository transferIdempotencyResponseRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final BalanceUpdateEngine balanceUpdateEngine;
+    private final TransferExecutor transferExecutor;
+    private final IdempotencyCache idempotencyCache;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionBatchProcessor transactionBatchProcessor;
+    private final WalletMetrics walletMetrics;
+    private final WalletCache walletCache;
+    private final IdempotencyCoalescer idempotencyCoalescer;
+    private final GroupCommitLedgerWriter groupCommitLedgerWriter;
+    private final ShardRouter shardRouter;
+    private final CrossShardTransferCoordinator crossShardTransferCoordinator;
+    private final OutboxWriter outboxWriter;
+    private final HotWalletSlots hotWalletSlots;
 
     public TransactionServiceImpl(WalletRepository walletRepository,
                                  TransactionRepository transactionRepository,
                                  TransferTransactionRepository transferTransactionRepository,
-                                 TransactionIdempotencyResponseRepository transactionIdempotencyResponseRepository,
-                                 TransferIdempotencyResponseRepository transferIdempotencyResponseRepository) {
+                                 IdempotencyRecordRepository idempotencyRecordRepository,
+                                 BalanceUpdateEngine balanceUpdateEngine,
+                                 TransferExecutor transferExecutor,
+                                 IdempotencyCache idempotencyCache,
+                                 PlatformTransactionManager transactionManager,
+                                 TransactionBatchProcessor transactionBatchProcessor,
+                                 WalletMetrics walletMetrics,
+                                 WalletCache walletCache,
+                                 IdempotencyCoalescer idempotencyCoalescer,
+                                 ObjectProvider<GroupCommitLedgerWriter> groupCommitLedgerWriter,
+                                 ShardRouter shardRouter,
+                                 ObjectProvider<CrossShardTransferCoordinator> crossShardTransferCoordinator,
+                                 OutboxWriter outboxWriter,
+                                 HotWalletSlots hotWalletSlots) {
         this.walletRepository = walletRepository;
         this.transactionRepository = transactionRepository;
         this.transferTransactionRepository = transferTransactionRepository;
-        this.transactionIdempotencyResponseRepository = transactionIdempotencyResponseRepository;
-        this.transferIdempotencyResponseRepository = transferIdempotencyResponseRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.balanceUpdateEngine = balanceUpdateEngine;
+        this.transferExecutor = transferExecutor;
+        this.idempotencyCache = idempotencyCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionBatchProcessor = transactionBatchProcessor;
+        this.walletMetrics = walletMetrics;
+        this.walletCache = walletCache;
+        this.idempotencyCoalescer = idempotencyCoalescer;
+        this.groupCommitLedgerWriter = groupCommitLedgerWriter.getIfAvailable();
+        this.shardRouter = shardRouter;
+        this.crossShardTransferCoordinator = crossShardTransferCoordinator.getIfAvailable();
+        this.outboxWriter = outboxWriter;
+        this.hotWalletSlots = hotWalletSlots;
     }
 
     @Override
-    @Transactional
     public TransactionResponse applyTransaction(TransactionRequest request) {
-        // Check for cached idempotent response first
-        var cachedResponse = transactionIdempotencyResponseRepository.findByIdempotencyKey(request.getIdempotencyKey());
-        if (cachedResponse.isPresent()) {
-            var response = cachedResponse.get();
-            return new TransactionResponse(response.getTransactionId(), response.getWalletId(),
-                                         response.getBalance(), response.getTimestamp());
-        }
-
-        // Check if transaction already exists (shouldn't happen due to unique constraint, but being safe)
-        transactionRepository.findByIdempotencyKey(request.getIdempotencyKey())
-                .ifPresent(tx -> {
-                    throw new DuplicateTransactionException("Transaction already applied");
-                });
-
-        Wallet wallet = walletRepository.findById(request.getWalletId())
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found"));
-
-        if (request.getType() == TransactionType.DEBIT) {
-            if (wallet.getBalance() < request.getAmount()) {
-                throw new InsufficientBalanceException("Insufficient balance");
+        OperationTimer timer = walletMetrics.start(WalletMetrics.TRANSACTION);
+        try {
+            return timer.stop(applyTransaction(request, timer));
+        } catch (RuntimeException e) {
+            timer.stop(e);
+            throw e;
+        }
+    }
+
+    private TransactionResponse applyTransaction(TransactionRequest request, OperationTimer timer) {
+        String key = request.getIdempotencyKey();
+
+        // Committed responses for retried keys are answered from memory
+        TransactionResponse cached = idempotencyCache.getTransaction(key);
+        if (cached != null) {
+            return timer.replayed(cached);
+        }
+
+        // A retry racing its own first attempt waits for it instead of repeating the work. Idempotency
+        // records and claims live on the wallet's shard, next to its ledger
+        Coalesced<TransactionResponse> outcome = shardRouter.onWallet(request.getWalletId(), () ->
+                idempotencyCoalescer.execute(IdempotencyOperation.TRANSACTION, key,
+                        () -> findStoredTransaction(key), () -> applyUncached(request, timer)));
+        return outcome.shared() ? timer.replayed(outcome.response()) : outcome.response();
+    }
+
+    private TransactionResponse applyUncached(TransactionRequest request, OperationTimer timer) {
+        String key = request.getIdempotencyKey();
+
+        // Keys this node has never seen skip the store lookup; the record's primary key catches real duplicates
+        boolean storeChecked = idempotencyCache.mightHaveTransaction(key);
+        walletMetrics.recordStoreLookup(WalletMetrics.TRANSACTION, storeChecked);
+        if (storeChecked) {
+            Optional<TransactionResponse> stored = findStoredTransaction(key);
+            if (stored.isPresent()) {
+                return timer.replayed(stored.get());
             }
-            wallet.setBalance(wallet.getBalance() - request.getAmount());
-        } else {
-            wallet.setBalance(wallet.getBalance() + request.getAmount());
         }
 
-        walletRepository.save(wallet);
+        try {
+            return commitTransaction(request);
+        } catch (DataIntegrityViolationException e) {
+            // Another request with this key committed first
+            return timer.replayed(findStoredTransaction(key)
+                    .orElseThrow(() -> new DuplicateTransactionException("Transaction already applied")));
+        } catch (InsufficientBalanceException | WalletNotFoundException e) {
+            if (storeChecked) {
+                throw e;
+            }
+            // The key may have been committed before a restart or on another node
+            return timer.replayed(findStoredTransaction(key).orElseThrow(() -> e));
+        }
+    }
+
+    private TransactionResponse commitTransaction(TransactionRequest request) {
+        if (groupCommitLedgerWriter != null) {
+            try {
+                return groupCommitLedgerWriter.submit(request);
+            } catch (DataIntegrityViolationException e) {
+                // Some key in the group was committed concurrently and nothing was applied; retry this one
+                // alone, which replays it below if the conflicting key was its own
+            }
+        }
+        return transactionTemplate.execute(status -> executeTransaction(request));
+    }
+
+    @Override
+    public List<TransactionBatchItemResult> applyTransactions(List<TransactionRequest> requests) {
+        OperationTimer timer = walletMetrics.start(WalletMetrics.BATCH);
+        try {
+            return timer.stop(processBatch(requests));
+        } catch (RuntimeException e) {
+            timer.stop(e);
+            throw e;
+        }
+    }
+
+    private List<TransactionBatchItemResult> processBatch(List<TransactionRequest> requests) {
+        if (!shardRouter.isSharded()) {
+            return processShardBatch(requests);
+        }
+        // Each shard's part of the batch commits on its own; results keep the order of the requests
+        TransactionBatchItemResult[] results = new TransactionBatchItemResult[requests.size()];
+        Map<Integer, List<Integer>> byShard = IntStream.range(0, requests.size()).boxed()
+                .collect(Collectors.groupingBy(i -> shardRouter.shardOf(requests.get(i).getWalletId())));
+        byShard.forEach((shard, indexes) -> {
+            List<TransactionRequest> part = indexes.stream().map(requests::get).toList();
+            List<TransactionBatchItemResult> partResults = shardRouter.isKnownShard(shard)
+                    ? shardRouter.onShard(shard, () -> processShardBatch(part))
+                    : part.stream().map(request -> TransactionBatchItemResult.failed(
+                            request.getIdempotencyKey(), TransactionBatchProcessor.WALLET_NOT_FOUND)).toList();
+            for (int i = 0; i < indexes.size(); i++) {
+                results[indexes.get(i)] = partResults.get(i);
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    private List<TransactionBatchItemResult> processShardBatch(List<TransactionRequest> requests) {
+        try {
+            return transactionBatchProcessor.process(requests);
+        } catch (DataIntegrityViolationException e) {
+            // A key in the batch was committed concurrently; item-by-item processing replays it
+            return requests.stream().map(this::applyBatchItem).toList();
+        }
+    }
+
+    private TransactionBatchItemResult applyBatchItem(TransactionRequest request) {
+        try {
+            return TransactionBatchItemResult.success(request.getIdempotencyKey(), applyTransaction(request));
+        } catch (InsufficientBalanceException | WalletNotFoundException | DuplicateTransactionException e) {
+            return TransactionBatchItemResult.failed(request.getIdempotencyKey(), e.getMessage());
+        }
+    }
+
+    private TransactionResponse executeTransaction(TransactionRequest request) {
+        // Conditional atomic update: no lost updates and no negative balance under concurrent requests
+        long balance = request.getType() == TransactionType.DEBIT
+                ? balanceUpdateEngine.debit(request.getWalletId(), request.getAmount())
+                : balanceUpdateEngine.credit(request.getWalletId(), request.getAmount());
 
         WalletTransaction tx = new WalletTransaction();
-        tx.setWalletId(wallet.getId());
+        tx.setWalletId(request.getWalletId());
         tx.setAmount(request.getAmount());
         tx.setType(request.getType());
         tx.setIdempotencyKey(request.getIdempotencyKey());
 
         tx = transactionRepository.save(tx);
 
-        // Create and cache the response
-        TransactionResponse response = new TransactionResponse(tx.getId(), wallet.getId(), wallet.getBalance(), tx.getCreatedAt());
-        TransactionIdempotencyResponse idempotencyResponse = new TransactionIdempotencyResponse();
-        idempotencyResponse.setIdempotencyKey(request.getIdempotencyKey());
-        idempotencyResponse.setTransactionId(tx.getId());
-        idempotencyResponse.setWalletId(wallet.getId());
-        idempotencyResponse.setBalance(wallet.getBalance());
-        idempotencyResponse.setTimestamp(tx.getCreatedAt());
-
-        transactionIdempotencyResponseRepository.save(idempotencyResponse);
+        // Store and cache the response; the record's primary key is what rejects a concurrent duplicate
+        TransactionResponse response = new TransactionResponse(tx.getId(), tx.getWalletId(), balance, tx.getCreatedAt());
+        idempotencyRecordRepository.insertTransaction(request.getIdempotencyKey(), response);
+        outboxWriter.append(new BalanceChangeEvent(tx.getWalletId(),
+                request.getType() == TransactionType.DEBIT ? BalanceEventType.DEBIT : BalanceEventType.CREDIT,
+                tx.getId(), tx.getAmount(), balance, null, tx.getCreatedAt()));
 
+        walletCache.invalidateAfterCommit(request.getWalletId());
+        TransactionHooks.afterCommit(() -> idempotencyCache.putTransaction(request.getIdempotencyKey(), response));
         return response;
     }
 
     @Override
-    @Transactional
     public TransferResponse transfer(TransferRequest request) {
-        // Check for cached idempotent response first
-        var cachedResponse = transferIdempotencyResponseRepository.findByIdempotencyKey(request.getIdempotencyKey());
-        if (cachedResponse.isPresent()) {
-            var response = cachedResponse.get();
-            return new TransferResponse(response.getTransferId(), response.getFromWalletId(), response.getFromBalance(),
-                                       response.getToWalletId(), response.getToBalance(), response.getTimestamp());
+        OperationTimer timer = walletMetrics.start(WalletMetrics.TRANSFER);
+        try {
+            return timer.stop(transfer(request, timer));
+        } catch (RuntimeException e) {
+            timer.stop(e);
+            throw e;
         }
+    }
 
-        Wallet from = walletRepository.findById(request.getFromWalletId())
-                .orElseThrow(() -> new WalletNotFoundException("Sender wallet not found"));
+    private TransferResponse transfer(TransferRequest request, OperationTimer timer) {
+        String key = request.getIdempotencyKey();
 
-        Wallet to = walletRepository.findById(request.getToWalletId())
-                .orElseThrow(() -> new WalletNotFoundException("Receiver wallet not found"));
+        TransferResponse cached = idempotencyCache.getTransfer(key);
+        if (cached != null) {
+            return timer.replayed(cached);
+        }
 
-        if (from.getBalance() < request.getAmount()) {
-            throw new InsufficientBalanceException("Insufficient balance");
+        // The sender's shard holds the transfer's idempotency record
+        Coalesced<TransferResponse> outcome = shardRouter.onWallet(request.getFromWalletId(), () ->
+                idempotencyCoalescer.execute(IdempotencyOperation.TRANSFER, key,
+                        () -> findStoredTransfer(key), () -> transferUncached(request, timer)));
+        return outcome.shared() ? timer.replayed(outcome.response()) : outcome.response();
+    }
+
+    private TransferResponse transferUncached(TransferRequest request, OperationTimer timer) {
+        String key = request.getIdempotencyKey();
+
+        boolean storeChecked = idempotencyCache.mightHaveTransfer(key);
+        walletMetrics.recordStoreLookup(WalletMetrics.TRANSFER, storeChecked);
+        if (storeChecked) {
+            Optional<TransferResponse> stored = findStoredTransfer(key);
+            if (stored.isPresent()) {
+                return timer.replayed(stored.get());
+            }
         }
 
-        from.setBalance(from.getBalance() - request.getAmount());
-        to.setBalance(to.getBalance() + request.getAmount());
+        try {
+            if (crossShardTransferCoordinator != null
+                    && shardRouter.shardOf(request.getFromWalletId()) != shardRouter.shardOf(request.getToWalletId())) {
+                return crossShardTransferCoordinator.transfer(request);
+            }
+            return transferExecutor.execute(() -> executeTransfer(request));
+        } catch (DataIntegrityViolationException e) {
+            return timer.replayed(findStoredTransfer(key)
+                    .orElseThrow(() -> new DuplicateTransactionException("Transfer already applied")));
+        } catch (InsufficientBalanceException | WalletNotFoundException e) {
+            if (storeChecked) {
+                throw e;
+            }
+            return timer.replayed(findStoredTransfer(key).orElseThrow(() -> e));
+        }
+    }
 
-        walletRepository.save(from);
-        walletRepository.save(to);
+    private TransferResponse executeTransfer(TransferRequest request) {
+        Long fromId = request.getFromWalletId();
+        Long toId = request.getToWalletId();
+        long amount = request.getAmount();
+
+        // One round trip locks both rows, always in ascending id order
+        Map<Long, Wallet> locked = walletRepository.lockAllByIdOrdered(List.of(fromId, toId)).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+
+        Wallet from = locked.get(fromId);
+        if (from == null) {
+            throw new WalletNotFoundException("Sender wallet not found");
+        }
+        Wallet to = locked.get(toId);
+        if (to == null) {
+            throw new WalletNotFoundException("Receiver wallet not found");
+        }
+
+        // A hot sender's slots are gathered into its locked row, so the row holds its whole balance
+        long drained = hotWalletSlots.drainSlots(fromId);
+        if (drained != 0) {
+            walletRepository.credit(fromId, drained);
+        }
+        if (from.getBalance() + drained < amount) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+
+        // Both rows are locked, so the new balances follow directly from what was read
+        long fromBalance = from.getBalance() + drained;
+        long toBalance = fromId.equals(toId) ? fromBalance : to.getBalance();
+        if (!fromId.equals(toId)) {
+            walletRepository.transfer(fromId, toId, amount);
+            fromBalance -= amount;
+            // A hot receiver's slots are not locked here, so its total is read after the update and may
+            // already include slot credits that other transactions committed meanwhile
+            toBalance = hotWalletSlots.isHot(toId)
+                    ? hotWalletSlots.findBalance(toId).orElseThrow()
+                    : toBalance + amount;
+        }
 
         // Create transfer transaction record
         TransferTransaction transferTx = new TransferTransaction();
-        transferTx.setFromWalletId(from.getId());
-        transferTx.setToWalletId(to.getId());
-        transferTx.setAmount(request.getAmount());
+        transferTx.setFromWalletId(fromId);
+        transferTx.setToWalletId(toId);
+        transferTx.setAmount(amount);
         transferTx.setIdempotencyKey(request.getIdempotencyKey());
 
         transferTx = transferTransactionRepository.save(transferTx);
 
-        // Create and cache the response
-        TransferResponse response = new TransferResponse(transferTx.getId(), from.getId(), from.getBalance(),
-                                                        to.getId(), to.getBalance(), transferTx.getCreatedAt());
+        // Store and cache the response; the record's primary key is what rejects a concurrent duplicate
+        TransferResponse response = new TransferResponse(transferTx.getId(), fromId, fromBalance,
+                                                        toId, toBalance, transferTx.getCreatedAt());
+        idempotencyRecordRepository.insertTransfer(request.getIdempotencyKey(), response);
+        outboxWriter.appendAll(List.of(
+                new BalanceChangeEvent(fromId, BalanceEventType.TRANSFER_OUT, transferTx.getId(), amount, fromBalance, toId, transferTx.getCreatedAt()),
+                new BalanceChangeEvent(toId, BalanceEventType.TRANSFER_IN, transferTx.getId(), amount, toBalance, fromId, transferTx.getCreatedAt())));
 
-        TransferIdempotencyResponse idempotencyResponse = new TransferIdempotencyResponse();
-        idempotencyResponse.setIdempotencyKey(transferTx.getIdempotencyKey());
-        idempotencyResponse.setTransferId(transferTx.getId());
-        idempotencyResponse.setFromWalletId(from.getId());
-        idempotencyResponse.setFromBalance(from.getBalance());
-        idempotencyResponse.setToWalletId(to.getId());
-        idempotencyResponse.setToBalance(to.getBalance());
-        idempotencyResponse.setTimestamp(transferTx.getCreatedAt());
+        walletCache.invalidateAfterCommit(List.of(fromId, toId));
+        TransactionHooks.afterCommit(() -> idempotencyCache.putTransfer(request.getIdempotencyKey(), response));
+        return response;
+    }
 
-        transferIdempotencyResponseRepository.save(idempotencyResponse);
+    private Optional<TransactionResponse> findStoredTransaction(String key) {
+        return idempotencyRecordRepository.findTransaction(key).map(response -> {
+            idempotencyCache.putTransaction(key, response);
+            return response;
+        });
+    }
 
-        return response;
+    private Optional<TransferResponse> findStoredTransfer(String key) {
+        return idempotencyRecordRepository.findTransfer(key).map(response -> {
+            idempotencyCache.putTransfer(key, response);
+            return response;
+        });
     }
 }
@@ -0,0 +1,102 @@
+package com.faith.wallet_service.serviceImpl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs a transfer in its own transaction and retries it with exponential backoff when the
+ * database aborts it on a lock conflict, deadlock or serialization failure.
+ */
+@Component
+public class TransferExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferExecutor.class);
+
+    // PostgreSQL: serialization_failure and deadlock_detected
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private static final String DEADLOCK_DETECTED = "40P01";
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public TransferExecutor(PlatformTransactionManager transactionManager,
+                            @Value("${wallet.transfer.max-attempts:5}") int maxAttempts,
+                            @Value("${wallet.transfer.initial-backoff-ms:10}") long initialBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> transfer) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> transfer.get());
+                if (attempt > 1) {
+                    log.info("Transfer committed after {} retries", attempt - 1);
+                }
+                return result;
+            } catch (RuntimeException e) {
+                if (!isLockConflict(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("Transfer abandoned after {} retries", attempt - 1);
+                    throw e;
+                }
+                retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    /** Total retries performed since startup. */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /** Transfers that still failed after the last attempt. */
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    /** True when the database aborted the work on a lock conflict, deadlock or serialization failure. */
+    public static boolean isLockConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConcurrencyFailureException) {
+                return true;
+            }
+            if (t instanceof SQLException sql
+                    && (SERIALIZATION_FAILURE.equals(sql.getSQLState()) || DEADLOCK_DETECTED.equals(sql.getSQLState()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = initialBackoffMillis << Math.min(attempt - 1, 10);
+        // Full jitter so transfers that collided once do not collide again on the next attempt
+        long sleep = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying transfer", ie);
+        }
+    }
+}
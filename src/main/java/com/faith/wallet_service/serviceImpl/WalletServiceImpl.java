@@ -1,35 +1,107 @@
 package com.faith.wallet_service.serviceImpl;
 
+import com.faith.wallet_service.cache.WalletCache;
+import com.faith.wallet_service.commons.ReadConsistency;
+import com.faith.wallet_service.commons.ShardRouter;
 import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.WalletHistoryEntry;
+import com.faith.wallet_service.dto.WalletHistoryPage;
 import com.faith.wallet_service.entity.Wallet;
 import com.faith.wallet_service.exception.WalletNotFoundException;
+import com.faith.wallet_service.repository.WalletHistoryRepository;
 import com.faith.wallet_service.repository.WalletRepository;
 import com.faith.wallet_service.service.WalletService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 public class WalletServiceImpl implements WalletService {
 
+    public static final int MAX_HISTORY_PAGE_SIZE = 500;
+
     private final WalletRepository walletRepository;
+    private final WalletHistoryRepository walletHistoryRepository;
+    private final WalletCache walletCache;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTemplate;
+    private final HotWalletSlots hotWalletSlots;
 
-    public WalletServiceImpl(WalletRepository walletRepository) {
+    public WalletServiceImpl(WalletRepository walletRepository,
+                             WalletHistoryRepository walletHistoryRepository,
+                             WalletCache walletCache,
+                             ShardRouter shardRouter,
+                             PlatformTransactionManager transactionManager,
+                             HotWalletSlots hotWalletSlots) {
         this.walletRepository = walletRepository;
+        this.walletHistoryRepository = walletHistoryRepository;
+        this.walletCache = walletCache;
+        this.shardRouter = shardRouter;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.hotWalletSlots = hotWalletSlots;
     }
 // Test
     @Override
     public Wallet createWallet(CreateWalletRequest request) {
         Wallet wallet = new Wallet();
         wallet.setBalance(request.getInitialBalance());
+        wallet.setOpeningBalance(request.getInitialBalance());
         wallet.setDescription(request.getDescription());
         wallet.setCreatedAt(LocalDateTime.now());
-        return walletRepository.save(wallet);
+        // New wallets are spread over the shards; the id they get there records which one
+        Wallet saved = shardRouter.onNewWallet(() -> walletRepository.save(wallet));
+        walletCache.invalidateAfterCommit(saved.getId());
+        return saved;
     }
 
     @Override
     public Wallet getWallet(Long id) {
-        return walletRepository.findById(id)
-                .orElseThrow(() -> new WalletNotFoundException("Wallet not found with id " + id));
+        // The cache cannot tell whether its copy is as new as a client's token, so such reads skip it
+        Wallet wallet = ReadConsistency.required() > 0
+                ? loadWallet(id)
+                : walletCache.getOrLoad(id, () -> loadWallet(id));
+        if (wallet == null) {
+            throw new WalletNotFoundException("Wallet not found with id " + id);
+        }
+        return wallet;
+    }
+
+    @Override
+    public WalletHistoryPage getHistory(Long id, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        WalletHistoryRepository.Cursor after = cursor == null || cursor.isBlank()
+                ? null
+                : WalletHistoryRepository.Cursor.decode(cursor);
+
+        // One extra row tells whether another page exists
+        List<WalletHistoryRepository.Row> rows = shardRouter.onWallet(id, () ->
+                ReadConsistency.atLeast(walletCache.lastWriteMillis(id), () -> readOnlyTemplate.execute(status -> {
+                    if (!walletRepository.existsById(id)) {
+                        throw new WalletNotFoundException("Wallet not found with id " + id);
+                    }
+                    return walletHistoryRepository.findPage(id, after, limit + 1);
+                })));
+        boolean hasMore = rows.size() > limit;
+        List<WalletHistoryRepository.Row> page = hasMore ? rows.subList(0, limit) : rows;
+
+        List<WalletHistoryEntry> entries = page.stream().map(WalletHistoryRepository.Row::entry).toList();
+        String nextCursor = hasMore ? page.get(page.size() - 1).toCursor().encode() : null;
+        return new WalletHistoryPage(entries, nextCursor);
+    }
+
+    /**
+     * Reads the wallet, from a replica only if it has this node's latest write to the wallet. A hot
+     * wallet's slots are read in the same read-only transaction, so row and slots come from one database.
+     */
+    private Wallet loadWallet(Long id) {
+        return shardRouter.onWallet(id, () -> ReadConsistency.atLeast(walletCache.lastWriteMillis(id),
+                () -> readOnlyTemplate.execute(status ->
+                        walletRepository.findById(id).map(hotWalletSlots::withTotalBalance).orElse(null))));
     }
 }
@@ -0,0 +1,18 @@
+-- One-time PostgreSQL migration for wallets created before wallets.opening_balance existed: sets their
+-- opening balance to whatever makes today's balance agree with today's ledger, so reconciliation can
+-- check them from now on. It cannot tell whether they had drifted before. Run it in a maintenance window
+-- with writers stopped, on every shard; until then BalanceReconciler reports these wallets as unverified.
+
+BEGIN;
+
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS opening_balance BIGINT;
+
+UPDATE wallets w
+SET opening_balance = w.balance - COALESCE((
+        SELECT SUM(CASE WHEN t.type = 'DEBIT' THEN -t.amount ELSE t.amount END)
+        FROM wallet_transactions t WHERE t.wallet_id = w.id), 0)
+    + COALESCE((SELECT SUM(t.amount) FROM transfer_transactions t WHERE t.from_wallet_id = w.id), 0)
+    - COALESCE((SELECT SUM(t.amount) FROM transfer_transactions t WHERE t.to_wallet_id = w.id), 0)
+WHERE w.opening_balance IS NULL;
+
+COMMIT;
@@ -0,0 +1,64 @@
+-- One-time PostgreSQL (11+) migration: moves stored idempotency responses from the per-operation
+-- transaction_idempotency_responses and transfer_idempotency_responses tables into idempotency_records,
+-- and drops the idempotency unique keys and indexes from the ledger tables. Run it in a maintenance
+-- window with writers stopped; new nodes create idempotency_records themselves through schema.sql.
+--
+-- The SQL reproduces IdempotencyRecordCodec byte for byte: key_hash is the first 16 bytes of
+-- SHA-256(operation code || UTF-8 key), response is format version 1 followed by big-endian int8s with
+-- the timestamp in microseconds since the epoch.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS idempotency_records (
+    key_hash    BYTEA     PRIMARY KEY,
+    operation   SMALLINT  NOT NULL,
+    response    BYTEA     NOT NULL,
+    created_at  TIMESTAMP NOT NULL
+);
+
+INSERT INTO idempotency_records (key_hash, operation, response, created_at)
+SELECT substring(sha256('\x01'::bytea || convert_to(idempotency_key, 'UTF8')) FROM 1 FOR 16),
+       1,
+       '\x01'::bytea || int8send(transaction_id) || int8send(wallet_id) || int8send(balance)
+           || int8send((extract(epoch FROM timestamp) * 1000000)::bigint),
+       created_at
+FROM transaction_idempotency_responses
+ON CONFLICT (key_hash) DO NOTHING;
+
+INSERT INTO idempotency_records (key_hash, operation, response, created_at)
+SELECT substring(sha256('\x02'::bytea || convert_to(idempotency_key, 'UTF8')) FROM 1 FOR 16),
+       2,
+       '\x01'::bytea || int8send(transfer_id) || int8send(from_wallet_id) || int8send(from_balance)
+           || int8send(to_wallet_id) || int8send(to_balance)
+           || int8send((extract(epoch FROM timestamp) * 1000000)::bigint),
+       created_at
+FROM transfer_idempotency_responses
+ON CONFLICT (key_hash) DO NOTHING;
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_records_created ON idempotency_records(operation, created_at);
+
+-- The ledger keeps idempotency_key for audit only; its unique keys were created either by schema.sql
+-- or by Hibernate, under different names, so drop whichever exist
+DO $$
+DECLARE
+    c RECORD;
+BEGIN
+    FOR c IN
+        SELECT con.conrelid::regclass AS tbl, con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.contype = 'u'
+          AND con.conrelid IN ('wallet_transactions'::regclass, 'transfer_transactions'::regclass)
+          AND att.attname = 'idempotency_key'
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', c.tbl, c.conname);
+    END LOOP;
+END $$;
+
+DROP INDEX IF EXISTS idx_wallet_transactions_idempotency;
+DROP INDEX IF EXISTS idx_transfer_transactions_idempotency;
+
+DROP TABLE transaction_idempotency_responses;
+DROP TABLE transfer_idempotency_responses;
+
+COMMIT;
@@ -0,0 +1,60 @@
+-- One-time PostgreSQL (14+) migration: turns wallet_transactions and transfer_transactions into tables
+-- range-partitioned by month on created_at. Run it once, in a maintenance window, before enabling
+-- wallet.partitioning.enabled; LedgerPartitionManager then keeps monthly partitions ahead of time.
+--
+-- The existing rows stay where they are: each old table becomes the partition covering everything up to
+-- the end of the current month. Primary keys of a partitioned table must include created_at; idempotency
+-- keys are kept unique by the unpartitioned idempotency_records table, so run
+-- db/migrate-idempotency-records.sql first.
+
+BEGIN;
+
+-- The id sequences must outlive the old tables, which are eventually archived and dropped
+ALTER SEQUENCE wallet_transactions_id_seq OWNED BY NONE;
+ALTER SEQUENCE transfer_transactions_id_seq OWNED BY NONE;
+
+ALTER TABLE wallet_transactions RENAME TO wallet_transactions_legacy;
+ALTER INDEX IF EXISTS idx_wallet_transactions_wallet_created RENAME TO idx_wallet_transactions_legacy_wallet_created;
+ALTER TABLE wallet_transactions_legacy ALTER COLUMN id DROP DEFAULT;
+
+CREATE TABLE wallet_transactions (
+    id              BIGINT       NOT NULL,
+    wallet_id       BIGINT       NOT NULL REFERENCES wallets(id),
+    amount          BIGINT       NOT NULL,
+    type            VARCHAR(20)  NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+CREATE INDEX idx_wallet_transactions_wallet_created ON wallet_transactions(wallet_id, created_at, id);
+
+ALTER TABLE transfer_transactions RENAME TO transfer_transactions_legacy;
+ALTER INDEX IF EXISTS idx_transfer_transactions_from_created RENAME TO idx_transfer_transactions_legacy_from_created;
+ALTER INDEX IF EXISTS idx_transfer_transactions_to_created RENAME TO idx_transfer_transactions_legacy_to_created;
+ALTER TABLE transfer_transactions_legacy ALTER COLUMN id DROP DEFAULT;
+
+-- No foreign keys: a cross-shard transfer's counterparty lives on another shard (see schema.sql)
+CREATE TABLE transfer_transactions (
+    id              BIGINT       NOT NULL,
+    from_wallet_id  BIGINT       NOT NULL,
+    to_wallet_id    BIGINT       NOT NULL,
+    amount          BIGINT       NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+CREATE INDEX idx_transfer_transactions_from_created ON transfer_transactions(from_wallet_id, created_at, id);
+CREATE INDEX idx_transfer_transactions_to_created ON transfer_transactions(to_wallet_id, created_at, id);
+
+-- Attaching validates the bound with one scan of each old table; the matching indexes are built on them
+DO $$
+DECLARE
+    upper_bound TIMESTAMP := date_trunc('month', LOCALTIMESTAMP) + INTERVAL '1 month';
+BEGIN
+    EXECUTE format('ALTER TABLE wallet_transactions ATTACH PARTITION wallet_transactions_legacy '
+                   'FOR VALUES FROM (MINVALUE) TO (%L)', upper_bound);
+    EXECUTE format('ALTER TABLE transfer_transactions ATTACH PARTITION transfer_transactions_legacy '
+                   'FOR VALUES FROM (MINVALUE) TO (%L)', upper_bound);
+END $$;
+
+COMMIT;
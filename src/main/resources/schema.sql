@@ -6,56 +6,137 @@ CREATE TABLE IF NOT EXISTS wallets (
     created_at   TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
--- Credit/debit transactions; idempotency via unique idempotency_key
+-- The balance a wallet was created with, the one part of its balance that has no ledger entry (see
+-- BalanceReconciler). Older wallets get it from db/backfill-opening-balance.sql.
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS opening_balance BIGINT;
+
+-- Credit/debit transactions; idempotency_key is kept for audit, uniqueness is enforced by idempotency_records
 CREATE TABLE IF NOT EXISTS wallet_transactions (
     id              BIGSERIAL    PRIMARY KEY,
     wallet_id       BIGINT       NOT NULL,
     amount          BIGINT       NOT NULL,
     type            VARCHAR(20)  NOT NULL,
-    idempotency_key VARCHAR(255) NOT NULL UNIQUE,
+    idempotency_key VARCHAR(255) NOT NULL,
     created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (wallet_id) REFERENCES wallets(id)
 );
 
-CREATE INDEX IF NOT EXISTS idx_wallet_transactions_wallet ON wallet_transactions(wallet_id);
-CREATE INDEX IF NOT EXISTS idx_wallet_transactions_idempotency ON wallet_transactions(idempotency_key);
+-- History reads seek (wallet_id, created_at, id) backwards; the composite index also covers wallet_id lookups
+CREATE INDEX IF NOT EXISTS idx_wallet_transactions_wallet_created ON wallet_transactions(wallet_id, created_at, id);
+DROP INDEX IF EXISTS idx_wallet_transactions_wallet;
+DROP INDEX IF EXISTS idx_wallet_transactions_idempotency;
 
--- Transfer transactions; idempotency via unique idempotency_key
+-- Transfer transactions; idempotency_key is kept for audit, uniqueness is enforced by idempotency_records.
+-- No foreign keys: with sharding, a cross-shard transfer is recorded on both shards and one of its wallets
+-- lives elsewhere. The DROPs remove the PostgreSQL-named keys from existing databases.
 CREATE TABLE IF NOT EXISTS transfer_transactions (
     id              BIGSERIAL    PRIMARY KEY,
     from_wallet_id  BIGINT       NOT NULL,
     to_wallet_id    BIGINT       NOT NULL,
     amount          BIGINT       NOT NULL,
-    idempotency_key VARCHAR(255) NOT NULL UNIQUE,
-    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (from_wallet_id) REFERENCES wallets(id),
-    FOREIGN KEY (to_wallet_id) REFERENCES wallets(id)
+    idempotency_key VARCHAR(255) NOT NULL,
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
+ALTER TABLE transfer_transactions DROP CONSTRAINT IF EXISTS transfer_transactions_from_wallet_id_fkey;
+ALTER TABLE transfer_transactions DROP CONSTRAINT IF EXISTS transfer_transactions_to_wallet_id_fkey;
 
-CREATE INDEX IF NOT EXISTS idx_transfer_transactions_from_wallet ON transfer_transactions(from_wallet_id);
-CREATE INDEX IF NOT EXISTS idx_transfer_transactions_to_wallet ON transfer_transactions(to_wallet_id);
-CREATE INDEX IF NOT EXISTS idx_transfer_transactions_idempotency ON transfer_transactions(idempotency_key);
+CREATE INDEX IF NOT EXISTS idx_transfer_transactions_from_created ON transfer_transactions(from_wallet_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_transfer_transactions_to_created ON transfer_transactions(to_wallet_id, created_at, id);
+DROP INDEX IF EXISTS idx_transfer_transactions_from_wallet;
+DROP INDEX IF EXISTS idx_transfer_transactions_to_wallet;
+DROP INDEX IF EXISTS idx_transfer_transactions_idempotency;
 
--- Cached responses for idempotent transaction requests
-CREATE TABLE IF NOT EXISTS transaction_idempotency_responses (
-    id               BIGSERIAL    PRIMARY KEY,
-    idempotency_key  VARCHAR(255) NOT NULL UNIQUE,
-    transaction_id   BIGINT       NOT NULL,
-    wallet_id        BIGINT       NOT NULL,
-    balance          BIGINT       NOT NULL,
-    timestamp        TIMESTAMP    NOT NULL,
-    created_at       TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+-- Stored responses for idempotent requests, one row per key (see IdempotencyRecordCodec):
+-- key_hash is the first 16 bytes of SHA-256(operation || key), response is a fixed-width binary encoding.
+-- Existing databases migrate from the per-operation response tables with db/migrate-idempotency-records.sql.
+CREATE TABLE IF NOT EXISTS idempotency_records (
+    key_hash    BYTEA     PRIMARY KEY,
+    operation   SMALLINT  NOT NULL,
+    response    BYTEA     NOT NULL,
+    created_at  TIMESTAMP NOT NULL
+);
+
+-- The idempotency sweeper walks each operation's records in created_at order to delete expired ones
+CREATE INDEX IF NOT EXISTS idx_idempotency_records_created ON idempotency_records(operation, created_at);
+
+-- Leases on keys being executed right now, so a retry on another node waits for the first attempt
+-- instead of repeating its work (see IdempotencyCoalescer)
+CREATE TABLE IF NOT EXISTS idempotency_claims (
+    key_hash    BYTEA       PRIMARY KEY,
+    owner       VARCHAR(64) NOT NULL,
+    expires_at  TIMESTAMP   NOT NULL
 );
 
--- Cached responses for idempotent transfer requests
-CREATE TABLE IF NOT EXISTS transfer_idempotency_responses (
-    id               BIGSERIAL    PRIMARY KEY,
+-- Cross-shard transfers, on the sender's shard (see CrossShardTransferCoordinator); id is the transfer id
+CREATE TABLE IF NOT EXISTS transfer_sagas (
+    id               BIGINT       PRIMARY KEY,
     idempotency_key  VARCHAR(255) NOT NULL UNIQUE,
-    transfer_id      BIGINT       NOT NULL,
     from_wallet_id   BIGINT       NOT NULL,
-    from_balance     BIGINT       NOT NULL,
     to_wallet_id     BIGINT       NOT NULL,
-    to_balance       BIGINT       NOT NULL,
-    timestamp        TIMESTAMP    NOT NULL,
-    created_at       TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
-);
\ No newline at end of file
+    amount           BIGINT       NOT NULL,
+    from_balance     BIGINT       NOT NULL,
+    to_balance       BIGINT,
+    state            VARCHAR(16)  NOT NULL,
+    created_at       TIMESTAMP    NOT NULL
+);
+
+-- Recovery looks for PENDING sagas by age
+CREATE INDEX IF NOT EXISTS idx_transfer_sagas_state_created ON transfer_sagas(state, created_at);
+
+-- Balance changes waiting to be published (see OutboxRelay). The id is taken after the wallet row is
+-- locked, so a wallet's events are numbered in commit order; partition_id = wallet_id mod wallet.outbox.partitions.
+-- Ids come from a named sequence so that each shard can start it in its own range (see ShardingConfig) and
+-- event ids stay unique across shards; on PostgreSQL it is the sequence BIGSERIAL created for existing tables.
+CREATE SEQUENCE IF NOT EXISTS outbox_events_id_seq;
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id                      BIGINT     DEFAULT nextval('outbox_events_id_seq') PRIMARY KEY,
+    partition_id            SMALLINT   NOT NULL,
+    wallet_id               BIGINT     NOT NULL,
+    event_type              SMALLINT   NOT NULL,
+    entry_id                BIGINT     NOT NULL,
+    amount                  BIGINT     NOT NULL,
+    balance                 BIGINT     NOT NULL,
+    counterparty_wallet_id  BIGINT,
+    created_at              TIMESTAMP  NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_partition ON outbox_events(partition_id, id);
+
+-- One row per outbox partition; a relay locks it while publishing the partition's events
+CREATE TABLE IF NOT EXISTS outbox_partitions (
+    partition_id  SMALLINT  PRIMARY KEY
+);
+
+-- Balance slots of hot wallets (see HotWalletSlots): such a wallet's balance is wallets.balance plus the sum
+-- of its slots, so concurrent credits update different rows instead of queueing on the wallet's
+CREATE TABLE IF NOT EXISTS wallet_balance_slots (
+    wallet_id  BIGINT    NOT NULL,
+    slot       SMALLINT  NOT NULL,
+    balance    BIGINT    NOT NULL,
+    PRIMARY KEY (wallet_id, slot)
+);
+
+-- Reconciliation checkpoints: ledger_net is the net of the wallet's ledger entries created before
+-- covered_until, so the next run only reads entries from covered_until on
+CREATE TABLE IF NOT EXISTS wallet_balance_snapshots (
+    wallet_id      BIGINT     PRIMARY KEY,
+    ledger_net     BIGINT     NOT NULL,
+    covered_until  TIMESTAMP  NOT NULL,
+    taken_at       TIMESTAMP  NOT NULL
+);
+
+-- A single row (id 1) stamped by ReplicaLagMonitor; its value on a replica tells how far that replica has replayed
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    id           INT     PRIMARY KEY,
+    beat_millis  BIGINT  NOT NULL
+);
+
+-- Pooled sequence ids (see PooledSequence): Hibernate reserves wallet.id.allocation-size ids per nextval,
+-- so every sequence must advance by the same step. BIGSERIAL creates them with INCREMENT BY 1; the ALTERs
+-- migrate existing databases. Change the step here and in the property together.
+CREATE SEQUENCE IF NOT EXISTS wallets_id_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE wallets_id_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS wallet_transactions_id_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE wallet_transactions_id_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transfer_transactions_id_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE transfer_transactions_id_seq INCREMENT BY 50;
@@ -0,0 +1,168 @@
+package com.faith.wallet_service.reactive;
+
+import com.faith.wallet_service.reactive.config.ReactiveFeatureGuard;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = ReactiveWalletServiceApplication.class, properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-${random.uuid};DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+@ActiveProfiles(ReactiveWalletServiceApplication.PROFILE)
+class ReactiveWalletApiTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ReactiveFeatureGuard reactiveFeatureGuard;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToApplicationContext(applicationContext).build();
+    }
+
+    @Test
+    @DisplayName("Wallets are created and read with the same envelope as the MVC runtime")
+    void createAndGetWallet() {
+        long id = createWallet(100);
+
+        client.get().uri("/wallets/{id}", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("SUCCESS")
+                .jsonPath("$.message").isEqualTo("Wallet retrieved successfully")
+                .jsonPath("$.data.balance").isEqualTo(100);
+
+        client.get().uri("/wallets/{id}", 999_999).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Wallet not found with id 999999");
+
+        client.post().uri("/wallets").contentType(MediaType.APPLICATION_JSON).bodyValue("{}").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("initialBalance: Initial balance is required");
+    }
+
+    @Test
+    @DisplayName("Retried transaction keys replay the committed response; debits never overdraw")
+    void idempotentTransactions() {
+        long id = createWallet(10);
+        String credit = "{\"walletId\":" + id + ",\"amount\":5,\"type\":\"CREDIT\",\"idempotencyKey\":\"reactive-credit-" + id + "\"}";
+
+        String first = postTransaction(credit);
+        String replay = postTransaction(credit);
+        assertThat(JsonPath.<Number>read(first, "$.data.balance").longValue()).isEqualTo(15);
+        assertThat(JsonPath.<Object>read(replay, "$.data")).isEqualTo(JsonPath.read(first, "$.data"));
+
+        client.post().uri("/transactions").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"walletId\":" + id + ",\"amount\":500,\"type\":\"DEBIT\",\"idempotencyKey\":\"reactive-debit-" + id + "\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Insufficient balance");
+
+        client.post().uri("/transactions").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"walletId\":999999,\"amount\":5,\"type\":\"CREDIT\",\"idempotencyKey\":\"reactive-missing\"}")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Wallet not found");
+
+        client.get().uri("/wallets/{id}", id).exchange()
+                .expectBody().jsonPath("$.data.balance").isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Concurrent opposing transfers conserve money and replay by key")
+    void concurrentTransfers() {
+        long a = createWallet(1_000);
+        long b = createWallet(1_000);
+
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            long from = i % 2 == 0 ? a : b;
+            long to = i % 2 == 0 ? b : a;
+            calls.add(CompletableFuture.runAsync(() -> transfer(from, to, 7, UUID.randomUUID().toString())
+                    .expectStatus().isOk()));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+        String key = "reactive-transfer-" + a;
+        transfer(a, b, 100, key).expectStatus().isOk()
+                .expectBody().jsonPath("$.data.fromBalance").isEqualTo(900).jsonPath("$.data.toBalance").isEqualTo(1_100);
+        transfer(a, b, 100, key).expectStatus().isOk()
+                .expectBody().jsonPath("$.data.fromBalance").isEqualTo(900);
+
+        client.get().uri("/wallets/{id}", a).exchange().expectBody().jsonPath("$.data.balance").isEqualTo(900);
+        client.get().uri("/wallets/{id}", b).exchange().expectBody().jsonPath("$.data.balance").isEqualTo(1_100);
+    }
+
+    @Test
+    @DisplayName("The runtime refuses to start with the outbox or hot-wallet slots in use")
+    void refusesUnsupportedFeatures() {
+        assertThatThrownBy(() -> new ReactiveFeatureGuard(databaseClient, true, Set.of()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new ReactiveFeatureGuard(databaseClient, false, Set.of(1L)))
+                .isInstanceOf(IllegalStateException.class);
+
+        long id = createWallet(0);
+        databaseClient.sql("INSERT INTO wallet_balance_slots (wallet_id, slot, balance) VALUES (:id, 0, 0)")
+                .bind("id", id).then().block();
+        try {
+            assertThatThrownBy(reactiveFeatureGuard::checkBalanceSlots).isInstanceOf(IllegalStateException.class);
+        } finally {
+            databaseClient.sql("DELETE FROM wallet_balance_slots WHERE wallet_id = :id").bind("id", id).then().block();
+        }
+        reactiveFeatureGuard.checkBalanceSlots();
+    }
+
+    private long createWallet(long balance) {
+        String body = client.post().uri("/wallets").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"initialBalance\":" + balance + "}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+        assertThat(JsonPath.<String>read(body, "$.message")).isEqualTo("Wallet created successfully");
+        return JsonPath.<Number>read(body, "$.data.id").longValue();
+    }
+
+    private String postTransaction(String body) {
+        String response = client.post().uri("/transactions").contentType(MediaType.APPLICATION_JSON).bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+        assertThat(JsonPath.<String>read(response, "$.message")).isEqualTo("Transaction completed successfully");
+        return response;
+    }
+
+    private WebTestClient.ResponseSpec transfer(long from, long to, long amount, String key) {
+        return client.post().uri("/transactions/transfer").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"fromWalletId\":" + from + ",\"toWalletId\":" + to + ",\"amount\":" + amount
+                        + ",\"idempotencyKey\":\"" + key + "\"}")
+                .exchange();
+    }
+}
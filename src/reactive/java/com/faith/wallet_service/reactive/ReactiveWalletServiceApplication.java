@@ -0,0 +1,27 @@
+package com.faith.wallet_service.reactive;
+
+import com.faith.wallet_service.cache.IdempotencyCache;
+import com.faith.wallet_service.exception.GlobalExceptionHandler;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Entry point for the reactive runtime: the same /wallets and /transactions contracts served by WebFlux over
+ * R2DBC, for partners that hold many slow connections open. Build with {@code -Preactive}; the reactive
+ * profile (application-reactive.properties) switches off the JDBC/JPA stack.
+ */
+@SpringBootApplication
+@Import({IdempotencyCache.class, GlobalExceptionHandler.class})
+public class ReactiveWalletServiceApplication {
+
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveWalletServiceApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE)
+                .run(args);
+    }
+}
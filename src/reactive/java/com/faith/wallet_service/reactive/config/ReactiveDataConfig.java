@@ -0,0 +1,26 @@
+package com.faith.wallet_service.reactive.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.relational.core.mapping.DefaultNamingStrategy;
+import org.springframework.data.relational.core.mapping.NamingStrategy;
+
+@Configuration
+public class ReactiveDataConfig {
+
+    /**
+     * Unquoted identifiers, as in schema.sql and the JPA mappings; quoted ones are case-sensitive and would
+     * not match the tables H2 creates in upper case.
+     */
+    @Bean
+    public R2dbcMappingContext r2dbcMappingContext(ObjectProvider<NamingStrategy> namingStrategy,
+                                                   R2dbcCustomConversions conversions) {
+        R2dbcMappingContext context = new R2dbcMappingContext(namingStrategy.getIfAvailable(() -> DefaultNamingStrategy.INSTANCE));
+        context.setForceQuote(false);
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        return context;
+    }
+}
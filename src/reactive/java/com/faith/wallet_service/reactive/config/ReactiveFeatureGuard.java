@@ -0,0 +1,47 @@
+package com.faith.wallet_service.reactive.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Refuses to run the reactive runtime where its write path would be wrong: it writes no outbox events
+ * and credits and debits the wallet row only, without the balance slots of hot wallets. Both features
+ * are checked in this node's configuration, and slots also in the database, since they are normally
+ * configured on the servlet nodes that share it.
+ */
+@Component
+public class ReactiveFeatureGuard {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveFeatureGuard(DatabaseClient databaseClient,
+                                @Value("${wallet.outbox.enabled:false}") boolean outboxEnabled,
+                                @Value("${wallet.hot-wallets.ids:}") Set<Long> hotWallets) {
+        if (outboxEnabled) {
+            throw new IllegalStateException("The reactive runtime does not write outbox events; unset wallet.outbox.enabled");
+        }
+        if (!hotWallets.isEmpty()) {
+            throw new IllegalStateException("The reactive runtime does not support balance slots; unset wallet.hot-wallets.ids");
+        }
+        this.databaseClient = databaseClient;
+    }
+
+    /** Runs once schema.sql has been applied, so the slots table exists. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkBalanceSlots() {
+        Long slots = databaseClient.sql("SELECT COUNT(*) FROM wallet_balance_slots")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block(Duration.ofSeconds(30));
+        if (slots != null && slots > 0) {
+            throw new IllegalStateException("The database has hot-wallet balance slots, which the reactive runtime "
+                    + "does not support; remove the wallets from wallet.hot-wallets.ids on every node first");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.faith.wallet_service.reactive.controller;
+
+import com.faith.wallet_service.commons.ResultWrapper;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.dto.TransferRequest;
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.reactive.service.ReactiveTransactionService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/transactions")
+public class ReactiveTransactionController {
+
+    private final ReactiveTransactionService transactionService;
+
+    public ReactiveTransactionController(ReactiveTransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ResultWrapper<TransactionResponse>>> transact(@Valid @RequestBody TransactionRequest request) {
+        return transactionService.applyTransaction(request).map(response -> {
+            ResultWrapper<TransactionResponse> result = new ResultWrapper<>();
+            result.setStatus(ResultWrapper.ResultStatus.SUCCESS);
+            result.setMessage("Transaction completed successfully");
+            result.setData(response);
+            return ResponseEntity.ok(result);
+        });
+    }
+
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<ResultWrapper<TransferResponse>>> transfer(@Valid @RequestBody TransferRequest request) {
+        return transactionService.transfer(request).map(response -> {
+            ResultWrapper<TransferResponse> result = new ResultWrapper<>();
+            result.setStatus(ResultWrapper.ResultStatus.SUCCESS);
+            result.setMessage("Transfer completed successfully");
+            result.setData(response);
+            return ResponseEntity.ok(result);
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.faith.wallet_service.reactive.controller;
+
+import com.faith.wallet_service.commons.ResultWrapper;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.reactive.entity.WalletRecord;
+import com.faith.wallet_service.reactive.service.ReactiveWalletService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/wallets")
+public class ReactiveWalletController {
+
+    private final ReactiveWalletService walletService;
+
+    public ReactiveWalletController(ReactiveWalletService walletService) {
+        this.walletService = walletService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ResultWrapper<WalletRecord>>> createWallet(@Valid @RequestBody CreateWalletRequest request) {
+        return walletService.createWallet(request).map(wallet -> {
+            ResultWrapper<WalletRecord> result = new ResultWrapper<>();
+            result.setStatus(ResultWrapper.ResultStatus.SUCCESS);
+            result.setMessage("Wallet created successfully");
+            result.setData(wallet);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ResultWrapper<WalletRecord>>> getWallet(@PathVariable Long id) {
+        return walletService.getWallet(id).map(wallet -> {
+            ResultWrapper<WalletRecord> result = new ResultWrapper<>();
+            result.setStatus(ResultWrapper.ResultStatus.SUCCESS);
+            result.setMessage("Wallet retrieved successfully");
+            result.setData(wallet);
+            return ResponseEntity.ok(result);
+        });
+    }
+}
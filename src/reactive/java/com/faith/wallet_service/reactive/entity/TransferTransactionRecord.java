@@ -0,0 +1,11 @@
+package com.faith.wallet_service.reactive.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Table("transfer_transactions")
+public record TransferTransactionRecord(@Id Long id, Long fromWalletId, Long toWalletId, Long amount,
+                                        String idempotencyKey, LocalDateTime createdAt) {
+}
@@ -0,0 +1,13 @@
+package com.faith.wallet_service.reactive.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/** Row of {@code wallets}; serialises like the JPA {@code Wallet}. */
+@Table("wallets")
+public record WalletRecord(@Id Long id, Long balance, String description, LocalDateTime createdAt,
+                           @JsonIgnore Long openingBalance) {
+}
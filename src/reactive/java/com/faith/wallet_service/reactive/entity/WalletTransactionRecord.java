@@ -0,0 +1,12 @@
+package com.faith.wallet_service.reactive.entity;
+
+import com.faith.wallet_service.enums.TransactionType;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Table("wallet_transactions")
+public record WalletTransactionRecord(@Id Long id, Long walletId, Long amount, TransactionType type,
+                                      String idempotencyKey, LocalDateTime createdAt) {
+}
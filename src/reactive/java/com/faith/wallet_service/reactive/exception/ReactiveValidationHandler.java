@@ -0,0 +1,36 @@
+package com.faith.wallet_service.reactive.exception;
+
+import com.faith.wallet_service.exception.ErrorDetails;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+/**
+ * WebFlux reports bean-validation failures as {@link WebExchangeBindException}; this formats them like
+ * {@code GlobalExceptionHandler.handleValidation}, ahead of its catch-all handler.
+ */
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveValidationHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorDetails> handleValidation(WebExchangeBindException e) {
+        String message = e.getBindingResult().getFieldErrors().stream()
+                .map(err -> err.getField() + ": " + err.getDefaultMessage())
+                .collect(Collectors.joining("; "));
+        return ResponseEntity.badRequest().body(
+                ErrorDetails.builder()
+                        .statusCode(HttpStatus.BAD_REQUEST.value())
+                        .message(message)
+                        .time(LocalDateTime.now())
+                        .httpStatus(HttpStatus.BAD_REQUEST)
+                        .build());
+    }
+}
@@ -0,0 +1,68 @@
+package com.faith.wallet_service.reactive.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out ids from the same pooled sequences as {@code PooledSequenceGenerator}, with the same block
+ * arithmetic as Hibernate's pooled optimizer, so reactive and JPA nodes can share one database. One
+ * {@code nextval} reserves {@code allocation-size} ids; blocks are never shared between callers.
+ */
+@Component
+public class ReactiveIdAllocator {
+
+    private static final long INITIAL_VALUE = 1;
+
+    private final DatabaseClient databaseClient;
+    private final int allocationSize;
+    private final ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public ReactiveIdAllocator(DatabaseClient databaseClient,
+                               @Value("${spring.jpa.properties.wallet.id.allocation-size:50}") int allocationSize) {
+        this.databaseClient = databaseClient;
+        this.allocationSize = allocationSize;
+    }
+
+    public Mono<Long> nextId(String sequence) {
+        Block block = blocks.get(sequence);
+        if (block != null) {
+            long id = block.next.getAndIncrement();
+            if (id <= block.hi) {
+                return Mono.just(id);
+            }
+        }
+        return nextValue(sequence).flatMap(value -> {
+            if (value == INITIAL_VALUE) {
+                // Fresh sequence: Hibernate treats the first value as the low end and asks again for the high end
+                return nextValue(sequence).map(hi -> new Block(value, hi));
+            }
+            return Mono.just(new Block(value - allocationSize + 1, value));
+        }).map(fresh -> {
+            long id = fresh.next.getAndIncrement();
+            blocks.put(sequence, fresh);
+            return id;
+        });
+    }
+
+    private Mono<Long> nextValue(String sequence) {
+        boolean h2 = databaseClient.getConnectionFactory().getMetadata().getName().toLowerCase(Locale.ROOT).contains("h2");
+        String sql = h2 ? "SELECT NEXT VALUE FOR " + sequence : "SELECT nextval('" + sequence + "')";
+        return databaseClient.sql(sql).map(row -> row.get(0, Long.class)).one();
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long hi;
+
+        Block(long lo, long hi) {
+            this.next = new AtomicLong(lo);
+            this.hi = hi;
+        }
+    }
+}
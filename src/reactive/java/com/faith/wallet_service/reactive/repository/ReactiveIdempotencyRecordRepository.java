@@ -0,0 +1,58 @@
+package com.faith.wallet_service.reactive.repository;
+
+import com.faith.wallet_service.commons.IdempotencyRecordCodec;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.enums.IdempotencyOperation;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive counterpart of {@code IdempotencyRecordRepository}: the same hashed keys and encoded
+ * responses, so reactive and servlet nodes replay each other's records.
+ */
+@Component
+public class ReactiveIdempotencyRecordRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveIdempotencyRecordRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<TransactionResponse> findTransaction(String key) {
+        return findResponse(IdempotencyOperation.TRANSACTION, key).map(IdempotencyRecordCodec::decodeTransaction);
+    }
+
+    public Mono<TransferResponse> findTransfer(String key) {
+        return findResponse(IdempotencyOperation.TRANSFER, key).map(IdempotencyRecordCodec::decodeTransfer);
+    }
+
+    public Mono<Void> insertTransaction(String key, TransactionResponse response) {
+        return insert(IdempotencyOperation.TRANSACTION, key, IdempotencyRecordCodec.encode(response), response.getTimestamp());
+    }
+
+    public Mono<Void> insertTransfer(String key, TransferResponse response) {
+        return insert(IdempotencyOperation.TRANSFER, key, IdempotencyRecordCodec.encode(response), response.getTimestamp());
+    }
+
+    private Mono<byte[]> findResponse(IdempotencyOperation operation, String key) {
+        return databaseClient.sql("SELECT response FROM idempotency_records WHERE key_hash = :keyHash")
+                .bind("keyHash", IdempotencyRecordCodec.keyHash(operation, key))
+                .map(row -> row.get("response", byte[].class))
+                .one();
+    }
+
+    private Mono<Void> insert(IdempotencyOperation operation, String key, byte[] response, LocalDateTime createdAt) {
+        return databaseClient.sql("INSERT INTO idempotency_records (key_hash, operation, response, created_at) "
+                        + "VALUES (:keyHash, :operation, :response, :createdAt)")
+                .bind("keyHash", IdempotencyRecordCodec.keyHash(operation, key))
+                .bind("operation", operation.getCode())
+                .bind("response", response)
+                .bind("createdAt", createdAt)
+                .then();
+    }
+}
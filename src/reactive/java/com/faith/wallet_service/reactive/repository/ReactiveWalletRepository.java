@@ -0,0 +1,37 @@
+package com.faith.wallet_service.reactive.repository;
+
+import com.faith.wallet_service.reactive.entity.WalletRecord;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Reactive counterpart of {@code WalletRepository}: the same conditional updates and lock order.
+ */
+public interface ReactiveWalletRepository extends R2dbcRepository<WalletRecord, Long> {
+
+    @Modifying
+    @Query("UPDATE wallets SET balance = balance + :amount WHERE id = :id")
+    Mono<Integer> credit(Long id, long amount);
+
+    // Only matches when the wallet can cover the debit, so the check and the write are one atomic statement
+    @Modifying
+    @Query("UPDATE wallets SET balance = balance - :amount WHERE id = :id AND balance >= :amount")
+    Mono<Integer> debit(Long id, long amount);
+
+    @Query("SELECT balance FROM wallets WHERE id = :id")
+    Mono<Long> findBalanceById(Long id);
+
+    // Rows are locked in ascending id order so opposing transfers wait on each other instead of deadlocking
+    @Query("SELECT * FROM wallets WHERE id IN (:ids) ORDER BY id FOR UPDATE")
+    Flux<WalletRecord> lockAllByIdOrdered(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE wallets SET balance = CASE WHEN id = :fromId THEN balance - :amount ELSE balance + :amount END "
+            + "WHERE id IN (:fromId, :toId)")
+    Mono<Integer> transfer(Long fromId, Long toId, long amount);
+}
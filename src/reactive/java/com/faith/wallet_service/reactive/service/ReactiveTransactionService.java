@@ -0,0 +1,13 @@
+package com.faith.wallet_service.reactive.service;
+
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.dto.TransferRequest;
+import com.faith.wallet_service.dto.TransferResponse;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveTransactionService {
+    Mono<TransactionResponse> applyTransaction(TransactionRequest request);
+
+    Mono<TransferResponse> transfer(TransferRequest request);
+}
@@ -0,0 +1,11 @@
+package com.faith.wallet_service.reactive.service;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.reactive.entity.WalletRecord;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveWalletService {
+    Mono<WalletRecord> createWallet(CreateWalletRequest request);
+
+    Mono<WalletRecord> getWallet(Long id);
+}
@@ -0,0 +1,234 @@
+package com.faith.wallet_service.reactive.serviceImpl;
+
+import com.faith.wallet_service.cache.IdempotencyCache;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.dto.TransferRequest;
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.exception.DuplicateTransactionException;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.exception.WalletNotFoundException;
+import com.faith.wallet_service.reactive.entity.TransferTransactionRecord;
+import com.faith.wallet_service.reactive.entity.WalletRecord;
+import com.faith.wallet_service.reactive.entity.WalletTransactionRecord;
+import com.faith.wallet_service.reactive.repository.ReactiveIdAllocator;
+import com.faith.wallet_service.reactive.repository.ReactiveIdempotencyRecordRepository;
+import com.faith.wallet_service.reactive.repository.ReactiveWalletRepository;
+import com.faith.wallet_service.reactive.service.ReactiveTransactionService;
+import com.faith.wallet_service.serviceImpl.TransferExecutor;
+import io.r2dbc.spi.R2dbcException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reactive port of {@code TransactionServiceImpl}: the same idempotency flow (local cache, Bloom filter,
+ * stored records, the record's primary key as the final arbiter), the same conditional updates and the same
+ * error messages, without blocking a thread per request.
+ */
+@Service
+public class ReactiveTransactionServiceImpl implements ReactiveTransactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveTransactionServiceImpl.class);
+
+    // PostgreSQL: serialization_failure and deadlock_detected
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private static final String DEADLOCK_DETECTED = "40P01";
+
+    private final ReactiveWalletRepository walletRepository;
+    private final ReactiveIdempotencyRecordRepository idempotencyRecordRepository;
+    private final ReactiveIdAllocator idAllocator;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final IdempotencyCache idempotencyCache;
+    private final TransactionalOperator transactionalOperator;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+
+    public ReactiveTransactionServiceImpl(ReactiveWalletRepository walletRepository,
+                                          ReactiveIdempotencyRecordRepository idempotencyRecordRepository,
+                                          ReactiveIdAllocator idAllocator,
+                                          R2dbcEntityTemplate entityTemplate,
+                                          IdempotencyCache idempotencyCache,
+                                          ReactiveTransactionManager transactionManager,
+                                          @Value("${wallet.transfer.max-attempts:5}") int maxAttempts,
+                                          @Value("${wallet.transfer.initial-backoff-ms:10}") long initialBackoffMillis) {
+        this.walletRepository = walletRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.idAllocator = idAllocator;
+        this.entityTemplate = entityTemplate;
+        this.idempotencyCache = idempotencyCache;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMillis);
+    }
+
+    @Override
+    public Mono<TransactionResponse> applyTransaction(TransactionRequest request) {
+        String key = request.getIdempotencyKey();
+
+        // Committed responses for retried keys are answered from memory
+        TransactionResponse cached = idempotencyCache.getTransaction(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        // Keys this node has never seen skip the store lookup; the record's primary key catches real duplicates
+        boolean storeChecked = idempotencyCache.mightHaveTransaction(key);
+        Mono<TransactionResponse> stored = storeChecked ? findStoredTransaction(key) : Mono.empty();
+
+        return stored.switchIfEmpty(Mono.defer(() -> executeTransaction(request)
+                        .as(transactionalOperator::transactional)
+                        .doOnNext(response -> idempotencyCache.putTransaction(key, response))))
+                .onErrorResume(DataIntegrityViolationException.class, e -> findStoredTransaction(key)
+                        // Another request with this key committed first
+                        .switchIfEmpty(Mono.error(() -> new DuplicateTransactionException("Transaction already applied"))))
+                .onErrorResume(e -> !storeChecked && (e instanceof InsufficientBalanceException || e instanceof WalletNotFoundException),
+                        // The key may have been committed before a restart or on another node
+                        e -> findStoredTransaction(key).switchIfEmpty(Mono.error(e)));
+    }
+
+    private Mono<TransactionResponse> executeTransaction(TransactionRequest request) {
+        Long walletId = request.getWalletId();
+        long amount = request.getAmount();
+
+        // Conditional atomic update: no lost updates and no negative balance under concurrent requests
+        Mono<Long> balance = request.getType() == TransactionType.DEBIT
+                ? walletRepository.debit(walletId, amount).flatMap(updated -> updated == 0
+                        // No row matched: either the wallet does not exist or it cannot cover the amount
+                        ? walletRepository.existsById(walletId).flatMap(exists -> Mono.error(exists
+                                ? new InsufficientBalanceException("Insufficient balance")
+                                : new WalletNotFoundException("Wallet not found")))
+                        : currentBalance(walletId))
+                : walletRepository.credit(walletId, amount).flatMap(updated -> updated == 0
+                        ? Mono.error(new WalletNotFoundException("Wallet not found"))
+                        : currentBalance(walletId));
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return balance.flatMap(newBalance -> idAllocator.nextId("wallet_transactions_id_seq")
+                .flatMap(id -> entityTemplate.insert(new WalletTransactionRecord(id, walletId, amount,
+                        request.getType(), request.getIdempotencyKey(), now)))
+                .flatMap(tx -> {
+                    TransactionResponse response = new TransactionResponse(tx.id(), walletId, newBalance, now);
+                    return idempotencyRecordRepository.insertTransaction(request.getIdempotencyKey(), response)
+                            .thenReturn(response);
+                }));
+    }
+
+    private Mono<Long> currentBalance(Long walletId) {
+        return walletRepository.findBalanceById(walletId)
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found")));
+    }
+
+    @Override
+    public Mono<TransferResponse> transfer(TransferRequest request) {
+        String key = request.getIdempotencyKey();
+
+        TransferResponse cached = idempotencyCache.getTransfer(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        boolean storeChecked = idempotencyCache.mightHaveTransfer(key);
+        Mono<TransferResponse> stored = storeChecked ? findStoredTransfer(key) : Mono.empty();
+
+        return stored.switchIfEmpty(Mono.defer(() -> executeTransfer(request)
+                        .as(transactionalOperator::transactional)
+                        // Each attempt runs in a fresh transaction; full jitter keeps collided transfers apart
+                        .retryWhen(Retry.backoff(maxAttempts - 1, initialBackoff)
+                                .jitter(1.0)
+                                .filter(ReactiveTransactionServiceImpl::isLockConflict)
+                                .doBeforeRetry(signal -> log.info("Retrying transfer after lock conflict, attempt {}",
+                                        signal.totalRetries() + 2))
+                                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                        .doOnNext(response -> idempotencyCache.putTransfer(key, response))))
+                .onErrorResume(DataIntegrityViolationException.class, e -> findStoredTransfer(key)
+                        .switchIfEmpty(Mono.error(() -> new DuplicateTransactionException("Transfer already applied"))))
+                .onErrorResume(e -> !storeChecked && (e instanceof InsufficientBalanceException || e instanceof WalletNotFoundException),
+                        e -> findStoredTransfer(key).switchIfEmpty(Mono.error(e)));
+    }
+
+    private Mono<TransferResponse> executeTransfer(TransferRequest request) {
+        Long fromId = request.getFromWalletId();
+        Long toId = request.getToWalletId();
+        long amount = request.getAmount();
+
+        // One round trip locks both rows, always in ascending id order
+        return walletRepository.lockAllByIdOrdered(List.of(fromId, toId))
+                .collect(Collectors.toMap(WalletRecord::id, Function.identity()))
+                .flatMap(locked -> {
+                    WalletRecord from = locked.get(fromId);
+                    if (from == null) {
+                        return Mono.error(new WalletNotFoundException("Sender wallet not found"));
+                    }
+                    WalletRecord to = locked.get(toId);
+                    if (to == null) {
+                        return Mono.error(new WalletNotFoundException("Receiver wallet not found"));
+                    }
+                    if (from.balance() < amount) {
+                        return Mono.error(new InsufficientBalanceException("Insufficient balance"));
+                    }
+                    return applyTransfer(request, locked);
+                });
+    }
+
+    private Mono<TransferResponse> applyTransfer(TransferRequest request, Map<Long, WalletRecord> locked) {
+        Long fromId = request.getFromWalletId();
+        Long toId = request.getToWalletId();
+        long amount = request.getAmount();
+        boolean selfTransfer = fromId.equals(toId);
+
+        // Both rows are locked, so the new balances follow directly from what was read
+        long fromBalance = locked.get(fromId).balance() - (selfTransfer ? 0 : amount);
+        long toBalance = locked.get(toId).balance() + (selfTransfer ? 0 : amount);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        Mono<Integer> update = selfTransfer ? Mono.just(0) : walletRepository.transfer(fromId, toId, amount);
+        return update.then(idAllocator.nextId("transfer_transactions_id_seq"))
+                .flatMap(id -> entityTemplate.insert(new TransferTransactionRecord(id, fromId, toId, amount,
+                        request.getIdempotencyKey(), now)))
+                .flatMap(transferTx -> {
+                    TransferResponse response = new TransferResponse(transferTx.id(), fromId, fromBalance, toId, toBalance, now);
+                    return idempotencyRecordRepository.insertTransfer(request.getIdempotencyKey(), response)
+                            .thenReturn(response);
+                });
+    }
+
+    private Mono<TransactionResponse> findStoredTransaction(String key) {
+        return idempotencyRecordRepository.findTransaction(key)
+                .doOnNext(response -> idempotencyCache.putTransaction(key, response));
+    }
+
+    private Mono<TransferResponse> findStoredTransfer(String key) {
+        return idempotencyRecordRepository.findTransfer(key)
+                .doOnNext(response -> idempotencyCache.putTransfer(key, response));
+    }
+
+    private static boolean isLockConflict(Throwable e) {
+        if (TransferExecutor.isLockConflict(e)) {
+            return true;
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof R2dbcException r2dbc
+                    && (SERIALIZATION_FAILURE.equals(r2dbc.getSqlState()) || DEADLOCK_DETECTED.equals(r2dbc.getSqlState()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
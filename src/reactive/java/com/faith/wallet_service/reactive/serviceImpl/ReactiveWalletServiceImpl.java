@@ -0,0 +1,43 @@
+package com.faith.wallet_service.reactive.serviceImpl;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.exception.WalletNotFoundException;
+import com.faith.wallet_service.reactive.entity.WalletRecord;
+import com.faith.wallet_service.reactive.repository.ReactiveIdAllocator;
+import com.faith.wallet_service.reactive.repository.ReactiveWalletRepository;
+import com.faith.wallet_service.reactive.service.ReactiveWalletService;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Service
+public class ReactiveWalletServiceImpl implements ReactiveWalletService {
+
+    private final ReactiveWalletRepository walletRepository;
+    private final ReactiveIdAllocator idAllocator;
+    private final R2dbcEntityTemplate entityTemplate;
+
+    public ReactiveWalletServiceImpl(ReactiveWalletRepository walletRepository,
+                                     ReactiveIdAllocator idAllocator,
+                                     R2dbcEntityTemplate entityTemplate) {
+        this.walletRepository = walletRepository;
+        this.idAllocator = idAllocator;
+        this.entityTemplate = entityTemplate;
+    }
+
+    @Override
+    public Mono<WalletRecord> createWallet(CreateWalletRequest request) {
+        return idAllocator.nextId("wallets_id_seq")
+                .flatMap(id -> entityTemplate.insert(new WalletRecord(id, request.getInitialBalance(),
+                        request.getDescription(), LocalDateTime.now().truncatedTo(ChronoUnit.MICROS), request.getInitialBalance())));
+    }
+
+    @Override
+    public Mono<WalletRecord> getWallet(Long id) {
+        return walletRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found with id " + id)));
+    }
+}
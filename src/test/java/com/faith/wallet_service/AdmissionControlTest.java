@@ -0,0 +1,78 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.config.AdmissionControlInterceptor;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "wallet.admission.enabled=true",
+        "wallet.admission.max-concurrent=1",
+        "wallet.admission.acquire-timeout=10ms"
+})
+class AdmissionControlTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private AdmissionControlInterceptor admissionControlInterceptor;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    @DisplayName("Requests beyond the admission limit are shed with 503 and admitted again once a permit frees up")
+    void shedsRequestsAtCapacity() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        // Hold the only permit as an in-flight request would
+        MockHttpServletRequest inFlight = new MockHttpServletRequest();
+        MockHttpServletResponse inFlightResponse = new MockHttpServletResponse();
+        admissionControlInterceptor.preHandle(inFlight, inFlightResponse, new Object());
+        assertThat(admissionControlInterceptor.getInFlight()).isEqualTo(1);
+
+        mockMvc.perform(get("/wallets/999999"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Service is at capacity, retry shortly"));
+        assertThat(admissionControlInterceptor.getRejectedCount()).isEqualTo(1);
+
+        admissionControlInterceptor.afterCompletion(inFlight, inFlightResponse, new Object(), null);
+        mockMvc.perform(get("/wallets/999999"))
+                .andExpect(status().isNotFound());
+        assertThat(admissionControlInterceptor.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("A streamed statement holds its permit until the stream ends and is not re-admitted on async dispatch")
+    void holdsPermitForAsyncRequests() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        Long walletId = walletService.createWallet(new CreateWalletRequest(0L, "admission-stream")).getId();
+        long rejectedBefore = admissionControlInterceptor.getRejectedCount();
+
+        MvcResult started = mockMvc.perform(get("/wallets/" + walletId + "/statement"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(admissionControlInterceptor.getInFlight()).isEqualTo(1);
+
+        // The only permit is taken, yet the re-dispatch that finishes the stream is not refused
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        assertThat(admissionControlInterceptor.getInFlight()).isZero();
+        assertThat(admissionControlInterceptor.getRejectedCount()).isEqualTo(rejectedBefore);
+    }
+}
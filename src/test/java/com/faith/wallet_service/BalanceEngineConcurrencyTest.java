@@ -0,0 +1,87 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BalanceEngineConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 200;
+    private static final long INITIAL_BALANCE = 1_000L;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    @DisplayName("Concurrent credits and debits on one wallet lose no updates and never overdraw")
+    void concurrentCreditsAndDebitsLoseNoUpdates() throws Exception {
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(INITIAL_BALANCE, "Hot wallet"));
+        AtomicLong expectedDelta = new AtomicLong();
+        AtomicLong rejectedDebits = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    // Debits outweigh credits so the wallet regularly runs dry and the balance check is exercised
+                    boolean debit = i % 2 == 0;
+                    long amount = debit ? 7 : 5;
+                    try {
+                        transactionService.applyTransaction(request(wallet.getId(), amount, debit));
+                        expectedDelta.addAndGet(debit ? -amount : amount);
+                    } catch (InsufficientBalanceException e) {
+                        rejectedDebits.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        long balance = walletService.getWallet(wallet.getId()).getBalance();
+        assertThat(balance).isEqualTo(INITIAL_BALANCE + expectedDelta.get());
+        assertThat(balance).isGreaterThanOrEqualTo(0);
+        assertThat(rejectedDebits.get()).isPositive();
+    }
+
+    private TransactionRequest request(Long walletId, long amount, boolean debit) {
+        TransactionRequest request = new TransactionRequest();
+        request.setWalletId(walletId);
+        request.setAmount(amount);
+        request.setType(debit ? TransactionType.DEBIT : TransactionType.CREDIT);
+        request.setIdempotencyKey(UUID.randomUUID().toString());
+        return request;
+    }
+}
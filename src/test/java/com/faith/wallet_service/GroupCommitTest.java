@@ -0,0 +1,218 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.cache.IdempotencyCache;
+import com.faith.wallet_service.cache.WalletCache;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionBatchItemResult;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.exception.ServiceOverloadedException;
+import com.faith.wallet_service.exception.WalletNotFoundException;
+import com.faith.wallet_service.repository.IdempotencyRecordRepository;
+import com.faith.wallet_service.repository.TransactionRepository;
+import com.faith.wallet_service.repository.WalletRepository;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import com.faith.wallet_service.serviceImpl.HotWalletSlots;
+import com.faith.wallet_service.serviceImpl.OutboxWriter;
+import com.faith.wallet_service.serviceImpl.TransactionBatchProcessor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.faith.wallet_service.TestRequests.transaction;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "wallet.group-commit.enabled=true",
+        "wallet.group-commit.shards=2",
+        "wallet.group-commit.max-delay-ms=20",
+        "wallet.group-commit.max-wait=2s"
+})
+class GroupCommitTest {
+
+    private static final int THREADS = 16;
+    private static final int CREDITS_PER_THREAD = 25;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private FaultyBatchProcessor faultyBatchProcessor;
+
+    @Test
+    @DisplayName("Concurrent credits share commits and every one of them is applied exactly once")
+    void concurrentCreditsShareCommits() throws Exception {
+        List<Long> walletIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            walletIds.add(walletService.createWallet(new CreateWalletRequest(0L, "group-" + i)).getId());
+        }
+        DistributionSummary batches = meterRegistry.get("wallet.group_commit.batch.size").summary();
+        long batchesBefore = batches.count();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Long walletId = walletIds.get(t % walletIds.size());
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < CREDITS_PER_THREAD; i++) {
+                    transactionService.applyTransaction(transaction(walletId, TransactionType.CREDIT, 1L));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        long perWallet = (long) THREADS / walletIds.size() * CREDITS_PER_THREAD;
+        for (Long walletId : walletIds) {
+            assertThat(walletService.getWallet(walletId).getBalance()).isEqualTo(perWallet);
+        }
+        // Fewer commits than transactions means callers shared them
+        assertThat(batches.count() - batchesBefore).isLessThan((long) THREADS * CREDITS_PER_THREAD);
+        assertThat(batches.max()).isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("Grouped transactions keep single-request errors and replays")
+    void keepsErrorsAndReplays() {
+        Long walletId = walletService.createWallet(new CreateWalletRequest(10L, "group-errors")).getId();
+        String key = UUID.randomUUID().toString();
+
+        TransactionResponse first = transactionService.applyTransaction(transaction(walletId, TransactionType.DEBIT, 4L, key));
+        TransactionResponse retry = transactionService.applyTransaction(transaction(walletId, TransactionType.DEBIT, 4L, key));
+
+        assertThat(first.getBalance()).isEqualTo(6L);
+        assertThat(retry.getTransactionId()).isEqualTo(first.getTransactionId());
+        assertThatThrownBy(() -> transactionService.applyTransaction(
+                transaction(walletId, TransactionType.DEBIT, 50L)))
+                .isInstanceOf(InsufficientBalanceException.class)
+                .hasMessage("Insufficient balance");
+        assertThatThrownBy(() -> transactionService.applyTransaction(
+                transaction(999_999_999L, TransactionType.CREDIT, 1L)))
+                .isInstanceOf(WalletNotFoundException.class)
+                .hasMessage("Wallet not found");
+        assertThat(walletService.getWallet(walletId).getBalance()).isEqualTo(6L);
+    }
+
+    @Test
+    @DisplayName("A batch that dies with an Error fails its callers and the writer keeps committing")
+    void survivesErrorInBatch() {
+        Long walletId = walletService.createWallet(new CreateWalletRequest(0L, "group-fault")).getId();
+
+        faultyBatchProcessor.error = true;
+        assertThatThrownBy(() -> transactionService.applyTransaction(
+                transaction(walletId, TransactionType.CREDIT, 5L)))
+                .hasRootCauseInstanceOf(AssertionError.class);
+
+        transactionService.applyTransaction(transaction(walletId, TransactionType.CREDIT, 7L));
+        assertThat(walletService.getWallet(walletId).getBalance()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("A caller whose group commit stalls gets 503 after max-wait, and its retry replays the late commit")
+    void stalledCommitTimesOut() throws Exception {
+        Long walletId = walletService.createWallet(new CreateWalletRequest(0L, "group-stall")).getId();
+        TransactionRequest request = transaction(walletId, TransactionType.CREDIT, 3L);
+
+        CountDownLatch stall = new CountDownLatch(1);
+        faultyBatchProcessor.stall = stall;
+        try {
+            assertThatThrownBy(() -> transactionService.applyTransaction(request))
+                    .isInstanceOf(ServiceOverloadedException.class);
+        } finally {
+            faultyBatchProcessor.stall = null;
+            stall.countDown();
+        }
+
+        TransactionResponse retry = null;
+        for (int attempt = 0; attempt < 50 && retry == null; attempt++) {
+            try {
+                retry = transactionService.applyTransaction(request);
+            } catch (ServiceOverloadedException e) {
+                Thread.sleep(100);
+            }
+        }
+        assertThat(retry).isNotNull();
+        assertThat(retry.getBalance()).isEqualTo(3L);
+        assertThat(walletService.getWallet(walletId).getBalance()).isEqualTo(3L);
+    }
+
+    /** The real processor, which a test can make throw an Error or block before its next batch. */
+    static class FaultyBatchProcessor extends TransactionBatchProcessor {
+        volatile boolean error;
+        volatile CountDownLatch stall;
+
+        FaultyBatchProcessor(WalletRepository walletRepository, TransactionRepository transactionRepository,
+                             IdempotencyRecordRepository idempotencyRecordRepository, IdempotencyCache idempotencyCache,
+                             WalletCache walletCache, PlatformTransactionManager transactionManager,
+                             OutboxWriter outboxWriter, HotWalletSlots hotWalletSlots) {
+            super(walletRepository, transactionRepository, idempotencyRecordRepository, idempotencyCache, walletCache,
+                    transactionManager, outboxWriter, hotWalletSlots);
+        }
+
+        @Override
+        public List<TransactionBatchItemResult> process(List<TransactionRequest> requests) {
+            if (error) {
+                error = false;
+                throw new AssertionError("Simulated writer fault");
+            }
+            CountDownLatch latch = stall;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.process(requests);
+        }
+    }
+
+    @TestConfiguration
+    static class ProcessorConfig {
+        @Bean
+        @Primary
+        FaultyBatchProcessor faultyBatchProcessor(WalletRepository walletRepository,
+                                                  TransactionRepository transactionRepository,
+                                                  IdempotencyRecordRepository idempotencyRecordRepository,
+                                                  IdempotencyCache idempotencyCache,
+                                                  WalletCache walletCache,
+                                                  PlatformTransactionManager transactionManager,
+                                                  OutboxWriter outboxWriter,
+                                                  HotWalletSlots hotWalletSlots) {
+            return new FaultyBatchProcessor(walletRepository, transactionRepository, idempotencyRecordRepository,
+                    idempotencyCache, walletCache, transactionManager, outboxWriter, hotWalletSlots);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionBatchItemResult;
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.faith.wallet_service.TestRequests.transaction;
+import static com.faith.wallet_service.TestRequests.transfer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "wallet.hot-wallets.ids=900000001,900000002,900000003",
+        "wallet.hot-wallets.slots=4",
+        "wallet.cache.wallets.enabled=false"
+})
+class HotWalletTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Concurrent credits and debits on a hot wallet spread over its slots and add up to the right balance")
+    void concurrentCreditsAndDebits() throws Exception {
+        long id = hotWallet(900000001L, 100L);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        transactionService.applyTransaction(transaction(id, TransactionType.CREDIT, 3L));
+                        transactionService.applyTransaction(transaction(id, TransactionType.DEBIT, 1L));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(walletService.getWallet(id).getBalance()).isEqualTo(100L + 8 * 25 * 2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_balance_slots WHERE wallet_id = ? AND balance > 0",
+                Integer.class, id)).isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("A debit no single slot can cover sweeps the slots together; one beyond the total balance changes nothing")
+    void debitSweepsSlots() {
+        long id = hotWallet(900000002L, 0L);
+        for (int i = 0; i < 20; i++) {
+            transactionService.applyTransaction(transaction(id, TransactionType.CREDIT, 5L));
+        }
+
+        assertThat(transactionService.applyTransaction(transaction(id, TransactionType.DEBIT, 90L)).getBalance()).isEqualTo(10L);
+        assertThat(jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE id = ?", Long.class, id)).isEqualTo(10L);
+
+        assertThatThrownBy(() -> transactionService.applyTransaction(transaction(id, TransactionType.DEBIT, 11L)))
+                .isInstanceOf(InsufficientBalanceException.class);
+        assertThat(walletService.getWallet(id).getBalance()).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("Transfers and batches see a hot wallet's whole balance")
+    void transfersAndBatches() {
+        long id = hotWallet(900000003L, 0L);
+        Wallet other = walletService.createWallet(new CreateWalletRequest(0L, "other"));
+        for (int i = 0; i < 10; i++) {
+            transactionService.applyTransaction(transaction(id, TransactionType.CREDIT, 10L));
+        }
+
+        TransferResponse out = transactionService.transfer(transfer(id, other.getId(), 75L));
+        assertThat(out.getFromBalance()).isEqualTo(25L);
+        transactionService.applyTransaction(transaction(id, TransactionType.CREDIT, 5L));
+        TransferResponse in = transactionService.transfer(transfer(other.getId(), id, 5L));
+        assertThat(in.getToBalance()).isEqualTo(35L);
+
+        List<TransactionBatchItemResult> results = transactionService.applyTransactions(List.of(
+                transaction(id, TransactionType.CREDIT, 1L),
+                transaction(id, TransactionType.DEBIT, 36L),
+                transaction(id, TransactionType.DEBIT, 1L)));
+        assertThat(results).extracting(TransactionBatchItemResult::getMessage)
+                .containsExactly("Transaction completed successfully", "Transaction completed successfully", "Insufficient balance");
+        assertThat(walletService.getWallet(id).getBalance()).isZero();
+        assertThat(walletService.getWallet(other.getId()).getBalance()).isEqualTo(70L);
+    }
+
+    /** A wallet with a fixed id, so it can be listed as hot before the context starts. */
+    private long hotWallet(long id, long balance) {
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, opening_balance, description, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, balance, balance, "merchant", Timestamp.valueOf(LocalDateTime.now()));
+        return id;
+    }
+}
@@ -0,0 +1,265 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.commons.IdempotencyRecordCodec;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.enums.IdempotencyOperation;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.repository.IdempotencyClaimRepository;
+import com.faith.wallet_service.repository.IdempotencyRecordRepository;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import com.faith.wallet_service.serviceImpl.IdempotencyCoalescer;
+import com.faith.wallet_service.serviceImpl.IdempotencyCoalescer.Coalesced;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.faith.wallet_service.TestRequests.transaction;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "wallet.idempotency.claim.enabled=true",
+        "wallet.idempotency.claim.poll-interval=5ms",
+        "wallet.idempotency.claim.lease=600ms"
+})
+class IdempotencyCoalescingTest {
+
+    @Autowired
+    private IdempotencyCoalescer idempotencyCoalescer;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private IdempotencyClaimRepository claimRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("A request arriving while the same key runs waits for it and shares its response or failure")
+    void sharesInFlightOutcome() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        String key = UUID.randomUUID().toString();
+        Object response = new Object();
+
+        CompletableFuture<Coalesced<Object>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyCoalescer.execute(IdempotencyOperation.TRANSACTION, key, Optional::empty, () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return response;
+                }));
+        awaitExecutions(executions, 1);
+        Follower<Coalesced<Object>> second = Follower.start(() -> idempotencyCoalescer.execute(IdempotencyOperation.TRANSACTION,
+                key, Optional::empty, () -> {
+                    executions.incrementAndGet();
+                    return new Object();
+                }));
+        second.awaitWaiting();
+        release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS).shared()).isFalse();
+        assertThat(second.result().response()).isSameAs(response);
+        assertThat(second.result().shared()).isTrue();
+        assertThat(executions).hasValue(1);
+
+        // A failure is shared the same way
+        CountDownLatch failRelease = new CountDownLatch(1);
+        String failingKey = UUID.randomUUID().toString();
+        CompletableFuture<Coalesced<Object>> failing = CompletableFuture.supplyAsync(() ->
+                idempotencyCoalescer.execute(IdempotencyOperation.TRANSACTION, failingKey, Optional::empty, () -> {
+                    executions.incrementAndGet();
+                    await(failRelease);
+                    throw new InsufficientBalanceException("Insufficient balance");
+                }));
+        awaitExecutions(executions, 2);
+        Follower<Coalesced<Object>> failingFollower = Follower.start(() -> idempotencyCoalescer.execute(
+                IdempotencyOperation.TRANSACTION, failingKey, Optional::empty, Object::new));
+        failingFollower.awaitWaiting();
+        failRelease.countDown();
+
+        assertThatThrownBy(failingFollower::result).isInstanceOf(InsufficientBalanceException.class);
+        assertThat(failing).failsWithin(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Concurrent retries of one credit apply it once and all return the same response")
+    void concurrentRetriesApplyOnce() throws Exception {
+        Long walletId = walletService.createWallet(new CreateWalletRequest(0L, "coalesce")).getId();
+        TransactionRequest request = transaction(walletId, TransactionType.CREDIT, 5L, UUID.randomUUID().toString());
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<TransactionResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(pool.submit(() -> {
+                start.await();
+                return transactionService.applyTransaction(request);
+            }));
+        }
+        start.countDown();
+        Long transactionId = responses.get(0).get(1, TimeUnit.MINUTES).getTransactionId();
+        for (Future<TransactionResponse> response : responses) {
+            assertThat(response.get(1, TimeUnit.MINUTES).getTransactionId()).isEqualTo(transactionId);
+        }
+        pool.shutdown();
+
+        assertThat(walletService.getWallet(walletId).getBalance()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("A key claimed by another node is answered from that node's record instead of executed again")
+    void waitsForRemoteClaimOwner() throws Exception {
+        Long walletId = walletService.createWallet(new CreateWalletRequest(0L, "remote")).getId();
+        String key = UUID.randomUUID().toString();
+        byte[] keyHash = IdempotencyRecordCodec.keyHash(IdempotencyOperation.TRANSACTION, key);
+        assertThat(claimRepository.tryClaim(keyHash, "other-node", LocalDateTime.now().plusSeconds(30))).isTrue();
+        double remoteBefore = coalesced("remote");
+
+        Follower<TransactionResponse> retry = Follower.start(() -> transactionService.applyTransaction(transaction(walletId, TransactionType.CREDIT, 5L, key)));
+        retry.awaitWaiting();
+
+        // The other node commits its response and releases the claim
+        TransactionResponse committed = new TransactionResponse(424_242L, walletId, 5L, LocalDateTime.now().withNano(0));
+        idempotencyRecordRepository.insertTransaction(key, committed);
+        claimRepository.release(keyHash, "other-node");
+
+        assertThat(retry.result()).usingRecursiveComparison().isEqualTo(committed);
+        assertThat(walletService.getWallet(walletId).getBalance()).isZero();
+        assertThat(coalesced("remote")).isEqualTo(remoteBefore + 1);
+    }
+
+    @Test
+    @DisplayName("A claim whose lease ran out is taken over and released once the request completes")
+    void takesOverExpiredClaim() {
+        Long walletId = walletService.createWallet(new CreateWalletRequest(0L, "expired")).getId();
+        String key = UUID.randomUUID().toString();
+        byte[] keyHash = IdempotencyRecordCodec.keyHash(IdempotencyOperation.TRANSACTION, key);
+        claimRepository.tryClaim(keyHash, "crashed-node", LocalDateTime.now().minusSeconds(1));
+
+        TransactionResponse response = transactionService.applyTransaction(transaction(walletId, TransactionType.CREDIT, 5L, key));
+
+        assertThat(response.getBalance()).isEqualTo(5L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_claims WHERE key_hash = ?",
+                Integer.class, keyHash)).isZero();
+    }
+
+    @Test
+    @DisplayName("A claim is renewed while its owner runs, so another node cannot take it over mid-request")
+    void renewsClaimWhileRunning() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        String key = UUID.randomUUID().toString();
+        byte[] keyHash = IdempotencyRecordCodec.keyHash(IdempotencyOperation.TRANSACTION, key);
+
+        CompletableFuture<Coalesced<Object>> owner = CompletableFuture.supplyAsync(() ->
+                idempotencyCoalescer.execute(IdempotencyOperation.TRANSACTION, key, Optional::empty, () -> {
+                    await(release);
+                    return "done";
+                }));
+        // Three leases, well past the one the claim was taken with
+        Thread.sleep(1800);
+
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(claimRepository.takeOverExpired(keyHash, "other-node", now, now.plusSeconds(5))).isFalse();
+        release.countDown();
+        assertThat(owner.get(10, TimeUnit.SECONDS).response()).isEqualTo("done");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_claims WHERE key_hash = ?",
+                Integer.class, keyHash)).isZero();
+    }
+
+    private double coalesced(String scope) {
+        Counter counter = meterRegistry.find("wallet.idempotency.coalesced")
+                .tag("operation", "transaction")
+                .tag("scope", scope)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void awaitExecutions(AtomicInteger executions, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executions.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(executions).hasValue(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Runs a call on its own thread so the test can see when it is parked waiting on another request. */
+    private static final class Follower<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Thread thread;
+
+        private Follower(Supplier<T> call) {
+            thread = new Thread(() -> {
+                try {
+                    result.complete(call.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+
+        static <T> Follower<T> start(Supplier<T> call) {
+            Follower<T> follower = new Follower<>(call);
+            follower.thread.start();
+            return follower;
+        }
+
+        void awaitWaiting() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(thread.getState()).isEqualTo(Thread.State.TIMED_WAITING);
+        }
+
+        T result() throws Exception {
+            try {
+                return result.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                throw (Exception) e.getCause();
+            }
+        }
+    }
+}
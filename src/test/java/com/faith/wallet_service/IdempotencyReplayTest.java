@@ -0,0 +1,116 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.commons.IdempotencyRecordCodec;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.entity.WalletTransaction;
+import com.faith.wallet_service.enums.IdempotencyOperation;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.repository.IdempotencyRecordRepository;
+import com.faith.wallet_service.repository.TransactionRepository;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keys committed by another node (or before a restart) are unknown to the local cache and Bloom filter,
+ * so they take the fast path; these tests check they are still replayed rather than applied twice.
+ */
+@SpringBootTest
+class IdempotencyReplayTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Credit with a key committed elsewhere replays the stored response")
+    void creditReplaysKeyCommittedElsewhere() {
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(100L, null));
+        String key = UUID.randomUUID().toString();
+        TransactionResponse stored = storeCommittedCredit(wallet.getId(), key, 50L, 150L);
+
+        TransactionResponse response = transactionService.applyTransaction(request(wallet.getId(), 50L, TransactionType.CREDIT, key));
+
+        assertThat(response.getTransactionId()).isEqualTo(stored.getTransactionId());
+        assertThat(response.getBalance()).isEqualTo(150L);
+        assertThat(walletService.getWallet(wallet.getId()).getBalance()).isEqualTo(100L);
+    }
+
+    @Test
+    @DisplayName("Debit that would now bounce replays the stored response instead of failing")
+    void debitReplaysInsteadOfInsufficientBalance() {
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, null));
+        String key = UUID.randomUUID().toString();
+        TransactionResponse stored = storeCommittedCredit(wallet.getId(), key, 10L, 0L);
+
+        TransactionResponse response = transactionService.applyTransaction(request(wallet.getId(), 10L, TransactionType.DEBIT, key));
+
+        assertThat(response.getTransactionId()).isEqualTo(stored.getTransactionId());
+        assertThat(walletService.getWallet(wallet.getId()).getBalance()).isZero();
+    }
+
+    @Test
+    @DisplayName("A credit stores one compact record under its hashed key, which a retry replays")
+    void creditStoresOneCompactRecord() {
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, null));
+        String key = UUID.randomUUID().toString();
+        byte[] keyHash = IdempotencyRecordCodec.keyHash(IdempotencyOperation.TRANSACTION, key);
+
+        TransactionResponse first = transactionService.applyTransaction(request(wallet.getId(), 7L, TransactionType.CREDIT, key));
+        TransactionResponse retry = transactionService.applyTransaction(request(wallet.getId(), 7L, TransactionType.CREDIT, key));
+
+        Map<String, Object> record = jdbcTemplate.queryForMap(
+                "SELECT key_hash, operation, response FROM idempotency_records WHERE key_hash = ?", keyHash);
+        assertThat((byte[]) record.get("key_hash")).hasSize(IdempotencyRecordCodec.KEY_HASH_BYTES);
+        assertThat(((Number) record.get("operation")).shortValue()).isEqualTo(IdempotencyOperation.TRANSACTION.getCode());
+        assertThat(IdempotencyRecordCodec.decodeTransaction((byte[]) record.get("response")))
+                .usingRecursiveComparison().isEqualTo(first);
+        assertThat(retry).usingRecursiveComparison().isEqualTo(first);
+        assertThat(walletService.getWallet(wallet.getId()).getBalance()).isEqualTo(7L);
+    }
+
+    private TransactionResponse storeCommittedCredit(Long walletId, String key, long amount, long balance) {
+        WalletTransaction tx = new WalletTransaction();
+        tx.setWalletId(walletId);
+        tx.setAmount(amount);
+        tx.setType(TransactionType.CREDIT);
+        tx.setIdempotencyKey(key);
+        tx = transactionRepository.save(tx);
+
+        TransactionResponse stored = new TransactionResponse(tx.getId(), walletId, balance, tx.getCreatedAt());
+        idempotencyRecordRepository.insertTransaction(key, stored);
+        return stored;
+    }
+
+    private TransactionRequest request(Long walletId, long amount, TransactionType type, String key) {
+        TransactionRequest request = new TransactionRequest();
+        request.setWalletId(walletId);
+        request.setAmount(amount);
+        request.setType(type);
+        request.setIdempotencyKey(key);
+        return request;
+    }
+}
@@ -0,0 +1,111 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.commons.IdempotencyRecordCodec;
+import com.faith.wallet_service.dto.TransactionResponse;
+import com.faith.wallet_service.enums.IdempotencyOperation;
+import com.faith.wallet_service.repository.IdempotencyRecordRepository;
+import com.faith.wallet_service.serviceImpl.IdempotencySweeper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.idempotency.sweeper.enabled=true",
+        "wallet.idempotency.retention.transaction=1h",
+        "wallet.idempotency.retention.transfer=1h",
+        "wallet.idempotency.sweeper.chunk-size=3",
+        "wallet.idempotency.sweeper.interval-ms=3600000"
+})
+class IdempotencySweeperTest {
+
+    private static final long FIRST_ID = 9_000_000;
+
+    @Autowired
+    private IdempotencySweeper idempotencySweeper;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Expired records are purged in chunks, fresh and locked ones stay, and lag is reported")
+    void purgesExpiredResponses() throws Exception {
+        LocalDateTime expired = LocalDateTime.now().minusHours(2);
+        for (int i = 0; i < 10; i++) {
+            insertRecord(FIRST_ID + i, "sweep-old-" + i, expired.plusSeconds(i));
+        }
+        insertRecord(FIRST_ID + 10, "sweep-fresh", LocalDateTime.now());
+        double purgedBefore = purged();
+
+        // Another transaction holds the oldest expired row; the sweep must skip it rather than wait
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    jdbcTemplate.queryForObject("SELECT operation FROM idempotency_records WHERE key_hash = ? FOR UPDATE",
+                            Short.class, IdempotencyRecordCodec.keyHash(IdempotencyOperation.TRANSACTION, "sweep-old-0"));
+                    locked.countDown();
+                    try {
+                        release.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        idempotencySweeper.sweep();
+
+        assertThat(remainingKeys()).containsExactlyInAnyOrder("sweep-old-0", "sweep-fresh");
+        assertThat(purged() - purgedBefore).isEqualTo(9);
+        assertThat(lagSeconds()).isGreaterThan(3000);
+
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+        idempotencySweeper.sweep();
+
+        assertThat(remainingKeys()).containsExactly("sweep-fresh");
+        assertThat(purged() - purgedBefore).isEqualTo(10);
+        assertThat(lagSeconds()).isZero();
+    }
+
+    private void insertRecord(long transactionId, String key, LocalDateTime createdAt) {
+        idempotencyRecordRepository.insertTransaction(key, new TransactionResponse(transactionId, 1L, 0L, createdAt));
+    }
+
+    /** Keys are stored only as hashes, so probe each key this test inserted. */
+    private List<String> remainingKeys() {
+        return Stream.concat(Stream.iterate(0, i -> i < 10, i -> i + 1).map(i -> "sweep-old-" + i), Stream.of("sweep-fresh"))
+                .filter(key -> idempotencyRecordRepository.findTransaction(key).isPresent())
+                .toList();
+    }
+
+    private double purged() {
+        return meterRegistry.get("wallet.idempotency.purged").tag("operation", "transaction").functionCounter().count();
+    }
+
+    private double lagSeconds() {
+        return meterRegistry.get("wallet.idempotency.retention.lag").tag("operation", "transaction").gauge().value();
+    }
+}
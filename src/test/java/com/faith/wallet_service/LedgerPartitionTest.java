@@ -0,0 +1,88 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.repository.LedgerPartitionRepository;
+import com.faith.wallet_service.repository.LedgerPartitionRepository.Partition;
+import com.faith.wallet_service.serviceImpl.LedgerArchiver;
+import com.faith.wallet_service.serviceImpl.LedgerPartitionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class LedgerPartitionTest {
+
+    @Autowired
+    private LedgerPartitionRepository ledgerPartitionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Test
+    @DisplayName("Missing months ahead are created and only partitions wholly before retention are detached")
+    void plansPartitions() {
+        LocalDateTime legacyEnd = LocalDateTime.of(2026, 3, 1, 0, 0);
+        List<Partition> partitions = List.of(
+                new Partition("wallet_transactions_legacy", null, legacyEnd),
+                new Partition("wallet_transactions_p2026_03", legacyEnd, LocalDateTime.of(2026, 4, 1, 0, 0)));
+
+        assertThat(LedgerPartitionManager.monthsToCreate(partitions, YearMonth.of(2026, 3), 2))
+                .containsExactly(YearMonth.of(2026, 4), YearMonth.of(2026, 5));
+        assertThat(LedgerPartitionManager.partitionsToDetach(partitions, YearMonth.of(2026, 2))).isEmpty();
+        assertThat(LedgerPartitionManager.partitionsToDetach(partitions, YearMonth.of(2026, 3)))
+                .extracting(Partition::name).containsExactly("wallet_transactions_legacy");
+        assertThat(LedgerPartitionManager.partitionName("transfer_transactions", YearMonth.of(2026, 4)))
+                .isEqualTo("transfer_transactions_p2026_04");
+    }
+
+    @Test
+    @DisplayName("A detached partition is exported to gzip CSV, checked and dropped")
+    void archivesDetachedPartition(@TempDir Path archiveDir) throws Exception {
+        String partition = "wallet_transactions_p2020_01";
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (id BIGINT, wallet_id BIGINT, amount BIGINT, "
+                + "type VARCHAR(20), idempotency_key VARCHAR(255), created_at TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO " + partition + " VALUES (1, 7, 100, 'CREDIT', 'key,with \"quotes\"', ?)",
+                Timestamp.valueOf(LocalDateTime.of(2020, 1, 2, 3, 4)));
+        jdbcTemplate.update("INSERT INTO " + partition + " VALUES (2, 7, 40, 'DEBIT', 'plain', ?)",
+                Timestamp.valueOf(LocalDateTime.of(2020, 1, 5, 0, 0)));
+
+        LedgerArchiver archiver = new LedgerArchiver(ledgerPartitionRepository, archiveDir, transactionManager, shardRouter);
+        Path archive = archiver.archive(partition);
+
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8))) {
+            lines = reader.lines().toList();
+        }
+        assertThat(archive.getFileName().toString()).isEqualTo(partition + ".csv.gz");
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo("id,wallet_id,amount,type,idempotency_key,created_at");
+        assertThat(lines.get(1)).startsWith("1,7,100,CREDIT,\"key,with \"\"quotes\"\"\",2020-01-02");
+        assertThat(lines.get(2)).startsWith("2,7,40,DEBIT,plain,2020-01-05");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?",
+                Long.class, partition.toUpperCase())).isZero();
+    }
+}
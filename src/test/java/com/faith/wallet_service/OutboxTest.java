@@ -0,0 +1,161 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.dto.BalanceChangeEvent;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.enums.BalanceEventType;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.repository.OutboxRepository;
+import com.faith.wallet_service.service.OutboxSink;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import com.faith.wallet_service.serviceImpl.InMemoryOutboxSink;
+import com.faith.wallet_service.serviceImpl.OutboxRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+
+import static com.faith.wallet_service.TestRequests.transaction;
+import static com.faith.wallet_service.TestRequests.transfer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "wallet.outbox.enabled=true",
+        "wallet.outbox.partitions=4",
+        "wallet.outbox.relay.batch-size=2",
+        "wallet.outbox.relay.interval-ms=3600000",
+        "wallet.outbox.backlog.interval-ms=3600000"
+})
+class OutboxTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private FlakySink sink;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void drain() {
+        outboxRelay.relay();
+        sink.delegate.drain(Integer.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("Every balance change is published once, in order per wallet, with the balance it left")
+    void publishesBalanceChangesInOrder() {
+        Wallet alice = walletService.createWallet(new CreateWalletRequest(100L, "alice"));
+        Wallet bob = walletService.createWallet(new CreateWalletRequest(0L, "bob"));
+        transactionService.applyTransaction(transaction(alice.getId(), TransactionType.CREDIT, 10L));
+        transactionService.applyTransaction(transaction(alice.getId(), TransactionType.DEBIT, 30L));
+        transactionService.transfer(transfer(alice.getId(), bob.getId(), 50L));
+        transactionService.applyTransactions(List.of(
+                transaction(bob.getId(), TransactionType.DEBIT, 20L),
+                transaction(alice.getId(), TransactionType.CREDIT, 5L)));
+        assertThatThrownBy(() -> transactionService.applyTransaction(transaction(bob.getId(), TransactionType.DEBIT, 500L)))
+                .isInstanceOf(InsufficientBalanceException.class);
+
+        outboxRelay.relay();
+
+        List<BalanceChangeEvent> events = sink.delegate.drain(Integer.MAX_VALUE);
+        assertThat(events.stream().filter(event -> event.getWalletId().equals(alice.getId())))
+                .extracting(BalanceChangeEvent::getType, BalanceChangeEvent::getBalance)
+                .containsExactly(
+                        tuple(BalanceEventType.CREDIT, 110L),
+                        tuple(BalanceEventType.DEBIT, 80L),
+                        tuple(BalanceEventType.TRANSFER_OUT, 30L),
+                        tuple(BalanceEventType.CREDIT, 35L));
+        assertThat(events.stream().filter(event -> event.getWalletId().equals(bob.getId())))
+                .extracting(BalanceChangeEvent::getType, BalanceChangeEvent::getBalance, BalanceChangeEvent::getCounterpartyWalletId)
+                .containsExactly(
+                        tuple(BalanceEventType.TRANSFER_IN, 50L, alice.getId()),
+                        tuple(BalanceEventType.DEBIT, 30L, null));
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("A batch the sink refuses stays in the outbox and is published by the next pass")
+    void redeliversAfterSinkFailure() {
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, "flaky"));
+        transactionService.applyTransaction(transaction(wallet.getId(), TransactionType.CREDIT, 1L));
+
+        sink.failing = true;
+        outboxRelay.relay();
+        assertThat(sink.delegate.drain(Integer.MAX_VALUE)).isEmpty();
+        assertThat(outboxRepository.count()).isEqualTo(1);
+
+        sink.failing = false;
+        outboxRelay.relay();
+        assertThat(sink.delegate.drain(Integer.MAX_VALUE)).singleElement().satisfies(event -> {
+            assertThat(event.getWalletId()).isEqualTo(wallet.getId());
+            assertThat(event.getBalance()).isEqualTo(1L);
+        });
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("The backlog gauge is sampled on its own schedule, not counted by every relay pass")
+    void samplesBacklog() {
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, "backlog"));
+        transactionService.applyTransaction(transaction(wallet.getId(), TransactionType.CREDIT, 1L));
+        transactionService.applyTransaction(transaction(wallet.getId(), TransactionType.CREDIT, 2L));
+        long waiting = outboxRepository.count();
+
+        outboxRelay.sampleBacklog();
+        assertThat(backlog()).isEqualTo(waiting);
+
+        outboxRelay.relay();
+        assertThat(backlog()).isEqualTo(waiting);
+        outboxRelay.sampleBacklog();
+        assertThat(backlog()).isZero();
+    }
+
+    private double backlog() {
+        return meterRegistry.get("wallet.outbox.backlog").gauge().value();
+    }
+
+    /** Replaces the configured sink, as an application's own sink would. */
+    static class FlakySink implements OutboxSink {
+        final InMemoryOutboxSink delegate = new InMemoryOutboxSink(1000);
+        volatile boolean failing;
+
+        @Override
+        public void publish(List<BalanceChangeEvent> events) {
+            if (failing) {
+                throw new IllegalStateException("Broker unavailable");
+            }
+            delegate.publish(events);
+        }
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+        @Bean
+        @Primary
+        FlakySink flakySink() {
+            return new FlakySink();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.cache.TokenBucketTable;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "wallet.ratelimit.enabled=true",
+        "wallet.ratelimit.wallet.rate=0.5",
+        "wallet.ratelimit.wallet.burst=2",
+        "wallet.ratelimit.client.rate=0.5",
+        "wallet.ratelimit.client.burst=3"
+})
+class RateLimitTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    @DisplayName("A wallet over its burst gets 429 with Retry-After, by path or by request body, while other wallets are served")
+    void limitsPerWallet() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        Wallet busy = walletService.createWallet(new CreateWalletRequest(100L, "busy"));
+        Wallet quiet = walletService.createWallet(new CreateWalletRequest(100L, "quiet"));
+
+        mockMvc.perform(get("/wallets/" + busy.getId()).with(from("10.0.0.1"))).andExpect(status().isOk());
+        mockMvc.perform(credit(busy.getId()).with(from("10.0.0.1"))).andExpect(status().isOk());
+        mockMvc.perform(get("/wallets/" + busy.getId()).with(from("10.0.0.2")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.message").value("Too many requests for this wallet, retry shortly"));
+        mockMvc.perform(credit(busy.getId()).with(from("10.0.0.2")))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(credit(quiet.getId()).with(from("10.0.0.3"))).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("A principal over its burst gets 429 whichever wallet it asks for")
+    void limitsPerPrincipal() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        for (int i = 0; i < 3; i++) {
+            Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, "partner"));
+            mockMvc.perform(get("/wallets/" + wallet.getId()).principal(() -> "partner").with(from("10.0.1.1")))
+                    .andExpect(status().isOk());
+        }
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, "partner"));
+        mockMvc.perform(get("/wallets/" + wallet.getId()).principal(() -> "partner").with(from("10.0.1.2")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.message").value("Too many requests, retry shortly"));
+        mockMvc.perform(get("/wallets/" + wallet.getId()).principal(() -> "other").with(from("10.0.1.2")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("An anonymous client is limited by address however it varies its headers")
+    void limitsAnonymousClientByAddress() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        for (int i = 0; i < 3; i++) {
+            Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, "anonymous"));
+            mockMvc.perform(get("/wallets/" + wallet.getId()).header("X-Api-Key", "key-" + i).with(from("10.0.2.1")))
+                    .andExpect(status().isOk());
+        }
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, "anonymous"));
+        mockMvc.perform(get("/wallets/" + wallet.getId()).header("X-Api-Key", "key-3").with(from("10.0.2.1")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @DisplayName("A key that finds the table full of active buckets is refused, not admitted untracked")
+    void refusesKeysWhenTableIsFull() {
+        TokenBucketTable table = new TokenBucketTable(1, 1, 1);
+        long key = 1;
+        while (table.tryAcquire(key, 1) == 0) {
+            key++;
+        }
+        assertThat(table.overflowCount()).isEqualTo(1);
+        assertThat(table.tryAcquire(key + 1, 1)).isPositive();
+        assertThat(table.overflowCount()).isEqualTo(2);
+    }
+
+    private static RequestPostProcessor from(String remoteAddress) {
+        return request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        };
+    }
+
+    private static MockHttpServletRequestBuilder credit(Long walletId) {
+        return post("/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"walletId\":" + walletId + ",\"amount\":1,\"type\":\"CREDIT\",\"idempotencyKey\":\""
+                        + UUID.randomUUID() + "\"}");
+    }
+}
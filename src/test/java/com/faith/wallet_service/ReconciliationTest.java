@@ -0,0 +1,101 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.dto.BalanceDrift;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.ReconciliationReport;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import com.faith.wallet_service.serviceImpl.BalanceReconciler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.faith.wallet_service.TestRequests.transaction;
+import static com.faith.wallet_service.TestRequests.transfer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "wallet.reconciliation.enabled=true",
+        "wallet.reconciliation.interval-ms=3600000",
+        "wallet.reconciliation.chunk-size=64",
+        "wallet.reconciliation.settle-window=0s"
+})
+class ReconciliationTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BalanceReconciler balanceReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Balances that match the ledger pass, and a balance changed behind the ledger's back is reported with the ledger's figure")
+    void reportsDrift() {
+        Wallet alice = walletService.createWallet(new CreateWalletRequest(100L, "alice"));
+        Wallet bob = walletService.createWallet(new CreateWalletRequest(20L, "bob"));
+        transactionService.applyTransaction(transaction(alice.getId(), TransactionType.CREDIT, 10L));
+        transactionService.applyTransaction(transaction(alice.getId(), TransactionType.DEBIT, 30L));
+        transactionService.transfer(transfer(alice.getId(), bob.getId(), 50L));
+        transactionService.applyTransactions(List.of(transaction(bob.getId(), TransactionType.DEBIT, 5L)));
+
+        assertThat(driftsOf(balanceReconciler.reconcile(), alice, bob)).isEmpty();
+
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 7 WHERE id = ?", bob.getId());
+        ReconciliationReport report = balanceReconciler.reconcile();
+        assertThat(driftsOf(report, alice, bob))
+                .singleElement()
+                .isEqualTo(new BalanceDrift(bob.getId(), 72L, 65L));
+
+        jdbcTemplate.update("UPDATE wallets SET balance = balance - 7 WHERE id = ?", bob.getId());
+        assertThat(driftsOf(balanceReconciler.reconcile(), alice, bob)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A run reads only the ledger entries written since the previous run's snapshots")
+    void scansOnlyNewEntries() {
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, "delta"));
+        for (int i = 0; i < 5; i++) {
+            transactionService.applyTransaction(transaction(wallet.getId(), TransactionType.CREDIT, 1L));
+        }
+        ReconciliationReport first = balanceReconciler.reconcile();
+        assertThat(first.getLedgerEntriesScanned()).isGreaterThanOrEqualTo(5);
+
+        transactionService.applyTransaction(transaction(wallet.getId(), TransactionType.DEBIT, 2L));
+        ReconciliationReport second = balanceReconciler.reconcile();
+        assertThat(second.getLedgerEntriesScanned()).isEqualTo(1);
+        assertThat(second.getWalletsChecked()).isEqualTo(first.getWalletsChecked());
+        assertThat(driftsOf(second, wallet)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A wallet created before opening balances were recorded is reported as unverified, not drifted")
+    void countsWalletsWithoutOpeningBalance() {
+        Wallet legacy = walletService.createWallet(new CreateWalletRequest(40L, "legacy"));
+        jdbcTemplate.update("UPDATE wallets SET opening_balance = NULL WHERE id = ?", legacy.getId());
+
+        ReconciliationReport report = balanceReconciler.reconcile();
+        assertThat(report.getWalletsUnverified()).isEqualTo(1);
+        assertThat(driftsOf(report, legacy)).isEmpty();
+
+        jdbcTemplate.update("UPDATE wallets SET opening_balance = balance WHERE id = ?", legacy.getId());
+        assertThat(balanceReconciler.reconcile().getWalletsUnverified()).isZero();
+    }
+
+    private static List<BalanceDrift> driftsOf(ReconciliationReport report, Wallet... wallets) {
+        List<Long> ids = Arrays.stream(wallets).map(Wallet::getId).toList();
+        return report.getDrifts().stream().filter(drift -> ids.contains(drift.getWalletId())).toList();
+    }
+}
@@ -0,0 +1,157 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.commons.ReadConsistency;
+import com.faith.wallet_service.config.ReplicaLagMonitor;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "wallet.replica.enabled=true",
+        "wallet.replica.urls=jdbc:h2:mem:replica-${random.uuid};DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "wallet.replica.max-lag=1m",
+        "wallet.replica.heartbeat-interval-ms=3600000",
+        "wallet.cache.wallets.enabled=false",
+        "wallet.hot-wallets.ids=" + ReplicaRoutingTest.HOT_WALLET_ID
+})
+class ReplicaRoutingTest {
+
+    // Balance the replica's copy of a wallet carries, so a read shows which database served it
+    private static final long REPLICA_BALANCE = 999L;
+
+    static final long HOT_WALLET_ID = 900_000_001L;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("classpath:schema.sql")
+    private Resource schema;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(schema).execute(replicaLagMonitor.getReplica(0));
+        replica = new JdbcTemplate(replicaLagMonitor.getReplica(0));
+    }
+
+    @Test
+    @DisplayName("A wallet read goes to a replica that is within the lag threshold and has the wallet's last write")
+    void readsFromCaughtUpReplica() {
+        Wallet wallet = replicated(100L);
+        assertThat(walletService.getWallet(wallet.getId()).getBalance()).isEqualTo(REPLICA_BALANCE);
+        assertThat(walletService.getHistory(wallet.getId(), null, 10).getEntries()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A replica further behind than max-lag is skipped for the primary")
+    void skipsLaggingReplica() {
+        Wallet wallet = replicated(100L);
+        heartbeat(System.currentTimeMillis() - 120_000);
+        assertThat(walletService.getWallet(wallet.getId()).getBalance()).isEqualTo(100L);
+    }
+
+    @Test
+    @DisplayName("A node reads its own writes even while the replica has not replayed them")
+    void readsOwnWrites() {
+        Wallet wallet = replicated(100L);
+        TransactionRequest credit = new TransactionRequest();
+        credit.setWalletId(wallet.getId());
+        credit.setAmount(5L);
+        credit.setType(TransactionType.CREDIT);
+        credit.setIdempotencyKey(UUID.randomUUID().toString());
+        transactionService.applyTransaction(credit);
+
+        assertThat(walletService.getWallet(wallet.getId()).getBalance()).isEqualTo(105L);
+        assertThat(walletService.getHistory(wallet.getId(), null, 10).getEntries()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Writes return a consistency token, and a read carrying a newer token than the replica has goes to the primary")
+    void consistencyToken() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        mockMvc.perform(post("/wallets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"initialBalance\":1,\"description\":\"token\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(ReadConsistency.TOKEN_HEADER));
+
+        Wallet wallet = replicated(100L);
+        long replayed = System.currentTimeMillis();
+        mockMvc.perform(get("/wallets/" + wallet.getId())
+                        .header(ReadConsistency.TOKEN_HEADER, Long.toString(replayed - 1000)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.balance").value(REPLICA_BALANCE));
+        mockMvc.perform(get("/wallets/" + wallet.getId())
+                        .header(ReadConsistency.TOKEN_HEADER, Long.toString(replayed + 60_000)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.balance").value(100L));
+    }
+
+    @Test
+    @DisplayName("A hot wallet read from a replica takes its slots from the same replica")
+    void readsHotWalletSlotsFromReplica() {
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update("INSERT INTO wallets (id, balance, description, created_at) VALUES (?, 100, 'hot', ?)",
+                HOT_WALLET_ID, createdAt);
+        jdbcTemplate.update("INSERT INTO wallet_balance_slots (wallet_id, slot, balance) VALUES (?, 0, 10)", HOT_WALLET_ID);
+        replica.update("INSERT INTO wallets (id, balance, description, created_at) VALUES (?, ?, 'hot', ?)",
+                HOT_WALLET_ID, REPLICA_BALANCE, createdAt);
+        replica.update("INSERT INTO wallet_balance_slots (wallet_id, slot, balance) VALUES (?, 0, 1)", HOT_WALLET_ID);
+        heartbeat(System.currentTimeMillis());
+
+        assertThat(walletService.getWallet(HOT_WALLET_ID).getBalance()).isEqualTo(REPLICA_BALANCE + 1);
+    }
+
+    /** Creates the wallet on the primary and a copy with {@link #REPLICA_BALANCE} on a replica that has just caught up. */
+    private Wallet replicated(long balance) {
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(balance, "replicated"));
+        replica.update("INSERT INTO wallets (id, balance, description, created_at) VALUES (?, ?, ?, ?)",
+                wallet.getId(), REPLICA_BALANCE, wallet.getDescription(), Timestamp.valueOf(wallet.getCreatedAt()));
+        heartbeat(System.currentTimeMillis());
+        return wallet;
+    }
+
+    private void heartbeat(long millis) {
+        if (replica.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", millis) == 0) {
+            replica.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)", millis);
+        }
+        replicaLagMonitor.refresh(0);
+    }
+}
@@ -0,0 +1,251 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.commons.ShardRouter;
+import com.faith.wallet_service.dto.BalanceDrift;
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransferRequest;
+import com.faith.wallet_service.dto.TransferResponse;
+import com.faith.wallet_service.dto.WalletHistoryEntry;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.enums.HistoryEntryType;
+import com.faith.wallet_service.enums.TransferSagaState;
+import com.faith.wallet_service.exception.InsufficientBalanceException;
+import com.faith.wallet_service.repository.TransferSagaRepository;
+import com.faith.wallet_service.repository.TransferSagaRepository.Saga;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import com.faith.wallet_service.serviceImpl.BalanceReconciler;
+import com.faith.wallet_service.serviceImpl.CrossShardTransferCoordinator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static com.faith.wallet_service.TestRequests.credit;
+import static com.faith.wallet_service.TestRequests.transfer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "wallet.sharding.enabled=true",
+        "wallet.sharding.urls=jdbc:h2:mem:shard1-${random.uuid};DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LAZY_QUERY_EXECUTION=TRUE",
+        "wallet.sharding.saga.stale-after=0s",
+        "wallet.sharding.saga.recovery-interval-ms=3600000",
+        "spring.jpa.open-in-view=false",
+        "wallet.reconciliation.enabled=true",
+        "wallet.reconciliation.settle-window=0s",
+        "wallet.outbox.enabled=true",
+        "wallet.outbox.relay.interval-ms=3600000"
+})
+class ShardingTest {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private CrossShardTransferCoordinator crossShardTransferCoordinator;
+
+    @Autowired
+    private TransferSagaRepository transferSagaRepository;
+
+    @Autowired
+    private BalanceReconciler balanceReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("New wallets alternate between shards and their ids say which one holds them")
+    void walletsCarryTheirShard() {
+        Wallet first = walletService.createWallet(new CreateWalletRequest(5L, "first"));
+        Wallet second = walletService.createWallet(new CreateWalletRequest(5L, "second"));
+        assertThat(shardRouter.shardOf(first.getId())).isNotEqualTo(shardRouter.shardOf(second.getId()));
+
+        Wallet remote = walletOn(1, 5L);
+        assertThat(remote.getId()).isGreaterThan(ShardRouter.firstId(1));
+        assertThat(countWallets(0, remote.getId())).isZero();
+        assertThat(countWallets(1, remote.getId())).isEqualTo(1);
+
+        transactionService.applyTransaction(credit(remote.getId(), 7L));
+        assertThat(walletService.getWallet(remote.getId()).getBalance()).isEqualTo(12L);
+        assertThat(walletService.getHistory(remote.getId(), null, 10).getEntries())
+                .extracting(WalletHistoryEntry::getType).containsExactly(HistoryEntryType.CREDIT);
+    }
+
+    @Test
+    @DisplayName("A cross-shard transfer moves the money, appears in both histories and replays by key")
+    void crossShardTransfer() {
+        Wallet from = walletOn(0, 100L);
+        Wallet to = walletOn(1, 0L);
+        TransferRequest request = transfer(from.getId(), to.getId(), 30L);
+
+        TransferResponse response = transactionService.transfer(request);
+        assertThat(response.getFromBalance()).isEqualTo(70L);
+        assertThat(response.getToBalance()).isEqualTo(30L);
+        assertThat(walletService.getWallet(from.getId()).getBalance()).isEqualTo(70L);
+        assertThat(walletService.getWallet(to.getId()).getBalance()).isEqualTo(30L);
+
+        assertThat(walletService.getHistory(from.getId(), null, 10).getEntries())
+                .singleElement().satisfies(entry -> {
+                    assertThat(entry.getId()).isEqualTo(response.getTransferId());
+                    assertThat(entry.getType()).isEqualTo(HistoryEntryType.TRANSFER_OUT);
+                });
+        assertThat(walletService.getHistory(to.getId(), null, 10).getEntries())
+                .singleElement().satisfies(entry -> {
+                    assertThat(entry.getId()).isEqualTo(response.getTransferId());
+                    assertThat(entry.getType()).isEqualTo(HistoryEntryType.TRANSFER_IN);
+                });
+
+        assertThat(transactionService.transfer(request)).isEqualTo(response);
+        assertThat(walletService.getWallet(to.getId()).getBalance()).isEqualTo(30L);
+        assertThat(shardRouter.onShard(0, () -> transferSagaRepository.findByIdempotencyKey(request.getIdempotencyKey())))
+                .get().extracting(Saga::state).isEqualTo(TransferSagaState.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("A cross-shard transfer the sender cannot cover changes nothing on either shard")
+    void crossShardInsufficientBalance() {
+        Wallet from = walletOn(1, 10L);
+        Wallet to = walletOn(0, 0L);
+        TransferRequest request = transfer(from.getId(), to.getId(), 50L);
+
+        assertThatThrownBy(() -> transactionService.transfer(request)).isInstanceOf(InsufficientBalanceException.class);
+        assertThat(walletService.getWallet(from.getId()).getBalance()).isEqualTo(10L);
+        assertThat(walletService.getWallet(to.getId()).getBalance()).isZero();
+        assertThat(shardRouter.onShard(1, () -> transferSagaRepository.findByIdempotencyKey(request.getIdempotencyKey())))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("A saga left pending after the debit is finished by recovery and then replays by key")
+    void recoversPendingSaga() {
+        Wallet from = walletOn(0, 100L);
+        Wallet to = walletOn(1, 0L);
+        TransferRequest request = transfer(from.getId(), to.getId(), 25L);
+
+        // State after step 1 committed and the process died before crediting the receiver
+        long transferId = ShardRouter.firstId(0) + 900_000_000L;
+        LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        shardRouter.onShard(0, () -> {
+            jdbcTemplate.update("UPDATE wallets SET balance = balance - 25 WHERE id = ?", from.getId());
+            jdbcTemplate.update("INSERT INTO transfer_transactions (id, from_wallet_id, to_wallet_id, amount, idempotency_key, created_at) "
+                    + "VALUES (?, ?, ?, 25, ?, ?)", transferId, from.getId(), to.getId(), request.getIdempotencyKey(),
+                    Timestamp.valueOf(createdAt));
+            transferSagaRepository.insert(new Saga(transferId, request.getIdempotencyKey(), from.getId(), to.getId(),
+                    25L, 75L, null, TransferSagaState.PENDING, createdAt));
+            return null;
+        });
+
+        crossShardTransferCoordinator.recoverPending();
+
+        assertThat(walletService.getWallet(to.getId()).getBalance()).isEqualTo(25L);
+        TransferResponse replayed = transactionService.transfer(request);
+        assertThat(replayed.getTransferId()).isEqualTo(transferId);
+        assertThat(replayed.getFromBalance()).isEqualTo(75L);
+        assertThat(replayed.getToBalance()).isEqualTo(25L);
+        assertThat(walletService.getWallet(from.getId()).getBalance()).isEqualTo(75L);
+        assertThat(walletService.getWallet(to.getId()).getBalance()).isEqualTo(25L);
+    }
+
+    @Test
+    @DisplayName("Reconciliation counts each shard's copy of a cross-shard transfer against that shard's wallet only")
+    void reconcilesAcrossShards() {
+        Wallet from = walletOn(1, 100L);
+        Wallet to = walletOn(0, 5L);
+        transactionService.transfer(transfer(from.getId(), to.getId(), 40L));
+        transactionService.applyTransaction(credit(to.getId(), 1L));
+
+        assertThat(balanceReconciler.reconcile().getDrifts())
+                .extracting(BalanceDrift::getWalletId)
+                .doesNotContain(from.getId(), to.getId());
+
+        shardRouter.onShard(1, () -> jdbcTemplate.update("UPDATE wallets SET balance = 0 WHERE id = ?", from.getId()));
+        assertThat(balanceReconciler.reconcile().getDrifts())
+                .filteredOn(drift -> drift.getWalletId().equals(from.getId()))
+                .singleElement()
+                .isEqualTo(new BalanceDrift(from.getId(), 0L, 60L));
+        shardRouter.onShard(1, () -> jdbcTemplate.update("UPDATE wallets SET balance = 60 WHERE id = ?", from.getId()));
+    }
+
+    @Test
+    @DisplayName("A saga resumed after the receiver's snapshot was taken is still counted by reconciliation")
+    void reconcilesSagaResumedAfterSettleWindow() {
+        Wallet from = walletOn(0, 100L);
+        Wallet to = walletOn(1, 0L);
+        TransferRequest request = transfer(from.getId(), to.getId(), 15L);
+
+        // Step 1 committed an hour ago and the receiver has been reconciled since
+        long transferId = ShardRouter.firstId(0) + 900_000_001L;
+        LocalDateTime createdAt = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MICROS);
+        shardRouter.onShard(0, () -> {
+            jdbcTemplate.update("UPDATE wallets SET balance = balance - 15 WHERE id = ?", from.getId());
+            jdbcTemplate.update("INSERT INTO transfer_transactions (id, from_wallet_id, to_wallet_id, amount, idempotency_key, created_at) "
+                    + "VALUES (?, ?, ?, 15, ?, ?)", transferId, from.getId(), to.getId(), request.getIdempotencyKey(),
+                    Timestamp.valueOf(createdAt));
+            transferSagaRepository.insert(new Saga(transferId, request.getIdempotencyKey(), from.getId(), to.getId(),
+                    15L, 85L, null, TransferSagaState.PENDING, createdAt));
+            return null;
+        });
+        assertThat(balanceReconciler.reconcile().getDrifts())
+                .extracting(BalanceDrift::getWalletId)
+                .doesNotContain(to.getId());
+
+        crossShardTransferCoordinator.recoverPending();
+
+        assertThat(walletService.getWallet(to.getId()).getBalance()).isEqualTo(15L);
+        for (int run = 0; run < 2; run++) {
+            assertThat(balanceReconciler.reconcile().getDrifts())
+                    .extracting(BalanceDrift::getWalletId)
+                    .doesNotContain(from.getId(), to.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Outbox events of different shards never share an id")
+    void outboxIdsAreUniqueAcrossShards() {
+        Wallet local = walletOn(0, 0L);
+        Wallet remote = walletOn(1, 0L);
+        for (int i = 0; i < 3; i++) {
+            transactionService.applyTransaction(credit(local.getId(), 1L));
+            transactionService.applyTransaction(credit(remote.getId(), 1L));
+        }
+
+        List<Long> localIds = outboxIds(0, local.getId());
+        List<Long> remoteIds = outboxIds(1, remote.getId());
+        assertThat(localIds).hasSize(3);
+        assertThat(remoteIds).hasSize(3).allSatisfy(id -> assertThat(id).isGreaterThan(ShardRouter.firstId(1)));
+        assertThat(localIds).doesNotContainAnyElementsOf(remoteIds);
+    }
+
+    private List<Long> outboxIds(int shard, long walletId) {
+        return shardRouter.onShard(shard, () -> jdbcTemplate.queryForList(
+                "SELECT id FROM outbox_events WHERE wallet_id = ? ORDER BY id", Long.class, walletId));
+    }
+
+    private Wallet walletOn(int shard, long balance) {
+        for (int attempt = 0; attempt < shardRouter.getShardCount(); attempt++) {
+            Wallet wallet = walletService.createWallet(new CreateWalletRequest(balance, "shard-" + shard));
+            if (shardRouter.shardOf(wallet.getId()) == shard) {
+                return wallet;
+            }
+        }
+        throw new IllegalStateException("No wallet created on shard " + shard);
+    }
+
+    private Integer countWallets(int shard, long id) {
+        return shardRouter.onShard(shard,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallets WHERE id = ?", Integer.class, id));
+    }
+}
@@ -0,0 +1,95 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.enums.TransactionType;
+import com.faith.wallet_service.metrics.StatementCounter;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.faith.wallet_service.TestRequests.transaction;
+import static com.faith.wallet_service.TestRequests.transfer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement budgets for the write paths, counted at the JDBC connection. Raising a budget should be a
+ * deliberate change; a loop that queries per item shows up here as a count that grows with the batch.
+ * Runs with the Hibernate settings of the prod profile: schema from schema.sql only, padded IN lists.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.query.in_clause_parameter_padding=true"
+})
+class StatementBudgetTest {
+
+    // Wallet update, balance read, ledger insert, idempotency record, and the occasional id block
+    private static final long TRANSACTION_BUDGET = 5;
+    // Lock both wallets, update both, ledger insert, idempotency record, and the occasional id block
+    private static final long TRANSFER_BUDGET = 5;
+    // Lock the wallets, batched ledger inserts, batched idempotency records, batched wallet updates, and one
+    // id block, which covers up to wallet.id.allocation-size (50) ledger rows
+    private static final long BATCH_BUDGET = 5;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    @DisplayName("A credit or debit stays within its statement budget and a replay from the cache sends none")
+    void applyTransactionBudget() {
+        Wallet wallet = walletService.createWallet(new CreateWalletRequest(1_000L, "budget"));
+        TransactionRequest credit = transaction(wallet.getId(), TransactionType.CREDIT, 10L);
+
+        assertThat(statements(() -> transactionService.applyTransaction(credit))).isLessThanOrEqualTo(TRANSACTION_BUDGET);
+        assertThat(statements(() -> transactionService.applyTransaction(transaction(wallet.getId(), TransactionType.DEBIT, 10L))))
+                .isLessThanOrEqualTo(TRANSACTION_BUDGET);
+        assertThat(statements(() -> transactionService.applyTransaction(credit))).isZero();
+    }
+
+    @Test
+    @DisplayName("A transfer stays within its statement budget")
+    void transferBudget() {
+        Wallet alice = walletService.createWallet(new CreateWalletRequest(1_000L, "alice"));
+        Wallet bob = walletService.createWallet(new CreateWalletRequest(0L, "bob"));
+
+        assertThat(statements(() -> transactionService.transfer(transfer(alice.getId(), bob.getId(), 5L))))
+                .isLessThanOrEqualTo(TRANSFER_BUDGET);
+        assertThat(statements(() -> transactionService.transfer(transfer(bob.getId(), alice.getId(), 1L))))
+                .isLessThanOrEqualTo(TRANSFER_BUDGET);
+    }
+
+    @Test
+    @DisplayName("A batch sends as many statements for 50 wallets as for one")
+    void batchBudgetDoesNotGrowWithItems() {
+        List<TransactionRequest> single = credits(1);
+        List<TransactionRequest> fifty = credits(50);
+
+        assertThat(statements(() -> transactionService.applyTransactions(single))).isLessThanOrEqualTo(BATCH_BUDGET);
+        assertThat(statements(() -> transactionService.applyTransactions(fifty))).isLessThanOrEqualTo(BATCH_BUDGET);
+    }
+
+    private List<TransactionRequest> credits(int wallets) {
+        List<TransactionRequest> items = new ArrayList<>();
+        for (int i = 0; i < wallets; i++) {
+            Wallet wallet = walletService.createWallet(new CreateWalletRequest(0L, "batch"));
+            items.add(transaction(wallet.getId(), TransactionType.CREDIT, 1L));
+        }
+        return items;
+    }
+
+    private static long statements(Runnable operation) {
+        StatementCounter.reset();
+        operation.run();
+        return StatementCounter.current();
+    }
+}
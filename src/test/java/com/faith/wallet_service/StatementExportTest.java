@@ -0,0 +1,197 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.enums.StatementFormat;
+import com.faith.wallet_service.service.StatementService;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class StatementExportTest {
+
+    private static final int WARM_UP_ROWS = 1_000;
+    private static final int SEEDED_ROWS = 300_000;
+    private static final long SAMPLE_EVERY_BYTES = 1024 * 1024;
+    private static final int SAMPLE_EVERY_ROWS = 10_000;
+    private static final long MAX_RETAINED_GROWTH_BYTES = 8L * 1024 * 1024;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> seededWalletIds = new ArrayList<>();
+
+    @AfterEach
+    void removeSeededRows() {
+        for (Long walletId : seededWalletIds) {
+            jdbcTemplate.update("DELETE FROM wallet_transactions WHERE wallet_id = ?", walletId);
+        }
+        seededWalletIds.clear();
+    }
+
+    @Test
+    @DisplayName("Exporting a large wallet keeps retained heap flat")
+    void largeExportUsesBoundedHeap() throws Exception {
+        Long warmUp = seededWallet("statement-warm-up", WARM_UP_ROWS);
+        Long walletId = seededWallet("statement", SEEDED_ROWS);
+
+        // Pays the export path's one-time costs, so the measured export only holds what it needs per run
+        export(warmUp);
+        long databaseGrowth = sortedCursorGrowth(walletId);
+        HeapSamplingOutputStream out = export(walletId);
+
+        assertThat(out.lines).isEqualTo(SEEDED_ROWS);
+        // The output is far larger than the allowed growth, so buffering it anywhere would fail the check
+        assertThat(out.bytes).isGreaterThan(2 * MAX_RETAINED_GROWTH_BYTES);
+        // Measured from before the query runs, so rows loaded up front count too. H2 sorts in this JVM and
+        // holds every row while it does (PostgreSQL does that in its own process), so what the same rows
+        // cost a cursor that discards them is not the export's
+        assertThat(out.maxGrowth() - databaseGrowth).isLessThan(MAX_RETAINED_GROWTH_BYTES);
+    }
+
+    @Test
+    @DisplayName("Gzip CSV export contains a header and every entry in order")
+    void gzipCsvExport() throws Exception {
+        Long walletId = seededWallet("csv", 3);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        statementService.writeStatement(walletId, StatementFormat.CSV, true, out);
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8))) {
+            reader.lines().forEach(lines::add);
+        }
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).isEqualTo("id,type,amount,counterparty_wallet_id,timestamp");
+        assertThat(lines.get(1)).contains(",CREDIT,1,,");
+        assertThat(lines.get(3)).contains(",CREDIT,3,,");
+    }
+
+    private Long seededWallet(String description, int rows) {
+        Long walletId = walletService.createWallet(new CreateWalletRequest(0L, description)).getId();
+        seededWalletIds.add(walletId);
+        seed(walletId, rows);
+        return walletId;
+    }
+
+    private HeapSamplingOutputStream export(Long walletId) throws Exception {
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream(ManagementFactory.getMemoryMXBean());
+        statementService.writeStatement(walletId, StatementFormat.NDJSON, false, out);
+        return out;
+    }
+
+    /** Peak retained heap while reading the wallet's rows in statement order and dropping each one. */
+    private long sortedCursorGrowth(Long walletId) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = retainedHeap(memory);
+        long[] maxRetained = {baseline};
+        int[] rows = {0};
+        jdbcTemplate.query("SELECT id, type, amount, created_at FROM wallet_transactions WHERE wallet_id = ? "
+                + "ORDER BY created_at, id", rs -> {
+            if (++rows[0] % SAMPLE_EVERY_ROWS == 0) {
+                maxRetained[0] = Math.max(maxRetained[0], retainedHeap(memory));
+            }
+        }, walletId);
+        assertThat(rows[0]).isEqualTo(SEEDED_ROWS);
+        return maxRetained[0] - baseline;
+    }
+
+    private void seed(Long walletId, int rows) {
+        long firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM wallet_transactions", Long.class) + 1_000_000;
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        int chunk = 10_000;
+        for (int offset = 0; offset < rows; offset += chunk) {
+            List<Object[]> args = new ArrayList<>(chunk);
+            for (int i = offset; i < Math.min(rows, offset + chunk); i++) {
+                args.add(new Object[]{firstId + i, walletId, i + 1L, "CREDIT",
+                        "statement-" + walletId + "-" + i, Timestamp.valueOf(start.plusSeconds(i))});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO wallet_transactions (id, wallet_id, amount, type, idempotency_key, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", args);
+        }
+    }
+
+    private static long retainedHeap(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Discards the export while counting it, and measures the heap still reachable after a GC every
+     * megabyte against the heap reachable when it was created, before the export's query ran.
+     */
+    private static final class HeapSamplingOutputStream extends OutputStream {
+
+        private final MemoryMXBean memory;
+        private long bytes;
+        private long lines;
+        private long nextSampleAt = SAMPLE_EVERY_BYTES;
+        private final long baseline;
+        private long maxRetained;
+
+        HeapSamplingOutputStream(MemoryMXBean memory) {
+            this.memory = memory;
+            this.baseline = retainedHeap(memory);
+            this.maxRetained = baseline;
+        }
+
+        long maxGrowth() {
+            return maxRetained - baseline;
+        }
+
+        @Override
+        public void write(int b) {
+            count(b);
+            sample();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                count(b[i]);
+            }
+            sample();
+        }
+
+        private void count(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        private void sample() {
+            if (bytes >= nextSampleAt) {
+                nextSampleAt += SAMPLE_EVERY_BYTES;
+                maxRetained = Math.max(maxRetained, retainedHeap(memory));
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.faith.wallet_service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the same stress scenario with the in-process striped queue in front of the atomic update.
+ */
+@SpringBootTest(properties = "wallet.balance.engine=striped")
+class StripedBalanceEngineConcurrencyTest extends BalanceEngineConcurrencyTest {
+}
@@ -0,0 +1,40 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.dto.TransactionRequest;
+import com.faith.wallet_service.dto.TransferRequest;
+import com.faith.wallet_service.enums.TransactionType;
+
+import java.util.UUID;
+
+/** Request bodies for service-level tests; each gets a fresh idempotency key unless one is given. */
+final class TestRequests {
+
+    private TestRequests() {
+    }
+
+    static TransactionRequest transaction(Long walletId, TransactionType type, long amount) {
+        return transaction(walletId, type, amount, UUID.randomUUID().toString());
+    }
+
+    static TransactionRequest transaction(Long walletId, TransactionType type, long amount, String idempotencyKey) {
+        TransactionRequest request = new TransactionRequest();
+        request.setWalletId(walletId);
+        request.setAmount(amount);
+        request.setType(type);
+        request.setIdempotencyKey(idempotencyKey);
+        return request;
+    }
+
+    static TransactionRequest credit(Long walletId, long amount) {
+        return transaction(walletId, TransactionType.CREDIT, amount);
+    }
+
+    static TransferRequest transfer(Long from, Long to, long amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(from);
+        request.setToWalletId(to);
+        request.setAmount(amount);
+        request.setIdempotencyKey(UUID.randomUUID().toString());
+        return request;
+    }
+}
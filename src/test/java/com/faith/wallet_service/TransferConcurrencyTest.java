@@ -0,0 +1,78 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransferRequest;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TransferConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 100;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    @DisplayName("Opposing transfers between two wallets complete without deadlock and conserve money")
+    void opposingTransfersConserveTotal() throws Exception {
+        Wallet a = walletService.createWallet(new CreateWalletRequest(10_000L, "A"));
+        Wallet b = walletService.createWallet(new CreateWalletRequest(10_000L, "B"));
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            // Half the threads move A→B, the other half B→A
+            Long from = t % 2 == 0 ? a.getId() : b.getId();
+            Long to = t % 2 == 0 ? b.getId() : a.getId();
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    transactionService.transfer(transfer(from, to, 3));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        long balanceA = walletService.getWallet(a.getId()).getBalance();
+        long balanceB = walletService.getWallet(b.getId()).getBalance();
+        assertThat(balanceA + balanceB).isEqualTo(20_000L);
+        // Same number of transfers in each direction, so both wallets end where they started
+        assertThat(balanceA).isEqualTo(10_000L);
+    }
+
+    private TransferRequest transfer(Long from, Long to, long amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(from);
+        request.setToWalletId(to);
+        request.setAmount(amount);
+        request.setIdempotencyKey(UUID.randomUUID().toString());
+        return request;
+    }
+}
@@ -179,4 +179,110 @@ class WalletApiIntegrationTest {
         mockMvc.perform(get("/wallets/" + walletAId)).andExpect(jsonPath("$.data.balance").value(60));
         mockMvc.perform(get("/wallets/" + walletBId)).andExpect(jsonPath("$.data.balance").value(40));
     }
+
+    @Test
+    @DisplayName("POST /transactions/batch applies items per wallet with per-item results and idempotency")
+    void batch() throws Exception {
+        MvcResult a = mockMvc.perform(post("/wallets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"initialBalance\":100}"))
+                .andExpect(status().isCreated()).andReturn();
+        MvcResult b = mockMvc.perform(post("/wallets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"initialBalance\":0}"))
+                .andExpect(status().isCreated()).andReturn();
+        String walletAId = extractId(a);
+        String walletBId = extractId(b);
+
+        String batchBody = "{\"transactions\":["
+                + "{\"walletId\":" + walletAId + ",\"amount\":50,\"type\":\"CREDIT\",\"idempotencyKey\":\"batch-5d1c-credit-a\"},"
+                + "{\"walletId\":" + walletBId + ",\"amount\":30,\"type\":\"DEBIT\",\"idempotencyKey\":\"batch-5d1c-debit-b\"},"
+                + "{\"walletId\":" + walletAId + ",\"amount\":120,\"type\":\"DEBIT\",\"idempotencyKey\":\"batch-5d1c-debit-a\"},"
+                + "{\"walletId\":" + walletAId + ",\"amount\":50,\"type\":\"CREDIT\",\"idempotencyKey\":\"batch-5d1c-credit-a\"},"
+                + "{\"walletId\":999999,\"amount\":10,\"type\":\"CREDIT\",\"idempotencyKey\":\"batch-5d1c-missing\"}"
+                + "]}";
+
+        MvcResult first = mockMvc.perform(post("/transactions/batch").contentType(MediaType.APPLICATION_JSON).content(batchBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                .andExpect(jsonPath("$.message").value("Batch processed: 3 succeeded, 2 failed"))
+                .andExpect(jsonPath("$.data[0].status").value("SUCCESS"))
+                .andExpect(jsonPath("$.data[0].data.balance").value(150))
+                .andExpect(jsonPath("$.data[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.data[1].message").value("Insufficient balance"))
+                .andExpect(jsonPath("$.data[2].status").value("SUCCESS"))
+                .andExpect(jsonPath("$.data[2].data.balance").value(30))
+                .andExpect(jsonPath("$.data[3].data.transactionId").isNotEmpty())
+                .andExpect(jsonPath("$.data[4].status").value("FAILED"))
+                .andExpect(jsonPath("$.data[4].message").value("Wallet not found"))
+                .andReturn();
+
+        JsonNode firstData = objectMapper.readTree(first.getResponse().getContentAsString()).path("data");
+        // A repeated key inside the batch gets the first occurrence's result
+        assertEquals(firstData.get(0).path("data").path("transactionId").asLong(),
+                firstData.get(3).path("data").path("transactionId").asLong());
+
+        mockMvc.perform(get("/wallets/" + walletAId)).andExpect(jsonPath("$.data.balance").value(30));
+        mockMvc.perform(get("/wallets/" + walletBId)).andExpect(jsonPath("$.data.balance").value(0));
+
+        // Replaying the batch returns the stored results and applies nothing twice
+        mockMvc.perform(post("/transactions/batch").contentType(MediaType.APPLICATION_JSON).content(batchBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].data.transactionId").value(firstData.get(0).path("data").path("transactionId").asLong()))
+                .andExpect(jsonPath("$.data[2].data.transactionId").value(firstData.get(2).path("data").path("transactionId").asLong()));
+
+        mockMvc.perform(get("/wallets/" + walletAId)).andExpect(jsonPath("$.data.balance").value(30));
+    }
+
+    @Test
+    @DisplayName("GET /wallets/:id/transactions pages through credits, debits and transfers newest first")
+    void history() throws Exception {
+        String walletAId = extractId(mockMvc.perform(post("/wallets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"initialBalance\":100}"))
+                .andExpect(status().isCreated()).andReturn());
+        String walletBId = extractId(mockMvc.perform(post("/wallets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"initialBalance\":100}"))
+                .andExpect(status().isCreated()).andReturn());
+
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"walletId\":" + walletAId + ",\"amount\":10,\"type\":\"CREDIT\",\"idempotencyKey\":\"hist-7a2e-1\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"walletId\":" + walletAId + ",\"amount\":5,\"type\":\"DEBIT\",\"idempotencyKey\":\"hist-7a2e-2\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/transactions/transfer").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromWalletId\":" + walletAId + ",\"toWalletId\":" + walletBId + ",\"amount\":20,\"idempotencyKey\":\"hist-7a2e-3\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/transactions/transfer").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromWalletId\":" + walletBId + ",\"toWalletId\":" + walletAId + ",\"amount\":7,\"idempotencyKey\":\"hist-7a2e-4\"}"))
+                .andExpect(status().isOk());
+
+        MvcResult firstPage = mockMvc.perform(get("/wallets/" + walletAId + "/transactions").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Wallet history retrieved successfully"))
+                .andExpect(jsonPath("$.data.entries.length()").value(3))
+                .andExpect(jsonPath("$.data.entries[0].type").value("TRANSFER_IN"))
+                .andExpect(jsonPath("$.data.entries[0].amount").value(7))
+                .andExpect(jsonPath("$.data.entries[0].counterpartyWalletId").value(Long.parseLong(walletBId)))
+                .andExpect(jsonPath("$.data.entries[1].type").value("TRANSFER_OUT"))
+                .andExpect(jsonPath("$.data.entries[2].type").value("DEBIT"))
+                .andExpect(jsonPath("$.data.nextCursor").isNotEmpty())
+                .andReturn();
+        String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString())
+                .path("data").path("nextCursor").asText();
+
+        mockMvc.perform(get("/wallets/" + walletAId + "/transactions").param("limit", "3").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.entries.length()").value(1))
+                .andExpect(jsonPath("$.data.entries[0].type").value("CREDIT"))
+                .andExpect(jsonPath("$.data.entries[0].amount").value(10))
+                .andExpect(jsonPath("$.data.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/wallets/" + walletAId + "/transactions").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/wallets/999999/transactions"))
+                .andExpect(status().isNotFound());
+    }
 }
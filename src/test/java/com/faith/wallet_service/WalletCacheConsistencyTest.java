@@ -0,0 +1,108 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.dto.CreateWalletRequest;
+import com.faith.wallet_service.dto.TransferRequest;
+import com.faith.wallet_service.entity.Wallet;
+import com.faith.wallet_service.service.TransactionService;
+import com.faith.wallet_service.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.faith.wallet_service.TestRequests.credit;
+import static com.faith.wallet_service.TestRequests.transfer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class WalletCacheConsistencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int CREDITS_PER_WRITER = 150;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    @DisplayName("Cached reads never return a balance older than the latest committed credit")
+    void readsNeverGoBackInTime() throws Exception {
+        Long walletId = walletService.createWallet(new CreateWalletRequest(0L, "cache")).getId();
+        // Credits only, so the committed balance only grows and any older value is detectable
+        AtomicLong latestCommitted = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < CREDITS_PER_WRITER; i++) {
+                    long balance = transactionService.applyTransaction(credit(walletId, 1L)).getBalance();
+                    latestCommitted.accumulateAndGet(balance, Math::max);
+                }
+                return null;
+            }));
+        }
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(pool.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    long floor = latestCommitted.get();
+                    long seen = walletService.getWallet(walletId).getBalance();
+                    assertThat(seen).isGreaterThanOrEqualTo(floor);
+                    reads.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(2, TimeUnit.MINUTES);
+        }
+        writing.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertThat(reads.get()).isPositive();
+        assertThat(walletService.getWallet(walletId).getBalance()).isEqualTo((long) WRITERS * CREDITS_PER_WRITER);
+    }
+
+    @Test
+    @DisplayName("A transfer that rolls back leaves cached snapshots untouched; a committed one is visible at once")
+    void rollbackDoesNotLeak() {
+        Wallet from = walletService.createWallet(new CreateWalletRequest(10L, "from"));
+        Wallet to = walletService.createWallet(new CreateWalletRequest(0L, "to"));
+        assertThat(walletService.getWallet(from.getId()).getBalance()).isEqualTo(10L);
+
+        TransferRequest tooMuch = transfer(from.getId(), to.getId(), 50L);
+        try {
+            transactionService.transfer(tooMuch);
+        } catch (RuntimeException expected) {
+            // Insufficient balance: rolled back
+        }
+        assertThat(walletService.getWallet(from.getId()).getBalance()).isEqualTo(10L);
+
+        transactionService.transfer(transfer(from.getId(), to.getId(), 4L));
+        assertThat(walletService.getWallet(from.getId()).getBalance()).isEqualTo(6L);
+        assertThat(walletService.getWallet(to.getId()).getBalance()).isEqualTo(4L);
+    }
+}
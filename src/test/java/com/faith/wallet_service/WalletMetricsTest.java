@@ -0,0 +1,82 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.metrics.StatementCountingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class WalletMetricsTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StatementCountingFilter statementCountingFilter;
+
+    @Test
+    @DisplayName("Transaction calls are timed per outcome and statements are counted per route")
+    void recordsOutcomesAndStatements() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(statementCountingFilter)
+                .build();
+        long success = count("success");
+        long replay = count("replay");
+        long insufficient = count("insufficient_balance");
+        long notFound = count("not_found");
+
+        String walletId = new ObjectMapper().readTree(mockMvc.perform(post("/wallets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"initialBalance\":10}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).path("data").path("id").asText();
+
+        String credit = "{\"walletId\":" + walletId + ",\"amount\":5,\"type\":\"CREDIT\",\"idempotencyKey\":\"metrics-4b7e-credit\"}";
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON).content(credit))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON).content(credit))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"walletId\":" + walletId + ",\"amount\":500,\"type\":\"DEBIT\",\"idempotencyKey\":\"metrics-4b7e-debit\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/transactions").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"walletId\":999999,\"amount\":5,\"type\":\"CREDIT\",\"idempotencyKey\":\"metrics-4b7e-missing\"}"))
+                .andExpect(status().isNotFound());
+
+        assertThat(count("success")).isEqualTo(success + 1);
+        assertThat(count("replay")).isEqualTo(replay + 1);
+        assertThat(count("insufficient_balance")).isEqualTo(insufficient + 1);
+        assertThat(count("not_found")).isEqualTo(notFound + 1);
+
+        DistributionSummary statements = meterRegistry.find("wallet.db.statements").tag("uri", "/transactions").summary();
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isGreaterThanOrEqualTo(4);
+        assertThat(statements.max()).isPositive();
+        assertThat(meterRegistry.find("wallet.idempotency.cache.hits").tag("operation", "transaction").functionCounter())
+                .isNotNull();
+    }
+
+    private long count(String outcome) {
+        Timer timer = meterRegistry.find("wallet.operation")
+                .tag("operation", "transaction")
+                .tag("outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,95 @@
+package com.faith.wallet_service;
+
+import com.faith.wallet_service.config.WireFormatConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jackson.default-property-inclusion=non_null")
+class WireFormatTest {
+
+    private final CBORMapper cbor = CBORMapper.builder().build();
+    private final SmileMapper smile = SmileMapper.builder().build();
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    void setMockMvc(WebApplicationContext webApplicationContext) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    @DisplayName("Wallets and transactions are read and written as CBOR or Smile when the client asks for it")
+    void binaryRoundTrips() throws Exception {
+        JsonNode created = exchange(post("/wallets"), MediaType.APPLICATION_CBOR, cbor,
+                Map.of("initialBalance", 100, "description", "cbor"), 201);
+        long walletId = created.path("data").path("id").asLong();
+        assertThat(created.path("data").path("balance").asLong()).isEqualTo(100);
+
+        JsonNode credited = exchange(post("/transactions"), WireFormatConfig.APPLICATION_SMILE, smile,
+                Map.of("walletId", walletId, "amount", 25, "type", "CREDIT",
+                        "idempotencyKey", UUID.randomUUID().toString()), 200);
+        assertThat(credited.path("status").asString()).isEqualTo("SUCCESS");
+        assertThat(credited.path("data").path("balance").asLong()).isEqualTo(125);
+
+        JsonNode missing = exchange(get("/wallets/" + Long.MAX_VALUE), MediaType.APPLICATION_CBOR, cbor, null, 404);
+        assertThat(missing.path("message").asString()).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("Clients that accept anything still get JSON")
+    void jsonStaysTheDefault() throws Exception {
+        mockMvc.perform(post("/wallets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.ALL)
+                        .content("{\"initialBalance\":5}"))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.balance").value(5));
+    }
+
+    @Test
+    @DisplayName("Smile follows the spring.jackson settings the JSON mapper is built from")
+    void smileMatchesJson() throws Exception {
+        JsonNode created = exchange(post("/wallets"), MediaType.APPLICATION_CBOR, cbor, Map.of("initialBalance", 7), 201);
+        String path = "/wallets/" + created.path("data").path("id").asLong();
+
+        JsonNode json = exchange(get(path), MediaType.APPLICATION_JSON, JsonMapper.builder().build(), null, 200);
+        JsonNode binary = exchange(get(path), WireFormatConfig.APPLICATION_SMILE, smile, null, 200);
+        assertThat(json.path("data").has("description")).isFalse();
+        assertThat(binary).isEqualTo(json);
+    }
+
+    private JsonNode exchange(org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder request,
+                              MediaType mediaType, ObjectMapper mapper, Object body, int expectedStatus) throws Exception {
+        request.accept(mediaType);
+        if (body != null) {
+            request.contentType(mediaType).content(mapper.writeValueAsBytes(body));
+        }
+        byte[] response = mockMvc.perform(request)
+                .andExpect(status().is(expectedStatus))
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+        return mapper.readTree(response);
+    }
+}